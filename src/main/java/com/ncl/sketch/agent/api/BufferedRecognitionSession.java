@@ -0,0 +1,88 @@
+package com.ncl.sketch.agent.api;
+
+import java.util.Arrays;
+
+/**
+ * The default {@link RecognitionSession}, for agents which do not recognize strokes incrementally: the points are
+ * buffered as they are added, and the stroke drawn so far is {@link SketchRecognitionAgent#recognize(Stroke)
+ * recognized} as a whole on each {@link #speculate() speculation} and when the session is {@link #finish()
+ * finished}.
+ */
+final class BufferedRecognitionSession implements RecognitionSession {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final SketchRecognitionAgent agent;
+
+    private final double width;
+
+    private double[] xs;
+
+    private double[] ys;
+
+    private int size;
+
+    private boolean finished;
+
+    /**
+     * Constructor.
+     *
+     * @param anAgent the agent recognizing the stroke
+     * @param aWidth the width of the stroke
+     */
+    BufferedRecognitionSession(final SketchRecognitionAgent anAgent, final double aWidth) {
+        agent = anAgent;
+        width = aWidth;
+        xs = new double[INITIAL_CAPACITY];
+        ys = new double[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public final RecognitionSession add(final double x, final double y) {
+        checkNotFinished();
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * size);
+            ys = Arrays.copyOf(ys, 2 * size);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+        return this;
+    }
+
+    @Override
+    public final RecognitionResult finish() {
+        checkNotFinished();
+        finished = true;
+        return agent.recognize(stroke());
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final RecognitionResult speculate() {
+        checkNotFinished();
+        if (Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+        final RecognitionResult result = agent.recognize(stroke());
+        return Thread.currentThread().isInterrupted() ? null : result;
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("session is finished");
+        }
+    }
+
+    /*
+     * the stroke drawn so far. The buffers are not copied: points are only ever written past the current size.
+     */
+    private Stroke stroke() {
+        return new Stroke(width, new PackedStroke(xs, ys, 0, size));
+    }
+
+}
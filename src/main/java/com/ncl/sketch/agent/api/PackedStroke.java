@@ -0,0 +1,234 @@
+package com.ncl.sketch.agent.api;
+
+/**
+ * A structure-of-arrays sequence of contiguous 2D coordinates.
+ * <p>
+ * The coordinates are stored in two primitive arrays - one for the x coordinates and one for the y coordinates -
+ * and this object exposes the range <i>[offset, offset + length)</i> of these arrays. Reading a coordinate is a
+ * plain array access: no {@link Point point} object is dereferenced and no interface call is made.
+ * <p>
+ * {@link #subRange(int, int) Sub ranges} share the backing arrays of their parent and are always flat: accessing a
+ * coordinate costs the same whatever the number of nested sub ranges.
+ */
+public final class PackedStroke {
+
+    private final double[] xs;
+
+    private final double[] ys;
+
+    private final int offset;
+
+    private final int length;
+
+    /**
+     * Constructor. The specified arrays are <strong>not</strong> copied: they must not be modified once passed to
+     * this constructor.
+     *
+     * @param xCoordinates the x coordinates
+     * @param yCoordinates the y coordinates
+     * @throws IllegalArgumentException if both arrays do not have the same length
+     */
+    public PackedStroke(final double[] xCoordinates, final double[] yCoordinates) {
+        this(xCoordinates, yCoordinates, 0, checkedLength(xCoordinates, yCoordinates));
+    }
+
+    /**
+     * Constructor. The specified arrays are <strong>not</strong> copied: they must not be modified once passed to
+     * this constructor.
+     *
+     * @param xCoordinates the x coordinates
+     * @param yCoordinates the y coordinates
+     * @param anOffset index of the first coordinate in both arrays
+     * @param aLength number of coordinates
+     * @throws IndexOutOfBoundsException if the specified range does not fit within both arrays
+     */
+    public PackedStroke(final double[] xCoordinates, final double[] yCoordinates, final int anOffset,
+            final int aLength) {
+        if (anOffset < 0
+            || aLength < 0
+            || anOffset + aLength > xCoordinates.length
+            || anOffset + aLength > yCoordinates.length) {
+            throw new IndexOutOfBoundsException("offset = " + anOffset + ", length = " + aLength);
+        }
+        xs = xCoordinates;
+        ys = yCoordinates;
+        offset = anOffset;
+        length = aLength;
+    }
+
+    /**
+     * Returns a new {@link PackedStroke} holding the coordinates of the specified {@link Point point}s.
+     *
+     * @param points the points
+     * @return a new {@link PackedStroke} holding the coordinates of the specified {@link Point point}s
+     */
+    public static final PackedStroke of(final Point... points) {
+        final int size = points.length;
+        final double[] xs = new double[size];
+        final double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = points[i].x();
+            ys[i] = points[i].y();
+        }
+        return new PackedStroke(xs, ys, 0, size);
+    }
+
+    /**
+     * Copies the coordinates of this stroke into the specified arrays, starting at the specified position.
+     *
+     * @param destXs the array receiving the x coordinates
+     * @param destYs the array receiving the y coordinates
+     * @param destPos starting position in both destination arrays
+     */
+    public final void copyTo(final double[] destXs, final double[] destYs, final int destPos) {
+        System.arraycopy(xs, offset, destXs, destPos, length);
+        System.arraycopy(ys, offset, destYs, destPos, length);
+    }
+
+    /**
+     * Returns the {@link Point point} at the specified index. The returned point is a snapshot of the coordinates:
+     * two points returned for the same index are {@link Object#equals(Object) equal}.
+     *
+     * @param index index of the {@link Point point} to be returned
+     * @return the {@link Point point} at the specified index
+     */
+    public final Point get(final int index) {
+        checkIndex(index);
+        return new PackedPoint(xs[offset + index], ys[offset + index]);
+    }
+
+    /**
+     * Returns the number of coordinates.
+     *
+     * @return the number of coordinates
+     */
+    public final int size() {
+        return length;
+    }
+
+    /**
+     * Returns a view of the portion of this stroke between the specified <tt>fromIndex</tt>, inclusive, and
+     * <tt>toIndex</tt>, exclusive. The returned view shares the backing arrays of this stroke.
+     *
+     * @param fromIndex low endpoint (inclusive) of the sub range
+     * @param toIndex high endpoint (exclusive) of the sub range
+     * @return a view of the specified range within this stroke
+     * @throws IndexOutOfBoundsException if the range is not within this stroke
+     */
+    public final PackedStroke subRange(final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex = " + fromIndex + ", toIndex = " + toIndex);
+        }
+        return new PackedStroke(xs, ys, offset + fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Returns the x coordinate at the specified index.
+     *
+     * @param index index of the coordinate
+     * @return the x coordinate at the specified index
+     */
+    public final double x(final int index) {
+        checkIndex(index);
+        return xs[offset + index];
+    }
+
+    /**
+     * Returns a copy of the x coordinates of this stroke.
+     *
+     * @return a copy of the x coordinates of this stroke
+     */
+    public final double[] xs() {
+        final double[] result = new double[length];
+        System.arraycopy(xs, offset, result, 0, length);
+        return result;
+    }
+
+    /**
+     * Returns the y coordinate at the specified index.
+     *
+     * @param index index of the coordinate
+     * @return the y coordinate at the specified index
+     */
+    public final double y(final int index) {
+        checkIndex(index);
+        return ys[offset + index];
+    }
+
+    /**
+     * Returns a copy of the y coordinates of this stroke.
+     *
+     * @return a copy of the y coordinates of this stroke
+     */
+    public final double[] ys() {
+        final double[] result = new double[length];
+        System.arraycopy(ys, offset, result, 0, length);
+        return result;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + length);
+        }
+    }
+
+    /*
+     * the number of coordinates of both arrays, checked before the range is.
+     */
+    private static int checkedLength(final double[] xCoordinates, final double[] yCoordinates) {
+        if (xCoordinates.length != yCoordinates.length) {
+            throw new IllegalArgumentException("x and y must contain the same number of coordinates");
+        }
+        return xCoordinates.length;
+    }
+
+    /**
+     * A {@link Point point} read from a {@link PackedStroke}.
+     */
+    private static final class PackedPoint implements Point {
+
+        private final double x;
+
+        private final double y;
+
+        PackedPoint(final double anX, final double anY) {
+            x = anX;
+            y = anY;
+        }
+
+        @Override
+        public final boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PackedPoint)) {
+                return false;
+            }
+            final PackedPoint other = (PackedPoint) obj;
+            return Double.compare(x, other.x) == 0 && Double.compare(y, other.y) == 0;
+        }
+
+        @Override
+        public final int hashCode() {
+            final long bits = Double.doubleToLongBits(x) * 31 + Double.doubleToLongBits(y);
+            return (int) (bits ^ bits >>> 32);
+        }
+
+        @Override
+        public final String toString() {
+            return "[" + x + ", " + y + "]";
+        }
+
+        @Override
+        public final double x() {
+            return x;
+        }
+
+        @Override
+        public final double y() {
+            return y;
+        }
+
+    }
+
+}
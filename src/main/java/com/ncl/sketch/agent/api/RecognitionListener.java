@@ -0,0 +1,21 @@
+package com.ncl.sketch.agent.api;
+
+/**
+ * A callback notified of the {@link RecognitionResult result} of each {@link Stroke stroke} of a batch
+ * recognition.
+ *
+ * @see SketchRecognitionAgent#recognizeAll(java.util.Spliterator, RecognitionListener)
+ */
+public interface RecognitionListener {
+
+    /**
+     * Invoked once per stroke, in the order of the strokes of the batch, always from the thread which started the
+     * batch recognition.
+     *
+     * @param index the index of the stroke within the batch
+     * @param stroke the recognized {@link Stroke stroke}
+     * @param result the {@link RecognitionResult result} of the recognition process
+     */
+    void recognized(final long index, final Stroke stroke, final RecognitionResult result);
+
+}
@@ -7,6 +7,13 @@ import java.util.Collection;
  */
 public interface RecognitionResult {
 
+    /**
+     * Returns the {@link Arc arc}s recognized from the sketch.
+     * 
+     * @return the {@link Arc arc}s recognized from the sketch
+     */
+    Collection<Arc> arcs();
+
     /**
      * Returns the {@link Circle circle}s recognized from the sketch.
      * 
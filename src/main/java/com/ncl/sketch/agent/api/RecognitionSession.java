@@ -0,0 +1,53 @@
+package com.ncl.sketch.agent.api;
+
+/**
+ * The online recognition of a single {@link Stroke stroke} whose points are fed one at a time, while the stroke is
+ * being drawn.
+ * <p>
+ * The features of the stroke are updated as each point is {@link #add(double, double) added}, so that the work
+ * left when the stroke is {@link #finish() finished} is limited to matching these features against the patterns.
+ * A session is not thread-safe: it shall be fed and finished by a single thread at a time.
+ */
+public interface RecognitionSession {
+
+    /**
+     * Adds a point at the end of the stroke.
+     * 
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return this {@link RecognitionSession} for chainable calls
+     * @throws IllegalStateException if this session is finished
+     */
+    RecognitionSession add(final double x, final double y);
+
+    /**
+     * Ends the stroke and recognizes its geometric patterns. No point can be added afterwards.
+     * 
+     * @return the {@link RecognitionResult result} of the recognition process
+     * @throws IllegalStateException if this session is already finished
+     */
+    RecognitionResult finish();
+
+    /**
+     * Speculatively recognizes the geometric patterns of the stroke drawn so far. The segmentation of the
+     * partial stroke is reused: the patterns recognized before the last one are kept, and subsequent speculations
+     * as well as {@link #finish()} only recognize the rest of the stroke - unless, on finish, the whole stroke
+     * matches a single pattern.
+     * <p>
+     * The speculation stops as soon as the calling thread is interrupted: <code>null</code> is then returned, the
+     * session is left as it was before the call and the interrupt status of the thread is left set.
+     * 
+     * @return the {@link RecognitionResult result} of the recognition of the partial stroke, or <code>null</code>
+     *         if the speculation has been interrupted
+     * @throws IllegalStateException if this session is finished
+     */
+    RecognitionResult speculate();
+
+    /**
+     * Returns the number of points added to the stroke.
+     * 
+     * @return the number of points added to the stroke
+     */
+    int size();
+
+}
@@ -1,14 +1,42 @@
 package com.ncl.sketch.agent.api;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
 /**
  * An object that identifies geometric patterns in a sketch.
  * <p>
  * Each {@link Stroke stroke} of the sketch shall be individually matched against the patterns known to this agent
  * by calling {@link #recognize(Stroke)}. Once the sketch is completed the {@link #postProcess() post-processing}
  * phase may be called to further refine the recognition process.
+ * <p>
+ * Large numbers of independent strokes may be recognized at once by calling one of the <tt>recognizeAll</tt>
+ * methods: the results are returned in the order of the strokes. The default implementations recognize the strokes
+ * one after the other by calling {@link #recognize(Stroke)}; agents may override them to recognize the strokes in
+ * parallel.
+ * <p>
+ * A stroke may also be recognized while it is being drawn by feeding its points to a {@link #openSession(double)
+ * recognition session}.
  */
 public interface SketchRecognitionAgent {
 
+    /**
+     * Opens a {@link RecognitionSession session} recognizing a stroke of the specified width whose points are
+     * added one at a time. The default session buffers the points and {@link #recognize(Stroke) recognizes} the
+     * whole stroke drawn so far on each speculation and on finish; agents may override this method to recognize
+     * the stroke incrementally.
+     * 
+     * @param width the width of the stroke
+     * @return a new {@link RecognitionSession session}
+     */
+    default RecognitionSession openSession(final double width) {
+        return new BufferedRecognitionSession(this, width);
+    }
+
     RecognitionResult postProcess();
 
     /**
@@ -19,4 +47,67 @@ public interface SketchRecognitionAgent {
      */
     RecognitionResult recognize(final Stroke stroke);
 
+    /**
+     * Tries and recognizes geometric patterns in each of the specified {@link Stroke strokes}.
+     * 
+     * @param strokes the strokes on which to perform the recognition process
+     * @return the {@link RecognitionResult result}s of the recognition process, in the iteration order of the
+     *         strokes
+     */
+    default List<RecognitionResult> recognizeAll(final Collection<Stroke> strokes) {
+        return recognizeAll(strokes.spliterator());
+    }
+
+    /**
+     * Tries and recognizes geometric patterns in each of the specified {@link Stroke strokes}.
+     * 
+     * @param strokes the strokes on which to perform the recognition process
+     * @return the {@link RecognitionResult result}s of the recognition process, in the order of the strokes
+     */
+    default List<RecognitionResult> recognizeAll(final Stroke... strokes) {
+        return recognizeAll(Arrays.spliterator(strokes));
+    }
+
+    /**
+     * Tries and recognizes geometric patterns in each of the {@link Stroke strokes} traversed by the specified
+     * {@link Spliterator}.
+     * 
+     * @param strokes the strokes on which to perform the recognition process
+     * @return the {@link RecognitionResult result}s of the recognition process, in the encounter order of the
+     *         strokes
+     */
+    default List<RecognitionResult> recognizeAll(final Spliterator<Stroke> strokes) {
+        final List<RecognitionResult> results = new ArrayList<RecognitionResult>();
+        recognizeAll(strokes, new RecognitionListener() {
+
+            @Override
+            public final void recognized(final long index, final Stroke stroke, final RecognitionResult result) {
+                results.add(result);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Tries and recognizes geometric patterns in each of the {@link Stroke strokes} traversed by the specified
+     * {@link Spliterator}, notifying the specified listener of each result as soon as the results of all the
+     * preceding strokes have been notified. Unlike the other <tt>recognizeAll</tt> methods, results are not
+     * retained: this method suits streams of strokes which do not fit in memory.
+     * 
+     * @param strokes the strokes on which to perform the recognition process
+     * @param listener the {@link RecognitionListener listener} notified of each result, in the encounter order of
+     *            the strokes
+     */
+    default void recognizeAll(final Spliterator<Stroke> strokes, final RecognitionListener listener) {
+        strokes.forEachRemaining(new Consumer<Stroke>() {
+
+            private long index;
+
+            @Override
+            public final void accept(final Stroke stroke) {
+                listener.recognized(index++, stroke, recognize(stroke));
+            }
+        });
+    }
+
 }
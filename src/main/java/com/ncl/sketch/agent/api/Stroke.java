@@ -1,16 +1,17 @@
 package com.ncl.sketch.agent.api;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * A collection of contiguous {@link Point point}s.
+ * <p>
+ * The coordinates of the points are held by a {@link PackedStroke}: recognition kernels should read them through
+ * {@link #x(int)} and {@link #y(int)} or the {@link #coordinates() bulk accessors} rather than through
+ * {@link #get(int)}.
  */
 public final class Stroke {
 
     private final double width;
 
-    private final List<Point> points;
+    private final PackedStroke points;
 
     /**
      * Constructor.
@@ -19,14 +20,29 @@ public final class Stroke {
      * @param somePoints points defining the stroke
      */
     public Stroke(final double aWidth, final Point... somePoints) {
-        this(aWidth, Arrays.asList(somePoints));
+        this(aWidth, PackedStroke.of(somePoints));
     }
 
-    private Stroke(final double aWidth, final List<Point> somePoints) {
+    /**
+     * Constructor.
+     * 
+     * @param aWidth stroke width
+     * @param somePoints coordinates of the points defining the stroke
+     */
+    public Stroke(final double aWidth, final PackedStroke somePoints) {
         width = aWidth;
         points = somePoints;
     }
 
+    /**
+     * Returns the {@link PackedStroke coordinates} of the points of this stroke.
+     * 
+     * @return the {@link PackedStroke coordinates} of the points of this stroke
+     */
+    public final PackedStroke coordinates() {
+        return points;
+    }
+
     /**
      * Returns the {@link Point point} at the specified index in this stroke.
      * 
@@ -50,15 +66,17 @@ public final class Stroke {
      * Returns a view of the portion of this stroke between the specified <tt>fromIndex</tt>, inclusive, and
      * <tt>toIndex</tt>, exclusive. If <tt>fromIndex</tt> and <tt>toIndex</tt> are equal, the returned stroke is
      * empty.
+     * <p>
+     * The returned stroke is flat: it reads the coordinates of the root stroke at an offset, whatever the number of
+     * nested sub strokes, so that accessing a point costs the same at any depth.
      * 
-     * @see List#subList(int, int)
+     * @see PackedStroke#subRange(int, int)
      * @param fromIndex low endpoint (inclusive) of the sub stroke
      * @param toIndex high endpoint (exclusive) of the sub stroke
      * @return a view of the specified range within this stroke
      */
     public final Stroke subStroke(final int fromIndex, final int toIndex) {
-        final List<Point> sub = points.subList(fromIndex, toIndex);
-        return new Stroke(width, sub);
+        return new Stroke(width, points.subRange(fromIndex, toIndex));
     }
 
     /**
@@ -70,4 +88,24 @@ public final class Stroke {
         return width;
     }
 
+    /**
+     * Returns the x coordinate of the {@link Point point} at the specified index in this stroke.
+     * 
+     * @param index index of the {@link Point point}
+     * @return the x coordinate of the {@link Point point} at the specified index in this stroke
+     */
+    public final double x(final int index) {
+        return points.x(index);
+    }
+
+    /**
+     * Returns the y coordinate of the {@link Point point} at the specified index in this stroke.
+     * 
+     * @param index index of the {@link Point point}
+     * @return the y coordinate of the {@link Point point} at the specified index in this stroke
+     */
+    public final double y(final int index) {
+        return points.y(index);
+    }
+
 }
@@ -0,0 +1,103 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The Arc Pattern Recognizer parameters.
+ *
+ */
+public interface ArcRecognitionParameters extends LineRecognitionParameters {
+
+    /**
+     * Default arc recognition minimum correlation parameter value.
+     */
+    public static final double DEFAULT_MIN_CORRELATION = 0.95;
+
+    /**
+     * Default arc recognition maximum area error parameter value.
+     */
+    public static final double DEFAULT_MAX_AREA_ERROR = 0.1;
+
+    /**
+     * Default arc recognition maximum slope error parameter value.
+     */
+    public static final double DEFAULT_MAX_SLOPE_ERROR = 0.2;
+
+    /**
+     * Default arc recognition maximum closure distance parameter value: the width of the stroke.
+     */
+    public static final double DEFAULT_MAX_CLOSURE_DISTANCE = 1.0;
+
+    /**
+     * Returns the maximum error between the feature area of this stroke to the candidate arc center and the area
+     * of the sector delimited by the candidate arc above which the candidate arc will be considered unacceptable.
+     * This is a {@code double} in range <i>0.0</i> to <i>1.0</i> with a low value (typically <i>0.1</i>)
+     */
+    @Override
+    double maxAreaError();
+
+    /**
+     * Returns the distance between the ends of a stroke, relative to the width of the stroke, below which the
+     * stroke is considered closed and is not recognized as an arc.
+     *
+     * @return the maximum closure distance
+     */
+    double maxClosureDistance();
+
+    /**
+     * Returns the maximum error between the slope of the regression line of the direction graph of the stroke and
+     * the slope expected from the angular extent of the candidate arc, above which the candidate arc will be
+     * considered unacceptable.
+     *
+     * @return the maximum slope error
+     */
+    double maxSlopeError();
+
+    /**
+     * Returns the minimum correlation. Minimum correlation is a {@code double} in range <i>0.0</i> to <i>1.0</i>
+     * used to assess the fit of the computed regression line derived from the direction graph of the stroke. The
+     * higher the value the more restrictive the fit will be
+     *
+     * @return the minimum correlation
+     */
+    @Override
+    double minCorrelation();
+
+    /**
+     * Sets the maximum error between the feature area of this stroke to the candidate arc center and the area of
+     * the sector delimited by the candidate arc above which the candidate arc will be considered unacceptable.
+     * This is a {@code double} in range <i>0.0</i> to <i>1.0</i> with a low value (typically <i>0.1</i>)
+     *
+     * @param maxAreaError the maximum area error
+     * @return the {@link ArcRecognitionParameters}
+     */
+    @Override
+    ArcRecognitionParameters maxAreaError(final double maxAreaError);
+
+    /**
+     * Sets the distance between the ends of a stroke, relative to the width of the stroke, below which the stroke
+     * is considered closed and is not recognized as an arc.
+     *
+     * @param maxClosureDistance the maximum closure distance
+     * @return the {@link ArcRecognitionParameters}
+     */
+    ArcRecognitionParameters maxClosureDistance(final double maxClosureDistance);
+
+    /**
+     * Sets the maximum slope error.
+     *
+     * @param maxSlopeError the maximum slope error
+     * @return the {@link ArcRecognitionParameters}
+     */
+    ArcRecognitionParameters maxSlopeError(final double maxSlopeError);
+
+    /**
+     * Sets the minimum correlation. Minimum correlation is a {@code double} in range <i>0.0</i> to <i>1.0</i> used
+     * to assess the fit of the computed regression line derived from the direction graph of the stroke. The higher
+     * the value the more restrictive the fit will be
+     *
+     * @param minCorrelation the minimum correlation
+     * @return the {@link ArcRecognitionParameters}
+     */
+    @Override
+    ArcRecognitionParameters minCorrelation(final double minCorrelation);
+
+}
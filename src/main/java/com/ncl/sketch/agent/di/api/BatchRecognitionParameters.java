@@ -0,0 +1,55 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The batch recognition parameters: how the strokes given to one of the <tt>recognizeAll</tt> methods are
+ * distributed among worker threads.
+ * <p>
+ * Strokes are read by chunks. The strokes of a chunk are shared among the workers, each of them reusing its own
+ * working memory from one stroke to the next, and the results of a chunk are delivered once all of them are
+ * available.
+ */
+public interface BatchRecognitionParameters {
+
+    /**
+     * Default parallelism parameter value: the number of available processors.
+     */
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Default chunk size parameter value.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * Returns the maximum number of strokes read from the source before their recognition starts. The chunk size
+     * bounds the number of results held in memory by a streaming recognition.
+     *
+     * @return the chunk size
+     */
+    int chunkSize();
+
+    /**
+     * Returns the number of worker threads. With a parallelism of <i>1</i> strokes are recognized by the calling
+     * thread.
+     *
+     * @return the number of worker threads
+     */
+    int parallelism();
+
+    /**
+     * Sets the chunk size.
+     *
+     * @param chunkSize the maximum number of strokes read from the source before their recognition starts
+     * @return the {@link BatchRecognitionParameters}
+     */
+    BatchRecognitionParameters chunkSize(final int chunkSize);
+
+    /**
+     * Sets the number of worker threads.
+     *
+     * @param parallelism the number of worker threads
+     * @return the {@link BatchRecognitionParameters}
+     */
+    BatchRecognitionParameters parallelism(final int parallelism);
+
+}
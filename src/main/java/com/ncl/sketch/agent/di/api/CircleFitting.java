@@ -0,0 +1,20 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The strategies available to compute the candidate circle of a stroke whose direction graph fits a circle.
+ */
+public enum CircleFitting {
+
+    /**
+     * The center of the bounding box of the stroke is the center of the circle, the mean distance between this
+     * center and the stroke points is its radius. Cheap, but only accurate on strokes covering the whole circle.
+     */
+    BOUNDING_BOX,
+
+    /**
+     * The circle minimizing the algebraic distance to the stroke points (Kåsa fit), computed from moments
+     * accumulated in a single pass. Remains accurate on strokes covering only part of the circle.
+     */
+    ALGEBRAIC;
+
+}
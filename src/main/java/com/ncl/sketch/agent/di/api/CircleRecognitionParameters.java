@@ -21,6 +21,26 @@ public interface CircleRecognitionParameters extends LineRecognitionParameters {
      */
     public static final double DEFAULT_MAX_SLOPE_ERROR = 0.2;
 
+    /**
+     * Default circle fitting strategy parameter value.
+     */
+    public static final CircleFitting DEFAULT_CIRCLE_FITTING = CircleFitting.BOUNDING_BOX;
+
+    /**
+     * Returns the strategy used to compute the candidate circle of a stroke.
+     *
+     * @return the {@link CircleFitting circle fitting strategy}
+     */
+    CircleFitting circleFitting();
+
+    /**
+     * Sets the strategy used to compute the candidate circle of a stroke.
+     *
+     * @param circleFitting the {@link CircleFitting circle fitting strategy}
+     * @return the {@link CircleRecognitionParameters}
+     */
+    CircleRecognitionParameters circleFitting(final CircleFitting circleFitting);
+
     /**
      * Returns the maximum error between the feature area of this stroke to the candidate circle center and the
      * candidate circle area above which the candidate circle will be considered unacceptable. This is a
@@ -13,4 +13,16 @@ public interface DomainIndependentAgentParameters {
 
     CircleRecognitionParameters circleRecognitionParameters();
 
+    ArcRecognitionParameters arcRecognitionParameters();
+
+    SegmentationParameters segmentationParameters();
+
+    PreFilterParameters preFilterParameters();
+
+    PreprocessingParameters preprocessingParameters();
+
+    RecognizerChainParameters recognizerChainParameters();
+
+    BatchRecognitionParameters batchRecognitionParameters();
+
 }
@@ -0,0 +1,67 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The pre-filter parameters: thresholds of the constant-time tests that skip a pattern recognizer when the stroke
+ * obviously cannot match its pattern, and the number of strokes each test has ruled out.
+ */
+public interface PreFilterParameters {
+
+    /**
+     * Default maximum ratio of the path length of a line to its chord: a stroke twice as long as the distance
+     * between its endpoints is not a line.
+     */
+    public static final double DEFAULT_LINE_MAX_PATH_RATIO = 2.0;
+
+    /**
+     * Default maximum ratio of the closure distance of a circle to its path length. The closure ratio of a circle
+     * within the default slope error is at most <i>0.24</i>.
+     */
+    public static final double DEFAULT_CIRCLE_MAX_CLOSURE_RATIO = 0.5;
+
+    /**
+     * Returns the maximum ratio of the distance between the first and the last point of a stroke to its path
+     * length above which the circle recognizer is skipped.
+     *
+     * @return the maximum closure ratio of a circle
+     */
+    double circleMaxClosureRatio();
+
+    /**
+     * Returns the number of strokes on which the circle recognizer has been skipped.
+     *
+     * @return the number of strokes on which the circle recognizer has been skipped
+     */
+    long circleSkips();
+
+    /**
+     * Returns the maximum ratio of the path length of a stroke to the distance between its first and last point
+     * above which the line recognizer is skipped.
+     *
+     * @return the maximum path ratio of a line
+     */
+    double lineMaxPathRatio();
+
+    /**
+     * Returns the number of strokes on which the line recognizer has been skipped.
+     *
+     * @return the number of strokes on which the line recognizer has been skipped
+     */
+    long lineSkips();
+
+    /**
+     * Sets the maximum closure ratio of a circle. {@link Double#POSITIVE_INFINITY} disables the test.
+     *
+     * @param circleMaxClosureRatio the maximum closure ratio of a circle
+     * @return the {@link PreFilterParameters}
+     */
+    PreFilterParameters circleMaxClosureRatio(final double circleMaxClosureRatio);
+
+    /**
+     * Sets the maximum path ratio of a line. {@link Double#POSITIVE_INFINITY} disables the test.
+     *
+     * @param lineMaxPathRatio the maximum path ratio of a line
+     * @return the {@link PreFilterParameters}
+     */
+    PreFilterParameters lineMaxPathRatio(final double lineMaxPathRatio);
+
+}
@@ -0,0 +1,33 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The ways a stroke may be reduced before it is submitted to the pattern recognizers.
+ */
+public enum PreprocessingMode {
+
+    /**
+     * The stroke is recognized as drawn.
+     */
+    NONE,
+
+    /**
+     * The stroke is resampled at points equally spaced along its path, every
+     * {@link PreprocessingParameters#resamplingSpacing() spacing}.
+     */
+    RESAMPLING,
+
+    /**
+     * The stroke is simplified with the Douglas-Peucker algorithm: only the points farther than a
+     * {@link PreprocessingParameters#simplificationTolerance() tolerance} times the width of the stroke from the
+     * simplified path are kept. Meant for hand drawn strokes: a noiseless polyline is reduced to its vertices,
+     * too few points for the curvature of its sides to be estimated.
+     */
+    SIMPLIFICATION,
+
+    /**
+     * The stroke keeps at most {@link PreprocessingParameters#maxPoints() a number of} points, evenly spread over
+     * its points.
+     */
+    POINT_CAP;
+
+}
@@ -0,0 +1,104 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The preprocessing parameters: the {@link PreprocessingMode reduction} applied to a stroke before it is submitted
+ * to the pattern recognizers, so that the cost of the recognition does not grow with the number of points drawn.
+ * <p>
+ * The recognized patterns are computed on the reduced stroke: their coordinates are those of points of the original
+ * stroke, except in {@link PreprocessingMode#RESAMPLING resampling} mode where they are interpolated along the
+ * path. The {@link SegmentedRecognitionResult ranges} of the stroke they have been recognized on are mapped back to
+ * the points of the original stroke. By default strokes are not preprocessed.
+ * <p>
+ * The preprocessing also applies to the {@link com.ncl.sketch.agent.api.RecognitionSession sessions}: the stroke
+ * drawn so far is reduced and recognized whole on each speculation and when the session is finished.
+ */
+public interface PreprocessingParameters {
+
+    /**
+     * Default mode parameter value.
+     */
+    public static final PreprocessingMode DEFAULT_MODE = PreprocessingMode.NONE;
+
+    /**
+     * Default resampling spacing parameter value.
+     */
+    public static final double DEFAULT_RESAMPLING_SPACING = 2.0;
+
+    /**
+     * Default simplification tolerance parameter value: half the width of the stroke.
+     */
+    public static final double DEFAULT_SIMPLIFICATION_TOLERANCE = 0.5;
+
+    /**
+     * Default maximum number of points parameter value.
+     */
+    public static final int DEFAULT_MAX_POINTS = 1000;
+
+    /**
+     * Returns the maximum number of points of a stroke in {@link PreprocessingMode#POINT_CAP point cap} mode.
+     *
+     * @return the maximum number of points
+     */
+    int maxPoints();
+
+    /**
+     * Returns the {@link PreprocessingMode preprocessing mode}.
+     *
+     * @return the {@link PreprocessingMode preprocessing mode}
+     */
+    PreprocessingMode mode();
+
+    /**
+     * Returns the distance along the path between two points of a stroke in {@link PreprocessingMode#RESAMPLING
+     * resampling} mode.
+     *
+     * @return the resampling spacing
+     */
+    double resamplingSpacing();
+
+    /**
+     * Returns the maximum distance between a dropped point and the simplified path, relative to the width of the
+     * stroke, in {@link PreprocessingMode#SIMPLIFICATION simplification} mode.
+     *
+     * @return the simplification tolerance
+     */
+    double simplificationTolerance();
+
+    /**
+     * Sets the maximum number of points of a stroke in {@link PreprocessingMode#POINT_CAP point cap} mode.
+     *
+     * @param maxPoints the maximum number of points, at least <i>2</i>
+     * @return the {@link PreprocessingParameters}
+     * @throws IllegalArgumentException if the maximum number of points is lower than <i>2</i>
+     */
+    PreprocessingParameters maxPoints(final int maxPoints);
+
+    /**
+     * Sets the {@link PreprocessingMode preprocessing mode}.
+     *
+     * @param mode the {@link PreprocessingMode preprocessing mode}
+     * @return the {@link PreprocessingParameters}
+     */
+    PreprocessingParameters mode(final PreprocessingMode mode);
+
+    /**
+     * Sets the distance along the path between two points of a stroke in {@link PreprocessingMode#RESAMPLING
+     * resampling} mode.
+     *
+     * @param resamplingSpacing the resampling spacing, strictly positive
+     * @return the {@link PreprocessingParameters}
+     * @throws IllegalArgumentException if the resampling spacing is not strictly positive
+     */
+    PreprocessingParameters resamplingSpacing(final double resamplingSpacing);
+
+    /**
+     * Sets the maximum distance between a dropped point and the simplified path, relative to the width of the
+     * stroke, in {@link PreprocessingMode#SIMPLIFICATION simplification} mode.
+     *
+     * @param simplificationTolerance the simplification tolerance, positive or zero
+     * @return the {@link PreprocessingParameters}
+     * @throws IllegalArgumentException if the simplification tolerance is negative
+     */
+    PreprocessingParameters simplificationTolerance(final double simplificationTolerance);
+
+}
@@ -0,0 +1,57 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The recognizer chain parameters: the {@link RecognizerOrdering order} in which the pattern recognizers are tried
+ * on a stroke.
+ * <p>
+ * In {@link RecognizerOrdering#ADAPTIVE adaptive} mode strokes are grouped in buckets of similar size - strokes
+ * whose number of points have the same highest one bit. For each bucket the chain records the number of times each
+ * recognizer has been tried, the number of times it has matched and the time it took, and reorders the
+ * recognizers every {@link #reorderPeriod() period} strokes.
+ */
+public interface RecognizerChainParameters {
+
+    /**
+     * Default ordering parameter value.
+     */
+    public static final RecognizerOrdering DEFAULT_ORDERING = RecognizerOrdering.FIXED;
+
+    /**
+     * Default reorder period parameter value.
+     */
+    public static final int DEFAULT_REORDER_PERIOD = 64;
+
+    /**
+     * Returns the {@link RecognizerOrdering order} in which the pattern recognizers are tried.
+     *
+     * @return the {@link RecognizerOrdering order} in which the pattern recognizers are tried
+     */
+    RecognizerOrdering ordering();
+
+    /**
+     * Returns the number of strokes of a bucket recognized between two reorderings of the recognizers of this
+     * bucket.
+     *
+     * @return the reorder period
+     */
+    int reorderPeriod();
+
+    /**
+     * Sets the {@link RecognizerOrdering order} in which the pattern recognizers are tried. Setting the ordering
+     * starts a new session: the statistics of the previous session are discarded.
+     *
+     * @param ordering the {@link RecognizerOrdering order} in which the pattern recognizers are tried
+     * @return the {@link RecognizerChainParameters}
+     */
+    RecognizerChainParameters ordering(final RecognizerOrdering ordering);
+
+    /**
+     * Sets the reorder period.
+     *
+     * @param reorderPeriod the reorder period, at least <i>1</i>
+     * @return the {@link RecognizerChainParameters}
+     * @throws IllegalArgumentException if the reorder period is lower than <i>1</i>
+     */
+    RecognizerChainParameters reorderPeriod(final int reorderPeriod);
+
+}
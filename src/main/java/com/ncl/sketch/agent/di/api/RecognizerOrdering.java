@@ -0,0 +1,20 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The orders in which the pattern recognizers are tried on a stroke.
+ */
+public enum RecognizerOrdering {
+
+    /**
+     * The recognizers are always tried in the same order. The recognized patterns only depend on the stroke.
+     */
+    FIXED,
+
+    /**
+     * The recognizers are tried in increasing order of their average cost divided by their hit rate, measured
+     * during the session for strokes of similar size. This order minimizes the expected time to the first match,
+     * but a stroke matching several patterns may be recognized differently as the statistics evolve.
+     */
+    ADAPTIVE;
+
+}
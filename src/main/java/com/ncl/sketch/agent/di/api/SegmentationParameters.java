@@ -0,0 +1,101 @@
+package com.ncl.sketch.agent.di.api;
+
+/**
+ * The segmentation parameters: limits applied when a stroke that matches no pattern is split at its point of
+ * highest curvature and the resulting sub strokes are recognized in turn.
+ * <p>
+ * These limits bound the worst-case latency and memory of the recognition of a single stroke. Sub strokes that
+ * would exceed them are dropped. By default no limit applies.
+ */
+public interface SegmentationParameters {
+
+    /**
+     * Default maximum split depth parameter value: unlimited.
+     */
+    public static final int DEFAULT_MAX_DEPTH = Integer.MAX_VALUE;
+
+    /**
+     * Default minimum segment point count parameter value: the smallest stroke on which a line can be recognized.
+     */
+    public static final int DEFAULT_MIN_SEGMENT_POINTS = 2;
+
+    /**
+     * Default maximum number of segments parameter value: unlimited.
+     */
+    public static final int DEFAULT_MAX_SEGMENTS = Integer.MAX_VALUE;
+
+    /**
+     * Default parallel threshold parameter value: parallel recognition disabled.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.MAX_VALUE;
+
+    /**
+     * Returns the maximum split depth. A sub stroke obtained after this number of successive splits is not split
+     * any further.
+     *
+     * @return the maximum split depth
+     */
+    int maxDepth();
+
+    /**
+     * Returns the maximum number of segments - sub strokes submitted to the pattern recognizers, including the
+     * whole stroke - examined per stroke. Once this number is reached the remaining sub strokes are dropped.
+     *
+     * @return the maximum number of segments
+     */
+    int maxSegments();
+
+    /**
+     * Returns the minimum segment point count. A stroke is only split if both resulting sub strokes contain at
+     * least this number of points.
+     *
+     * @return the minimum segment point count
+     */
+    int minSegmentPoints();
+
+    /**
+     * Returns the parallel threshold. Both halves of a split sub stroke containing at least this number of points
+     * are recognized in parallel. Parallel recognition only applies when the {@link #maxSegments() maximum number
+     * of segments} is unlimited: the recognized patterns are then identical, and in the same order, whatever the
+     * parallelism.
+     *
+     * @return the parallel threshold
+     */
+    int parallelThreshold();
+
+    /**
+     * Sets the maximum split depth.
+     *
+     * @param maxDepth the maximum split depth, at least <i>1</i>
+     * @return the {@link SegmentationParameters}
+     * @throws IllegalArgumentException if the maximum split depth is lower than <i>1</i>
+     */
+    SegmentationParameters maxDepth(final int maxDepth);
+
+    /**
+     * Sets the maximum number of segments examined per stroke.
+     *
+     * @param maxSegments the maximum number of segments, at least <i>1</i>
+     * @return the {@link SegmentationParameters}
+     * @throws IllegalArgumentException if the maximum number of segments is lower than <i>1</i>
+     */
+    SegmentationParameters maxSegments(final int maxSegments);
+
+    /**
+     * Sets the minimum segment point count.
+     *
+     * @param minSegmentPoints the minimum segment point count, at least <i>2</i>
+     * @return the {@link SegmentationParameters}
+     * @throws IllegalArgumentException if the minimum segment point count is lower than <i>2</i>
+     */
+    SegmentationParameters minSegmentPoints(final int minSegmentPoints);
+
+    /**
+     * Sets the parallel threshold.
+     *
+     * @param parallelThreshold the minimum number of points of a sub stroke recognized in parallel
+     * @return the {@link SegmentationParameters}
+     */
+    SegmentationParameters parallelThreshold(final int parallelThreshold);
+
+}
@@ -0,0 +1,63 @@
+package com.ncl.sketch.agent.di.api;
+
+import java.util.List;
+
+import com.ncl.sketch.agent.api.Arc;
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.Line;
+import com.ncl.sketch.agent.api.RecognitionResult;
+
+/**
+ * A {@link RecognitionResult} which also tells the portion of the stroke each pattern has been recognized on. The
+ * results of the recognitions - of a single stroke, of a batch of strokes and of a session - of a
+ * {@link DomainIndependentAgent} implement this interface.
+ * <p>
+ * The range of a pattern is given by the indices of its first and last point in the stroke as drawn, whatever its
+ * {@link PreprocessingParameters preprocessing}: the patterns are recognized on the reduced stroke, and the ends of
+ * their ranges are mapped back to the original stroke. Consecutive ranges share the point the stroke has been
+ * split at.
+ * <p>
+ * The patterns of each list are in stroke order; the range of a pattern is looked up by its index in its list.
+ */
+public interface SegmentedRecognitionResult extends RecognitionResult {
+
+    @Override
+    List<Arc> arcs();
+
+    /**
+     * Returns the range of the points of the stroke the specified {@link Arc arc} has been recognized on.
+     *
+     * @param index the index of the arc in the {@link #arcs() arcs}
+     * @return the indices of the first and last points of the range, inclusive, or <code>null</code> if the range
+     *         of the arc is unknown
+     * @throws IndexOutOfBoundsException if there is no arc at the specified index
+     */
+    int[] arcRange(final int index);
+
+    @Override
+    List<Circle> circles();
+
+    /**
+     * Returns the range of the points of the stroke the specified {@link Circle circle} has been recognized on.
+     *
+     * @param index the index of the circle in the {@link #circles() circles}
+     * @return the indices of the first and last points of the range, inclusive, or <code>null</code> if the range
+     *         of the circle is unknown
+     * @throws IndexOutOfBoundsException if there is no circle at the specified index
+     */
+    int[] circleRange(final int index);
+
+    @Override
+    List<Line> lines();
+
+    /**
+     * Returns the range of the points of the stroke the specified {@link Line line} has been recognized on.
+     *
+     * @param index the index of the line in the {@link #lines() lines}
+     * @return the indices of the first and last points of the range, inclusive, or <code>null</code> if the range
+     *         of the line is unknown
+     * @throws IndexOutOfBoundsException if there is no line at the specified index
+     */
+    int[] lineRange(final int index);
+
+}
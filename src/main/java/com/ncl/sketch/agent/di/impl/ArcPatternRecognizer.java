@@ -1,16 +1,166 @@
 package com.ncl.sketch.agent.di.impl;
 
+import java.util.logging.Logger;
+
+import com.ncl.sketch.agent.api.Arc;
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.ArcRecognitionParameters;
+
+/**
+ * A specialized {@link PatternRecognizer} that recognizes arcs: open strokes of constant curvature.
+ * <p>
+ * The direction graph of an arc is a line whose slope is the angular extent of the arc divided by the number of
+ * stroke segments. The candidate arc is the {@link Strokes#arc(Stroke) arc} passing through the first, the middle
+ * and the last point of the stroke; it is accepted when the slope of the direction graph matches its extent and
+ * when the feature area of the stroke to its center matches the area of its sector. Each test runs in a single
+ * pass over the stroke, so that a partial curve is recognized at once instead of being split into short lines.
+ */
+final class ArcPatternRecognizer implements PatternRecognizer, ArcRecognitionParameters {
+
+    private static final Logger LOGGER = Logger.getLogger("DI-Agent");
+
+    private double minCorrelation;
+
+    private double maxAreaError;
+
+    private double maxSlopeError;
+
+    private double maxClosureDistance;
+
+    /**
+     * Constructor.
+     * 
+     * @param minimumCorrelation a {@code double} in range <i>0.0</i> to <i>1.0</i> used to assess the fit of the
+     *            computed regression line derived from the direction graph of the stroke. The higher the value the
+     *            more restrictive the fit will be
+     * @param maximumAreaError the maximum error between the feature area of this stroke to the candidate arc
+     *            center and the candidate sector area above which the candidate arc will be considered
+     *            unacceptable. This is a {@code double} in range <i>0.0</i> to <i>1.0</i> with a low value
+     *            (typically <i>0.1</i>)
+     * @param maximumSlopeError the maximum error between the slope of the direction graph and the slope expected
+     *            from the extent of the candidate arc
+     * @param maximumClosureDistance the distance between the ends of the stroke, relative to its width, below which
+     *            the stroke is considered closed
+     */
+    ArcPatternRecognizer(final double minimumCorrelation, final double maximumAreaError,
+            final double maximumSlopeError, final double maximumClosureDistance) {
+        minCorrelation = minimumCorrelation;
+        maxAreaError = maximumAreaError;
+        maxSlopeError = maximumSlopeError;
+        maxClosureDistance = maximumClosureDistance;
+    }
+
+    @Override
+    public final double maxAreaError() {
+        return maxAreaError;
+    }
+
+    @Override
+    public final ArcRecognitionParameters maxAreaError(final double maxAreaErrorVal) {
+        maxAreaError = maxAreaErrorVal;
+        return this;
+    }
+
+    @Override
+    public final double maxClosureDistance() {
+        return maxClosureDistance;
+    }
 
-final class ArcPatternRecognizer implements PatternRecognizer {
+    @Override
+    public final ArcRecognitionParameters maxClosureDistance(final double maxClosureDistanceVal) {
+        maxClosureDistance = maxClosureDistanceVal;
+        return this;
+    }
+
+    @Override
+    public final double maxSlopeError() {
+        return maxSlopeError;
+    }
+
+    @Override
+    public final ArcRecognitionParameters maxSlopeError(final double maxSlopeErrorVal) {
+        maxSlopeError = maxSlopeErrorVal;
+        return this;
+    }
+
+    @Override
+    public final double minCorrelation() {
+        return minCorrelation;
+    }
 
-    ArcPatternRecognizer() {
-        // empty.
+    @Override
+    public final ArcRecognitionParameters minCorrelation(final double minCorrelationVal) {
+        minCorrelation = minCorrelationVal;
+        return this;
     }
 
     @Override
-    public final boolean recognize(final Stroke stroke, final StrokeRecognitionResult result) {
-        throw new UnsupportedOperationException();
+    public final boolean recognize(final StrokeFeatures features, final StrokeRecognitionResult result) {
+        final Stroke stroke = features.stroke();
+        LOGGER.fine("Processing stroke with " + stroke.size() + " points");
+        final Arc candidate = candidate(features);
+        final boolean isArc;
+        if (candidate != null && fitsArc(features, candidate)) {
+            final double featureArea = Strokes.featureArea(stroke, candidate.center());
+            final double candidateArea = Geometry2D.areaOf(candidate);
+            final double areaError = error(featureArea, candidateArea);
+            isArc = areaError < maxAreaError;
+            LOGGER.fine("Feature area: "
+                + featureArea
+                + "; Candidate area: "
+                + candidateArea
+                + "; error: "
+                + areaError);
+            if (isArc) {
+                LOGGER.log(result.logLevel(), "Recognized arc: center "
+                    + candidate.center()
+                    + ", radius "
+                    + candidate.radius()
+                    + ", extent "
+                    + candidate.length()
+                    + " from stroke with "
+                    + stroke.size()
+                    + " points");
+                result.add(candidate);
+            }
+        } else {
+            isArc = false;
+        }
+        return isArc;
+    }
+
+    /*
+     * returns the candidate arc of the specified stroke or null if the stroke is too short, closed, or if no arc
+     * passes through its first, middle and last points.
+     */
+    private Arc candidate(final StrokeFeatures features) {
+        if (features.stroke().size() < 3
+            || features.closureDistance() <= maxClosureDistance * features.stroke().width()) {
+            return null;
+        }
+        final RegressionLine rl = features.directionGraphRegressionLine();
+        if (rl.coefficientOfDetermination() < minCorrelation) {
+            return null;
+        }
+        final Arc candidate = Strokes.arc(features.stroke());
+        if (candidate == null || !Double.isFinite(candidate.radius()) || candidate.length() == 0.0) {
+            return null;
+        }
+        return candidate;
+    }
+
+    /*
+     * the direction of consecutive segments of an arc of n points changes by its extent divided by n - 1.
+     */
+    private boolean fitsArc(final StrokeFeatures features, final Arc candidate) {
+        final RegressionLine rl = features.directionGraphRegressionLine();
+        final double perfectSlope = candidate.length() / (features.stroke().size() - 1);
+        final double slopeError = error(Math.abs(rl.slope()), perfectSlope);
+        return slopeError < maxSlopeError;
+    }
+
+    private static double error(final double actual, final double expected) {
+        return Math.abs(actual - expected) / expected;
     }
 
 }
@@ -0,0 +1,244 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.ncl.sketch.agent.api.RecognitionListener;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.BatchRecognitionParameters;
+
+/**
+ * Recognizes the patterns of a sequence of independent {@link Stroke strokes} with a
+ * {@link DomainIndependentAgentImpl domain-independent agent}.
+ * <p>
+ * Strokes are read by chunks from the calling thread. The strokes of a chunk are claimed one at a time by the
+ * workers - so that a long stroke does not hold up the others - and each worker recognizes them with its own
+ * {@link RecognitionScratch scratch}, reused over the whole batch. The results of a chunk are then delivered in
+ * stroke order, from the calling thread, before the next chunk is read.
+ * <p>
+ * The worker threads belong to a pool created on first use and reused by the following batches. Idle workers
+ * terminate after {@link #KEEP_ALIVE_SECONDS a while}, and they are daemon threads: the pool never prevents the
+ * application from exiting.
+ */
+final class BatchRecognizer implements BatchRecognitionParameters {
+
+    /**
+     * Number of seconds an idle worker waits for a new batch before terminating.
+     */
+    static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private static final ThreadFactory WORKER_FACTORY = new ThreadFactory() {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public final Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "DI-Agent batch worker " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final DomainIndependentAgentImpl agent;
+
+    /*
+     * the pool of the workers, created on first use, guarded by this recognizer.
+     */
+    private ThreadPoolExecutor executor;
+
+    private int parallelism;
+
+    private int chunkSize;
+
+    /**
+     * Constructor.
+     *
+     * @param anAgent the {@link DomainIndependentAgentImpl agent} recognizing each stroke
+     * @param aParallelism the number of worker threads
+     * @param aChunkSize the maximum number of strokes read before their recognition starts
+     */
+    BatchRecognizer(final DomainIndependentAgentImpl anAgent, final int aParallelism, final int aChunkSize) {
+        agent = anAgent;
+        parallelism = aParallelism;
+        chunkSize = aChunkSize;
+    }
+
+    @Override
+    public final int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public final BatchRecognitionParameters chunkSize(final int chunkSizeVal) {
+        chunkSize = chunkSizeVal;
+        return this;
+    }
+
+    @Override
+    public final int parallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public final BatchRecognitionParameters parallelism(final int parallelismVal) {
+        parallelism = parallelismVal;
+        return this;
+    }
+
+    /**
+     * Recognizes the patterns of each of the specified strokes.
+     *
+     * @param strokes the {@link Spliterator} of the strokes to recognize
+     * @return the {@link RecognitionResult result}s of the recognition, in the encounter order of the strokes
+     */
+    final List<RecognitionResult> recognizeAll(final Spliterator<Stroke> strokes) {
+        final long estimatedSize = strokes.estimateSize();
+        final List<RecognitionResult> results =
+                new ArrayList<RecognitionResult>(estimatedSize < Integer.MAX_VALUE ? (int) estimatedSize : 16);
+        recognizeAll(strokes, new RecognitionListener() {
+
+            @Override
+            public final void recognized(final long index, final Stroke stroke, final RecognitionResult result) {
+                results.add(result);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Recognizes the patterns of each of the specified strokes and notifies the specified listener of the results.
+     *
+     * @param strokes the {@link Spliterator} of the strokes to recognize
+     * @param listener the {@link RecognitionListener listener} notified of each result, in the encounter order of
+     *            the strokes
+     */
+    final void recognizeAll(final Spliterator<Stroke> strokes, final RecognitionListener listener) {
+        final int workers = Math.max(1, parallelism);
+        final int size = Math.max(1, chunkSize);
+        final RecognitionScratch[] scratches = new RecognitionScratch[workers];
+        for (int i = 0; i < workers; i++) {
+            scratches[i] = new RecognitionScratch();
+        }
+        final List<Stroke> chunk = new ArrayList<Stroke>(size);
+        final RecognitionResult[] results = new RecognitionResult[size];
+        final Consumer<Stroke> reader = new Consumer<Stroke>() {
+
+            @Override
+            public final void accept(final Stroke stroke) {
+                chunk.add(stroke);
+            }
+        };
+
+        final ExecutorService pool = workers == 1 ? null : executor(workers);
+        long index = 0;
+        while (read(strokes, reader, chunk, size)) {
+            if (pool == null) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[i] = agent.recognize(chunk.get(i), scratches[0]);
+                }
+            } else {
+                recognize(pool, scratches, chunk, results);
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                listener.recognized(index++, chunk.get(i), results[i]);
+                results[i] = null;
+            }
+            chunk.clear();
+        }
+    }
+
+    /*
+     * the pool of the workers, created or resized to the specified number of workers.
+     */
+    private synchronized ExecutorService executor(final int workers) {
+        if (executor == null) {
+            executor =
+                    new ThreadPoolExecutor(workers, workers, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                           new LinkedBlockingQueue<Runnable>(), WORKER_FACTORY);
+            executor.allowCoreThreadTimeOut(true);
+        } else if (workers > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(workers);
+            executor.setCorePoolSize(workers);
+        } else if (workers < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(workers);
+            executor.setMaximumPoolSize(workers);
+        }
+        return executor;
+    }
+
+    /*
+     * recognizes the strokes of the specified chunk with all the workers and waits for their completion.
+     */
+    private void recognize(final ExecutorService executor, final RecognitionScratch[] scratches,
+            final List<Stroke> chunk, final RecognitionResult[] results) {
+        final AtomicInteger next = new AtomicInteger();
+        final int workers = Math.min(scratches.length, chunk.size());
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(workers);
+        for (int w = 0; w < workers; w++) {
+            final RecognitionScratch scratch = scratches[w];
+            futures.add(executor.submit(new Callable<Void>() {
+
+                @SuppressWarnings("synthetic-access")
+                @Override
+                public final Void call() {
+                    for (int i = next.getAndIncrement(); i < chunk.size(); i = next.getAndIncrement()) {
+                        results[i] = agent.recognize(chunk.get(i), scratch);
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch recognition interrupted", e);
+        } catch (final ExecutionException e) {
+            cancel(futures);
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /*
+     * stops the workers still recognizing the strokes of a failed chunk.
+     */
+    private static void cancel(final List<Future<Void>> futures) {
+        for (final Future<Void> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /*
+     * reads at most size strokes into the specified chunk and returns whether at least one stroke was read.
+     */
+    private static boolean read(final Spliterator<Stroke> strokes, final Consumer<Stroke> reader,
+            final List<Stroke> chunk, final int size) {
+        while (chunk.size() < size && strokes.tryAdvance(reader)) {
+            // the reader adds the stroke to the chunk.
+        }
+        return !chunk.isEmpty();
+    }
+
+}
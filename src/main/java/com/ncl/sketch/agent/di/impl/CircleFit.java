@@ -0,0 +1,209 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * An algebraic least-squares circle fit (Kåsa fit): the circle minimizing the sum of the squared algebraic
+ * distances <i>(x - a)² + (y - b)² - r²</i> to the fitted points.
+ * <p>
+ * The fit only depends on the moments of the points up to the third order - and the fourth order for the
+ * {@link #residual() residual} - which are accumulated in a single pass as points are {@link #add(double, double)
+ * added}. Unlike the {@link Strokes#circle(Stroke) bounding box} approach, the fitted circle does not assume that
+ * the points cover the whole circle.
+ * <p>
+ * Moments are accumulated relative to the first added point to limit the loss of precision of the high order
+ * sums.
+ */
+final class CircleFit {
+
+    private static final double RELATIVE_ZERO = 1.0e-12;
+
+    private int n;
+
+    private double originX;
+
+    private double originY;
+
+    private double su;
+
+    private double sv;
+
+    private double suu;
+
+    private double suv;
+
+    private double svv;
+
+    private double suuu;
+
+    private double suuv;
+
+    private double suvv;
+
+    private double svvv;
+
+    private double szz;
+
+    private boolean solved;
+
+    private boolean valid;
+
+    private double centerX;
+
+    private double centerY;
+
+    private double radius;
+
+    private double residual;
+
+    /**
+     * Constructor.
+     */
+    CircleFit() {
+        // empty.
+    }
+
+    /**
+     * Returns the fit of the points of the specified {@link Stroke stroke}.
+     *
+     * @param stroke the {@link Stroke stroke}
+     * @return the fit of the points of the specified {@link Stroke stroke}
+     */
+    static final CircleFit of(final Stroke stroke) {
+        final CircleFit fit = new CircleFit();
+        final int size = stroke.size();
+        for (int i = 0; i < size; i++) {
+            fit.add(stroke.x(i), stroke.y(i));
+        }
+        return fit;
+    }
+
+    /**
+     * Adds the specified point to the fit.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return this {@link CircleFit} for chainable calls
+     */
+    final CircleFit add(final double x, final double y) {
+        if (n == 0) {
+            originX = x;
+            originY = y;
+        }
+        n++;
+        final double u = x - originX;
+        final double v = y - originY;
+        final double uu = u * u;
+        final double vv = v * v;
+        final double z = uu + vv;
+        su += u;
+        sv += v;
+        suu += uu;
+        suv += u * v;
+        svv += vv;
+        suuu += uu * u;
+        suuv += uu * v;
+        suvv += u * vv;
+        svvv += vv * v;
+        szz += z * z;
+        solved = false;
+        return this;
+    }
+
+    /**
+     * Returns the fitted {@link Circle circle} or <code>null</code> if the points are too few or collinear.
+     *
+     * @return the fitted {@link Circle circle} or <code>null</code> if no circle fits the points
+     */
+    final Circle circle() {
+        solve();
+        return valid ? new Circle(Geometry2D.point(centerX, centerY), radius) : null;
+    }
+
+    /**
+     * Returns the root mean square of the distances between the points and the fitted circle, approximated by the
+     * algebraic distances divided by the diameter. Returns {@link Double#NaN} if no circle fits the points.
+     *
+     * @return the root mean square of the distances between the points and the fitted circle
+     */
+    final double residual() {
+        solve();
+        return valid ? residual : Double.NaN;
+    }
+
+    /**
+     * Returns the number of points of the fit.
+     *
+     * @return the number of points of the fit
+     */
+    final int size() {
+        return n;
+    }
+
+    private void solve() {
+        if (solved) {
+            return;
+        }
+        solved = true;
+        valid = false;
+        if (n < 3) {
+            return;
+        }
+
+        /*
+         * moments centered on the mean point.
+         */
+        final double ub = su / n;
+        final double vb = sv / n;
+        final double cuu = suu - su * ub;
+        final double cuv = suv - su * vb;
+        final double cvv = svv - sv * vb;
+        final double cuuu = suuu - 3 * ub * suu + 2 * n * ub * ub * ub;
+        final double cuuv = suuv - vb * suu - 2 * ub * suv + 2 * n * ub * ub * vb;
+        final double cuvv = suvv - ub * svv - 2 * vb * suv + 2 * n * ub * vb * vb;
+        final double cvvv = svvv - 3 * vb * svv + 2 * n * vb * vb * vb;
+
+        final double det = cuu * cvv - cuv * cuv;
+        if (det <= RELATIVE_ZERO * (cuu + cvv) * (cuu + cvv)) {
+            /*
+             * collinear points.
+             */
+            return;
+        }
+
+        /*
+         * normal equations of the fit in the centered frame.
+         */
+        final double p = (cuuu + cuvv) / 2;
+        final double q = (cvvv + cuuv) / 2;
+        final double uc = (p * cvv - q * cuv) / det;
+        final double vc = (q * cuu - p * cuv) / det;
+        final double r2 = uc * uc + vc * vc + (cuu + cvv) / n;
+
+        /*
+         * sum of the squared algebraic distances w = z - 2au - 2bv + c in the frame of the first point.
+         */
+        final double a = ub + uc;
+        final double b = vb + vc;
+        final double c = a * a + b * b - r2;
+        final double sw2 =
+                szz
+                    + 4 * a * a * suu
+                    + 4 * b * b * svv
+                    + n * c * c
+                    - 4 * a * (suuu + suvv)
+                    - 4 * b * (suuv + svvv)
+                    + 2 * c * (suu + svv)
+                    + 8 * a * b * suv
+                    - 4 * a * c * su
+                    - 4 * b * c * sv;
+
+        centerX = originX + a;
+        centerY = originY + b;
+        radius = Math.sqrt(r2);
+        residual = Math.sqrt(Math.max(0.0, sw2) / n) / (2 * radius);
+        valid = true;
+    }
+
+}
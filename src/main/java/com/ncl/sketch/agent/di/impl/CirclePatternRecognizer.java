@@ -4,6 +4,7 @@ import java.util.logging.Logger;
 
 import com.ncl.sketch.agent.api.Circle;
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.CircleFitting;
 import com.ncl.sketch.agent.di.api.CircleRecognitionParameters;
 
 /**
@@ -15,14 +16,14 @@ final class CirclePatternRecognizer implements PatternRecognizer, CircleRecognit
 
     private static final double TWO_PI = 2.0 * Math.PI;
 
-    private final LeastSquares ls;
-
     private double minCorrelation;
 
     private double maxAreaError;
 
     private double maxSlopeError;
 
+    private CircleFitting circleFitting;
+
     /**
      * Constructor.
      * 
@@ -39,7 +40,18 @@ final class CirclePatternRecognizer implements PatternRecognizer, CircleRecognit
         minCorrelation = minimumCorrelation;
         maxAreaError = maximumAreaError;
         maxSlopeError = maximumSlopeError;
-        ls = new LeastSquares();
+        circleFitting = CircleRecognitionParameters.DEFAULT_CIRCLE_FITTING;
+    }
+
+    @Override
+    public final CircleFitting circleFitting() {
+        return circleFitting;
+    }
+
+    @Override
+    public final CircleRecognitionParameters circleFitting(final CircleFitting circleFittingVal) {
+        circleFitting = circleFittingVal;
+        return this;
     }
 
     @Override
@@ -76,24 +88,26 @@ final class CirclePatternRecognizer implements PatternRecognizer, CircleRecognit
     }
 
     @Override
-    public final boolean recognize(final Stroke stroke, final StrokeRecognitionResult result) {
+    public final boolean recognize(final StrokeFeatures features, final StrokeRecognitionResult result) {
+        final Stroke stroke = features.stroke();
         LOGGER.fine("Processing stroke with " + stroke.size() + " points");
-        final boolean fitsCircle = fitsCircle(stroke);
+        final boolean fitsCircle = fitsCircle(features);
         final boolean isCircle;
-        if (fitsCircle) {
-            final Circle candidate = Strokes.circle(stroke);
+        final Circle candidate = fitsCircle ? candidate(features) : null;
+        if (candidate != null) {
             final double featureArea = Strokes.featureArea(stroke, candidate.center());
             final double candidateArea = Geometry2D.areaOf(candidate);
             final double areaError = error(featureArea, candidateArea);
             isCircle = areaError < maxAreaError;
-            LOGGER.info("Feature area: "
+            LOGGER.log(result.logLevel(), "Feature area: "
                 + featureArea
                 + "; Candidate area: "
                 + candidateArea
                 + "; error: "
                 + areaError);
             if (isCircle) {
-                LOGGER.info("Recognized circle: " + candidate + " from stroke with " + stroke.size() + " points");
+                LOGGER.log(result.logLevel(),
+                           "Recognized circle: " + candidate + " from stroke with " + stroke.size() + " points");
                 result.add(candidate);
             }
         } else {
@@ -102,14 +116,25 @@ final class CirclePatternRecognizer implements PatternRecognizer, CircleRecognit
         return isCircle;
     }
 
-    private boolean fitsCircle(final Stroke stroke) {
-        final int strokeSize = stroke.size();
-        final double[] directionGraph = Strokes.directionGraph(stroke);
-        final double x[] = new double[strokeSize - 1];
-        for (int i = 0; i < strokeSize - 1; i++) {
-            x[i] = i;
+    /*
+     * returns the candidate circle of the specified stroke according to the circle fitting strategy or null if no
+     * circle fits the stroke.
+     */
+    private Circle candidate(final StrokeFeatures features) {
+        final Circle candidate;
+        if (circleFitting == CircleFitting.ALGEBRAIC) {
+            final CircleFit fit = features.circleFit();
+            candidate = fit.circle();
+            LOGGER.fine("Algebraic circle fit: " + candidate + "; residual: " + fit.residual());
+        } else {
+            candidate = Strokes.circle(features);
         }
-        final RegressionLine rl = ls.regressionLine(x, directionGraph);
+        return candidate;
+    }
+
+    private boolean fitsCircle(final StrokeFeatures features) {
+        final int strokeSize = features.stroke().size();
+        final RegressionLine rl = features.directionGraphRegressionLine();
         final double perfectSlope = TWO_PI / strokeSize;
         final double absActualSlope = Math.abs(rl.slope());
         final double slopeError = error(absActualSlope, perfectSlope);
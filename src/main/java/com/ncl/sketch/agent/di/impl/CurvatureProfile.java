@@ -0,0 +1,186 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * The curvature of every point of a {@link Stroke stroke} for a given neighborhood size <i>k</i>, indexed by a
+ * segment tree answering range-maximum queries.
+ * <p>
+ * The profile is computed once for the whole stroke. The {@link #indexOfMaxCurvature(StrokeIndex) point of
+ * maximum curvature} of any sub stroke is then found in <i>O(log n)</i> instead of rescanning the sub stroke at
+ * every recursion level. The query range is clipped to the points whose neighborhood lies within the sub stroke,
+ * and ties are resolved in favor of the first point, so that the result is identical to
+ * {@link Strokes#indexOfMaxCurvature(StrokeSegments, int)}.
+ */
+final class CurvatureProfile {
+
+    private final int k;
+
+    private final double[] curvatures;
+
+    private final int[] tree;
+
+    private final int leaves;
+
+    /**
+     * Constructor.
+     *
+     * @param segments the {@link StrokeSegments segments} of the whole stroke
+     * @param aK a small {@code integer} defining the neighborhood size around the each point of the stroke
+     */
+    CurvatureProfile(final StrokeSegments segments, final int aK) {
+        this(segments, aK, new RecognitionScratch());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param segments the {@link StrokeSegments segments} of the whole stroke
+     * @param aK a small {@code integer} defining the neighborhood size around the each point of the stroke
+     * @param scratch the {@link RecognitionScratch scratch} providing the buffers of the profile
+     */
+    CurvatureProfile(final StrokeSegments segments, final int aK, final RecognitionScratch scratch) {
+        k = aK;
+        final int strokeSize = segments.size() + 1;
+        curvatures = scratch.buffer(RecognitionScratch.CURVATURES, strokeSize);
+        for (int i = 0; i < strokeSize; i++) {
+            if (i >= k && i < strokeSize - k - 1) {
+                curvatures[i] = curvature(segments, i, k);
+            } else {
+                curvatures[i] = Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        int size = 1;
+        while (size < strokeSize) {
+            size <<= 1;
+        }
+        leaves = size;
+        tree = scratch.tree(2 * size);
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = i < strokeSize ? i : -1;
+        }
+        build(curvatures, tree, size);
+    }
+
+    /**
+     * Constructor of a profile whose curvatures and segment tree have been maintained point by point, with
+     * {@link #curvature(StrokeSegments, int, int)} and {@link #update(double[], int[], int, int)}. The arrays are
+     * not copied.
+     *
+     * @param aK a small {@code integer} defining the neighborhood size around the each point of the stroke
+     * @param someCurvatures the curvature of each point of the stroke
+     * @param aTree the segment tree over the curvatures
+     * @param someLeaves the number of leaves of the segment tree, a power of two not smaller than the stroke size
+     */
+    CurvatureProfile(final int aK, final double[] someCurvatures, final int[] aTree, final int someLeaves) {
+        k = aK;
+        curvatures = someCurvatures;
+        tree = aTree;
+        leaves = someLeaves;
+    }
+
+    /**
+     * Builds all the inner nodes of the specified segment tree from its leaves.
+     *
+     * @param curvatures the curvature of each point of the stroke
+     * @param tree the segment tree, whose leaves are the point indexes - <i>-1</i> past the end of the stroke
+     * @param leaves the number of leaves of the segment tree
+     */
+    static final void build(final double[] curvatures, final int[] tree, final int leaves) {
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = first(curvatures, tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the curvature of the n-th point of the stroke described by the specified {@link StrokeSegments
+     * segments}, as stored in the profile: {@link Double#NEGATIVE_INFINITY} if it is undefined.
+     *
+     * @param segments the {@link StrokeSegments segments} of the stroke
+     * @param n the index of the point, at least <i>k</i> and followed by at least <i>k</i> segments
+     * @param k a small {@code integer} defining the neighborhood size around the each point of the stroke
+     * @return the curvature of the n-th point of the stroke
+     */
+    static final double curvature(final StrokeSegments segments, final int n, final int k) {
+        final double curvature = Strokes.curvature(segments, n, k);
+        /* NaN never wins a comparison: store it as the lowest value. */
+        return Double.isNaN(curvature) ? Double.NEGATIVE_INFINITY : curvature;
+    }
+
+    /**
+     * Updates the ancestors of the specified leaf of the specified segment tree after the leaf or the curvature it
+     * refers to has changed, in <i>O(log n)</i>.
+     *
+     * @param curvatures the curvature of each point of the stroke
+     * @param tree the segment tree
+     * @param leaves the number of leaves of the segment tree
+     * @param index the index of the point whose leaf has changed
+     */
+    static final void update(final double[] curvatures, final int[] tree, final int leaves, final int index) {
+        for (int node = (leaves + index) >> 1; node > 0; node >>= 1) {
+            tree[node] = first(curvatures, tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the index, relative to the specified sub stroke, of the point which has the highest curvature.
+     *
+     * @see Strokes#indexOfMaxCurvature(StrokeSegments, int)
+     * @param stroke the {@link StrokeIndex index} of a sub stroke of the profiled stroke
+     * @return the index of the point which has the highest curvature or <i>-1</i> if no such point exists
+     */
+    final int indexOfMaxCurvature(final StrokeIndex stroke) {
+        final int strokeSize = stroke.stroke().size();
+        int maxK = (int) Math.ceil((strokeSize - 1) / 2);
+        maxK = strokeSize % 2 == 0 ? maxK : maxK - 1;
+        if (strokeSize <= 3 || maxK < k) {
+            /*
+             * neighborhood is reduced on short strokes: the profile does not apply.
+             */
+            return Strokes.indexOfMaxCurvature(stroke.segments(), k);
+        }
+
+        final int offset = stroke.offset();
+        final int index = max(offset + k, offset + strokeSize - k - 2);
+        return index == -1 || curvatures[index] <= 0 ? -1 : index - offset;
+    }
+
+    /*
+     * returns the first index of the maximum curvature in range [from, to].
+     */
+    private int max(final int from, final int to) {
+        if (from > to) {
+            return -1;
+        }
+        int left = -1;
+        int right = -1;
+        int l = from + leaves;
+        int r = to + leaves + 1;
+        while (l < r) {
+            if ((l & 1) == 1) {
+                left = first(curvatures, left, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                right = first(curvatures, tree[--r], right);
+            }
+            l >>= 1;
+            r >>= 1;
+        }
+        return first(curvatures, left, right);
+    }
+
+    /*
+     * returns the index of the highest curvature among the two specified indexes; "a" shall precede "b".
+     */
+    private static int first(final double[] curvatures, final int a, final int b) {
+        if (a == -1) {
+            return b;
+        }
+        if (b == -1) {
+            return a;
+        }
+        return curvatures[b] > curvatures[a] ? b : a;
+    }
+
+}
@@ -1,13 +1,26 @@
 package com.ncl.sketch.agent.di.impl;
 
-import java.util.logging.Logger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 
+import com.ncl.sketch.agent.api.RecognitionListener;
 import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.RecognitionSession;
 import com.ncl.sketch.agent.api.SketchRecognitionAgent;
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.ArcRecognitionParameters;
+import com.ncl.sketch.agent.di.api.BatchRecognitionParameters;
 import com.ncl.sketch.agent.di.api.CircleRecognitionParameters;
 import com.ncl.sketch.agent.di.api.DomainIndependentAgent;
 import com.ncl.sketch.agent.di.api.LineRecognitionParameters;
+import com.ncl.sketch.agent.di.api.PreFilterParameters;
+import com.ncl.sketch.agent.di.api.PreprocessingParameters;
+import com.ncl.sketch.agent.di.api.RecognizerChainParameters;
+import com.ncl.sketch.agent.di.api.SegmentationParameters;
+import com.ncl.sketch.agent.di.api.SegmentedRecognitionResult;
 
 /**
  * A domain-independent {@link SketchRecognitionAgent}. This agent makes no assumption about the context in which
@@ -18,8 +31,6 @@ import com.ncl.sketch.agent.di.api.LineRecognitionParameters;
  */
 public final class DomainIndependentAgentImpl implements DomainIndependentAgent {
 
-    private static final Logger LOGGER = Logger.getLogger("DI-Agent");
-
     private final PatternRecognizerChain recgonizers;
 
     private int k;
@@ -28,6 +39,16 @@ public final class DomainIndependentAgentImpl implements DomainIndependentAgent
 
     private final CirclePatternRecognizer circleRecognizer;
 
+    private final ArcPatternRecognizer arcRecognizer;
+
+    private final PreFilter preFilter;
+
+    private final Preprocessor preprocessor;
+
+    private final SegmentationEngine segmentation;
+
+    private final BatchRecognizer batch;
+
     /**
      * Constructor.
      */
@@ -40,10 +61,44 @@ public final class DomainIndependentAgentImpl implements DomainIndependentAgent
                 new CirclePatternRecognizer(CircleRecognitionParameters.DEFAULT_MIN_CORRELATION,
                                             CircleRecognitionParameters.DEFAULT_MAX_AREA_ERROR,
                                             CircleRecognitionParameters.DEFAULT_MAX_SLOPE_ERROR);
-        recgonizers.add(lineRecognizer).add(circleRecognizer);
+        arcRecognizer =
+                new ArcPatternRecognizer(ArcRecognitionParameters.DEFAULT_MIN_CORRELATION,
+                                         ArcRecognitionParameters.DEFAULT_MAX_AREA_ERROR,
+                                         ArcRecognitionParameters.DEFAULT_MAX_SLOPE_ERROR,
+                                         ArcRecognitionParameters.DEFAULT_MAX_CLOSURE_DISTANCE);
+        preFilter =
+                new PreFilter(recgonizers, lineRecognizer, circleRecognizer,
+                              PreFilterParameters.DEFAULT_LINE_MAX_PATH_RATIO,
+                              PreFilterParameters.DEFAULT_CIRCLE_MAX_CLOSURE_RATIO);
+        preprocessor =
+                new Preprocessor(PreprocessingParameters.DEFAULT_MODE,
+                                 PreprocessingParameters.DEFAULT_RESAMPLING_SPACING,
+                                 PreprocessingParameters.DEFAULT_SIMPLIFICATION_TOLERANCE,
+                                 PreprocessingParameters.DEFAULT_MAX_POINTS);
+        recgonizers.add(lineRecognizer, preFilter.lineGate())
+                   .add(circleRecognizer, preFilter.circleGate())
+                   .add(arcRecognizer);
+        segmentation =
+                new SegmentationEngine(recgonizers, SegmentationParameters.DEFAULT_MAX_DEPTH,
+                                       SegmentationParameters.DEFAULT_MIN_SEGMENT_POINTS,
+                                       SegmentationParameters.DEFAULT_MAX_SEGMENTS,
+                                       SegmentationParameters.DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+        batch =
+                new BatchRecognizer(this, BatchRecognitionParameters.DEFAULT_PARALLELISM,
+                                    BatchRecognitionParameters.DEFAULT_CHUNK_SIZE);
         k = 2;
     }
 
+    @Override
+    public final ArcRecognitionParameters arcRecognitionParameters() {
+        return arcRecognizer;
+    }
+
+    @Override
+    public final BatchRecognitionParameters batchRecognitionParameters() {
+        return batch;
+    }
+
     @Override
     public final CircleRecognitionParameters circleRecognitionParameters() {
         return circleRecognizer;
@@ -64,42 +119,91 @@ public final class DomainIndependentAgentImpl implements DomainIndependentAgent
         return lineRecognizer;
     }
 
+    @Override
+    public final RecognitionSession openSession(final double width) {
+        return new OnlineRecognizer(recgonizers, segmentation, preprocessor, width, k);
+    }
+
     @Override
     public final RecognitionResult postProcess() {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public final RecognitionResult recognize(final Stroke stroke) {
-        final StrokeRecognitionResult result = new StrokeRecognitionResult();
-        recognize(stroke, result);
-        return result;
+    public final PreFilterParameters preFilterParameters() {
+        return preFilter;
+    }
+
+    @Override
+    public final PreprocessingParameters preprocessingParameters() {
+        return preprocessor;
+    }
+
+    @Override
+    public final RecognizerChainParameters recognizerChainParameters() {
+        return recgonizers;
     }
 
-    private void recognize(final Stroke stroke, final StrokeRecognitionResult result) {
-        final boolean recognized = recgonizers.recognize(stroke, result);
-        if (!recognized) {
-
-            final int strokeSize = stroke.size();
-            LOGGER.info("Entering recursive recognition phase for stroke with " + strokeSize + " points");
-            if (strokeSize > 1) {
-                final int index = Strokes.indexOfMaxCurvature(stroke, k);
-                if (index > 0 && index < strokeSize - 1) {
-                    LOGGER.info("Splitting index = " + index);
-                    /*
-                     * split the stroke
-                     */
-                    final Stroke first = stroke.subStroke(0, index + 1);
-                    final Stroke second = stroke.subStroke(index, strokeSize);
-
-                    /*
-                     * Apply recognition to both sub strokes.
-                     */
-                    recognize(first, result);
-                    recognize(second, result);
-                }
-            }
-        }
+    @Override
+    public final SegmentationParameters segmentationParameters() {
+        return segmentation;
+    }
+
+    @Override
+    public final SegmentedRecognitionResult recognize(final Stroke stroke) {
+        return recognize(stroke, new RecognitionScratch());
+    }
+
+    @Override
+    public final List<RecognitionResult> recognizeAll(final Collection<Stroke> strokes) {
+        return batch.recognizeAll(strokes.spliterator());
+    }
+
+    @Override
+    public final List<RecognitionResult> recognizeAll(final Spliterator<Stroke> strokes) {
+        return batch.recognizeAll(strokes);
+    }
+
+    @Override
+    public final void recognizeAll(final Spliterator<Stroke> strokes, final RecognitionListener listener) {
+        batch.recognizeAll(strokes, listener);
+    }
+
+    @Override
+    public final List<RecognitionResult> recognizeAll(final Stroke... strokes) {
+        return batch.recognizeAll(Arrays.spliterator(strokes));
+    }
+
+    /**
+     * Tries and recognizes geometric patterns in the specified {@link Stroke stroke}, using the specified working
+     * memory. The stroke is first {@link Preprocessor preprocessed}: the recognized patterns are those of the
+     * reduced stroke, while the ranges of the recognized segments are indices of the original stroke.
+     * 
+     * @param stroke the stroke on which to perform the recognition process
+     * @param scratch the {@link RecognitionScratch scratch} reused by the recognition process
+     * @return the {@link RecognitionResult result} of the recognition process
+     */
+    final StrokeRecognitionResult recognize(final Stroke stroke, final RecognitionScratch scratch) {
+        final PreprocessedStroke preprocessed = preprocessor.preprocess(stroke, scratch.stack());
+        final StrokeIndex index = new StrokeIndex(preprocessed.stroke(), scratch);
+        return recognize(new StrokeFeatures(index), new CurvatureProfile(index.segments(), k, scratch), scratch)
+            .mapSegments(preprocessed);
+    }
+
+    /**
+     * Tries and recognizes geometric patterns in the stroke described by the specified, already extracted,
+     * {@link StrokeFeatures features} and {@link CurvatureProfile curvature profile}.
+     * 
+     * @param stroke the {@link StrokeFeatures features} of the stroke
+     * @param curvature the {@link CurvatureProfile curvature profile} of the stroke
+     * @param scratch the {@link RecognitionScratch scratch} reused by the recognition process
+     * @return the {@link RecognitionResult result} of the recognition process
+     */
+    final StrokeRecognitionResult recognize(final StrokeFeatures stroke, final CurvatureProfile curvature,
+            final RecognitionScratch scratch) {
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        segmentation.segment(stroke, curvature, result, scratch.stack());
+        return result;
     }
 
 }
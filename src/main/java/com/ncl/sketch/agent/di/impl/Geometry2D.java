@@ -1,14 +1,35 @@
 package com.ncl.sketch.agent.di.impl;
 
+import com.ncl.sketch.agent.api.Arc;
 import com.ncl.sketch.agent.api.Circle;
 import com.ncl.sketch.agent.api.Line;
 import com.ncl.sketch.agent.api.Point;
 
 /**
  * Helper functions pertaining to geometric calculations on {@link Point 2D point}s.
+ * <p>
+ * Most functions come in two flavors: one taking {@link Point point}s and {@link LineEquation line equation}s,
+ * and a scalar one taking coordinates. The scalar functions allocate nothing - results made of several values
+ * are written into a caller-provided array - so that they can be called for each point of a stroke without
+ * producing garbage. Both flavors compute the same results.
  */
 final class Geometry2D {
 
+    /**
+     * Status of an intersection computation: the lines intersect in one point.
+     */
+    static final int INTERSECTION = 0;
+
+    /**
+     * Status of an intersection computation: the lines are parallel.
+     */
+    static final int PARALLEL = 1;
+
+    /**
+     * Status of an intersection computation: the lines are coincident.
+     */
+    static final int COINCIDENT = 2;
+
     private static final double ZERO = 0.000001;
 
     private static final double TWO_PI = 2.0 * Math.PI;
@@ -34,13 +55,42 @@ final class Geometry2D {
          * 
          * |A×B| = |A| |B| SIN(θ)
          */
-        final double[] v1 = vector(reference, point);
-        final Point to = point(reference.x() + 10, reference.y());
-        final double[] v2 = vector(reference, to);
-        final double angle = Math.atan2(exteriorProductOf(v2, v1), dotProductOf(v2, v1));
+        return angleOf(point.x(), point.y(), reference.x(), reference.y());
+    }
+
+    /**
+     * Returns the angle in <strong>radians</strong> between the horizontal line passing through the reference
+     * <i>(rx, ry)</i> and the line passing through both the point <i>(px, py)</i> and the reference. The returned
+     * angle is in range of <i>0</i> to <i>2 * pi</i>.
+     * 
+     * @see #angleOf(Point, Point)
+     * @param px x coordinate of the point
+     * @param py y coordinate of the point
+     * @param rx x coordinate of the reference
+     * @param ry y coordinate of the reference
+     * @return the angle in <strong>radians</strong> between the horizontal line passing through the reference and
+     *         the line passing through both the point and the reference
+     */
+    static final double angleOf(final double px, final double py, final double rx, final double ry) {
+        final double v1x = px - rx;
+        final double v1y = py - ry;
+        final double v2x = rx + 10 - rx;
+        final double v2y = ry - ry;
+        final double angle = Math.atan2(v2x * v1y - v1x * v2y, v2x * v1x + v2y * v1y);
         return angle < 0 ? angle + TWO_PI : angle;
     }
 
+    /**
+     * Returns the area of the circular sector delimited by the specified {@link Arc arc}.
+     * 
+     * @param arc the {@link Arc arc} for which to compute the sector area
+     * @return the area of the circular sector delimited by the specified {@link Arc arc}
+     */
+    static final double areaOf(final Arc arc) {
+        final double radius = arc.radius();
+        return radius * radius * arc.length() / 2;
+    }
+
     /**
      * Returns the area of the specified {@link Circle circle}.
      * 
@@ -61,7 +111,24 @@ final class Geometry2D {
      * @return the area of the triangle defined by the three specified vertices
      */
     static final double areaOf(final Point a, final Point b, final Point c) {
-        return Math.abs(signedAreaOf(a, b, c));
+        return areaOf(a.x(), a.y(), b.x(), b.y(), c.x(), c.y());
+    }
+
+    /**
+     * Returns the area of the triangle defined by the three specified vertices.
+     * 
+     * @see #areaOf(Point, Point, Point)
+     * @param ax x coordinate of the first vertex
+     * @param ay y coordinate of the first vertex
+     * @param bx x coordinate of the second vertex
+     * @param by y coordinate of the second vertex
+     * @param cx x coordinate of the third vertex
+     * @param cy y coordinate of the third vertex
+     * @return the area of the triangle defined by the three specified vertices
+     */
+    static final double areaOf(final double ax, final double ay, final double bx, final double by,
+            final double cx, final double cy) {
+        return Math.abs(signedAreaOf(ax, ay, bx, by, cx, cy));
     }
 
     /**
@@ -74,23 +141,44 @@ final class Geometry2D {
      * @return the area of the quadrilateral defined by the four specified vertices
      */
     static final double areaOf(final Point a, final Point b, final Point c, final Point d) {
+        return areaOf(a.x(), a.y(), b.x(), b.y(), c.x(), c.y(), d.x(), d.y(), new double[2]);
+    }
+
+    /**
+     * Returns the area of the quadrilateral defined by the four specified vertices.
+     * 
+     * @see #areaOf(Point, Point, Point, Point)
+     * @param ax x coordinate of the first vertex
+     * @param ay y coordinate of the first vertex
+     * @param bx x coordinate of the second vertex
+     * @param by y coordinate of the second vertex
+     * @param cx x coordinate of the third vertex
+     * @param cy y coordinate of the third vertex
+     * @param dx x coordinate of the fourth vertex
+     * @param dy y coordinate of the fourth vertex
+     * @param intersection an array of at least two elements used as working memory
+     * @return the area of the quadrilateral defined by the four specified vertices
+     */
+    static final double areaOf(final double ax, final double ay, final double bx, final double by,
+            final double cx, final double cy, final double dx, final double dy, final double[] intersection) {
         final double area;
-        final double[] intersection = intersectionOf(a, d, c, b);
-        if (intersection == null) {
+        final int status = segmentIntersectionOf(ax, ay, dx, dy, cx, cy, bx, by, intersection);
+        if (status == PARALLEL) {
             /*
              * Simple quadrilateral. Add the two areas. If quadrilateral is concave this will also work.
              */
-            final double a1 = signedAreaOf(a, b, c);
-            final double a2 = signedAreaOf(c, d, a);
+            final double a1 = signedAreaOf(ax, ay, bx, by, cx, cy);
+            final double a2 = signedAreaOf(cx, cy, dx, dy, ax, ay);
             area = Math.abs(a1 + a2);
-        } else if (intersection.length == 0) {
+        } else if (status == COINCIDENT) {
             area = 0.0;
         } else {
-            final Point i = point(intersection[0], intersection[1]);
+            final double ix = intersection[0];
+            final double iy = intersection[1];
             /*
              * area is the sum of the area of the two triangle intersecting at i.
              */
-            area = areaOf(a, b, i) + areaOf(i, d, c);
+            area = areaOf(ax, ay, bx, by, ix, iy) + areaOf(ix, iy, dx, dy, cx, cy);
         }
         return area;
     }
@@ -128,7 +216,23 @@ final class Geometry2D {
      * @return the distance between the two specified {@link Point point}s
      */
     static final double distance(final Point from, final Point to) {
-        return normOf(vector(from, to));
+        return distance(from.x(), from.y(), to.x(), to.y());
+    }
+
+    /**
+     * Returns the distance between the two specified points.
+     * 
+     * @see #distance(Point, Point)
+     * @param fromX x coordinate of the first point
+     * @param fromY y coordinate of the first point
+     * @param toX x coordinate of the second point
+     * @param toY y coordinate of the second point
+     * @return the distance between the two specified points
+     */
+    static final double distance(final double fromX, final double fromY, final double toX, final double toY) {
+        final double vx = toX - fromX;
+        final double vy = toY - fromY;
+        return Math.sqrt(vx * vx + vy * vy);
     }
 
     /**
@@ -143,49 +247,93 @@ final class Geometry2D {
      */
     static final Point intersectionOf(final LineEquation line1, final LineEquation line2)
             throws CoincidentLineException {
-        final Point result;
+        final double[] intersection = new double[2];
+        final int status =
+                intersectionOf(line1.slope(), line1.yIntercept(), line1.xIntercept(), line2.slope(),
+                               line2.yIntercept(), line2.xIntercept(), intersection);
+        if (status == COINCIDENT) {
+            throw new CoincidentLineException();
+        }
+        return status == PARALLEL ? null : point(intersection[0], intersection[1]);
+    }
 
-        if (line1.isVertical() && line2.isVertical()) {
+    /**
+     * Computes the intersection of the two lines defined by the parameters of their {@link LineEquation
+     * parametric equation}s. The coordinates of the intersection point, if any, are written into the specified
+     * array.
+     * 
+     * @see #intersectionOf(LineEquation, LineEquation)
+     * @param m1 the slope of the first line, infinite if the line is vertical
+     * @param b1 the y-intercept of the first line
+     * @param a1 the x-intercept of the first line
+     * @param m2 the slope of the second line, infinite if the line is vertical
+     * @param b2 the y-intercept of the second line
+     * @param a2 the x-intercept of the second line
+     * @param intersection an array of at least two elements receiving the x and y coordinates of the intersection
+     *            point
+     * @return {@link #INTERSECTION}, {@link #PARALLEL} or {@link #COINCIDENT}; the array is only written in the
+     *         first case
+     */
+    static final int intersectionOf(final double m1, final double b1, final double a1, final double m2,
+            final double b2, final double a2, final double[] intersection) {
+        final boolean vertical1 = Double.isInfinite(m1);
+        final boolean vertical2 = Double.isInfinite(m2);
+        final int status;
+
+        if (vertical1 && vertical2) {
             /*
              * both line are vertical, either coincident or parallel
              */
-            if (equals(line1.xIntercept(), line2.xIntercept())) {
-                throw new CoincidentLineException();
-            }
-            result = null;
-        } else if (line1.isVertical() || line2.isVertical()) {
+            status = equals(a1, a2) ? COINCIDENT : PARALLEL;
+        } else if (vertical1 || vertical2) {
             /*
              * one of the two line is vertical
              */
-            final LineEquation line = line1.isVertical() ? line2 : line1;
-            final LineEquation vertical = line1.isVertical() ? line1 : line2;
+            final double xIntercept = vertical1 ? a1 : a2;
 
             /*
              * y = m1 * x-intercept2 + b1
              */
-            final double y = vertical.xIntercept() * line.slope() + line.yIntercept();
-            result = point(vertical.xIntercept(), y);
-
+            intersection[0] = xIntercept;
+            intersection[1] = xIntercept * (vertical1 ? m2 : m1) + (vertical1 ? b2 : b1);
+            status = INTERSECTION;
+
+        } else if (isZero(b1 - b2) && isZero(m1 - m2)) {
+            // coincident lines
+            status = COINCIDENT;
+        } else if (isZero(m1 - m2)) {
+            // parallel
+            status = PARALLEL;
         } else {
-            final double m1 = line1.slope();
-            final double m2 = line2.slope();
-            final double b1 = line1.yIntercept();
-            final double b2 = line2.yIntercept();
-
-            if (isZero(b1 - b2) && isZero(m1 - m2)) {
-                // coincident lines
-                throw new CoincidentLineException();
-            }
-            if (isZero(m1 - m2)) {
-                // parallel
-                result = null;
-            } else {
-                final double x = (b2 - b1) / (m1 - m2);
-                final double y = m1 * x + b1;
-                result = point(x, y);
-            }
+            final double x = (b2 - b1) / (m1 - m2);
+            intersection[0] = x;
+            intersection[1] = m1 * x + b1;
+            status = INTERSECTION;
         }
-        return result;
+        return status;
+    }
+
+    /**
+     * Computes the intersection of the line passing through the points <i>(x1, y1)</i> and <i>(x2, y2)</i> and the
+     * line defined by the specified {@link LineEquation parametric equation}. The coordinates of the intersection
+     * point, if any, are written into the specified array.
+     * 
+     * @param x1 x coordinate of the first point of the line
+     * @param y1 y coordinate of the first point of the line
+     * @param x2 x coordinate of the second point of the line
+     * @param y2 y coordinate of the second point of the line
+     * @param line the {@link LineEquation parametric equation} of the other line
+     * @param intersection an array of at least two elements receiving the x and y coordinates of the intersection
+     *            point
+     * @return {@link #INTERSECTION}, {@link #PARALLEL} or {@link #COINCIDENT}; the array is only written in the
+     *         first case
+     */
+    static final int intersectionOf(final double x1, final double y1, final double x2, final double y2,
+            final LineEquation line, final double[] intersection) {
+        final double m = slopeOfLine(x1, y1, x2, y2);
+        final double b = yInterceptOfLine(m, x1, y1, x2, y2);
+        return intersectionOf(m, b, xInterceptOfLine(m, b, x1), line.slope(), line.yIntercept(),
+                              line.xIntercept(), intersection);
     }
 
     /**
@@ -309,15 +457,36 @@ final class Geometry2D {
      */
     static final Point project(final Point point, final Line line) {
         final Point start = line.start();
-        final double[] a = vector(start, point);
-        final double[] b = vector(start, line.end());
-        final double scale = dotProductOf(a, b) / dotProductOf(b, b);
-        final double[] a1 = scale(scale, b);
-        final double x = x(a1) + start.x();
-        final double y = y(a1) + start.y();
+        final Point end = line.end();
+        final double scale = projectionOf(point.x(), point.y(), start.x(), start.y(), end.x(), end.y());
+        final double x = scale * (end.x() - start.x()) + start.x();
+        final double y = scale * (end.y() - start.y()) + start.y();
         return point(x, y);
     }
 
+    /**
+     * Returns the position of the orthogonal projection of the point <i>(px, py)</i> on the line going from
+     * <i>(startX, startY)</i> to <i>(endX, endY)</i>: the projection is <i>start + t * (end - start)</i>, where
+     * <i>t</i> is the returned value.
+     * 
+     * @see #project(Point, Line)
+     * @param px x coordinate of the point to project
+     * @param py y coordinate of the point to project
+     * @param startX x coordinate of the start of the line
+     * @param startY y coordinate of the start of the line
+     * @param endX x coordinate of the end of the line
+     * @param endY y coordinate of the end of the line
+     * @return the position <i>t</i> of the projection of the point on the line
+     */
+    static final double projectionOf(final double px, final double py, final double startX, final double startY,
+            final double endX, final double endY) {
+        final double ax = px - startX;
+        final double ay = py - startY;
+        final double bx = endX - startX;
+        final double by = endY - startY;
+        return (ax * bx + ay * by) / (bx * bx + by * by);
+    }
+
     /**
      * Returns <code>true</code> iff the specified {@link Point point} is on the segment of line between
      * <i>from</i> and <i>to</i>.
@@ -329,53 +498,37 @@ final class Geometry2D {
      *         <i>from</i> and <i>to</i>
      */
     static final boolean withinRange(final Point pt, final Point from, final Point to) {
-        final double maxX = Math.max(from.x(), to.x());
-        final double minX = Math.min(from.x(), to.x());
-        final double maxY = Math.max(from.y(), to.y());
-        final double minY = Math.min(from.y(), to.y());
-        final boolean withinX = (pt.x() > minX || equals(pt.x(), minX)) && (pt.x() < maxX || equals(pt.x(), maxX));
-        final boolean withinY = (pt.y() > minY || equals(pt.y(), minY)) && (pt.y() < maxY || equals(pt.y(), maxY));
-        return withinX && withinY;
+        return withinRange(pt.x(), pt.y(), from.x(), from.y(), to.x(), to.y());
     }
 
-    private static double dotProductOf(final double[] v1, final double[] v2) {
-        return x(v1) * x(v2) + y(v1) * y(v2);
+    /**
+     * Returns <code>true</code> iff the point <i>(px, py)</i> is on the segment of line between <i>(fromX,
+     * fromY)</i> and <i>(toX, toY)</i>.
+     * 
+     * @see #withinRange(Point, Point, Point)
+     * @param px x coordinate of the point to test
+     * @param py y coordinate of the point to test
+     * @param fromX x coordinate of the first point of the line segment
+     * @param fromY y coordinate of the first point of the line segment
+     * @param toX x coordinate of the last point of the line segment
+     * @param toY y coordinate of the last point of the line segment
+     * @return <code>true</code> iff the point is on the segment of line
+     */
+    static final boolean withinRange(final double px, final double py, final double fromX, final double fromY,
+            final double toX, final double toY) {
+        final double maxX = Math.max(fromX, toX);
+        final double minX = Math.min(fromX, toX);
+        final double maxY = Math.max(fromY, toY);
+        final double minY = Math.min(fromY, toY);
+        final boolean withinX = (px > minX || equals(px, minX)) && (px < maxX || equals(px, maxX));
+        final boolean withinY = (py > minY || equals(py, minY)) && (py < maxY || equals(py, maxY));
+        return withinX && withinY;
     }
 
     private static boolean equals(final double a, final double b) {
         return Math.abs(a - b) < ZERO;
     }
 
-    private static double exteriorProductOf(final double[] v1, final double[] v2) {
-        return x(v1) * y(v2) - x(v2) * y(v1);
-    }
-
-    /*
-     * returns [x,y] if such an intersection exists, [] if the two lines are collinear, null otherwise.
-     */
-    private static double[] intersectionOf(final Point a, final Point b, final Point c, final Point d) {
-        final LineEquation eq1 = lineEquationOf(a, b);
-        final LineEquation eq2 = lineEquationOf(c, d);
-        double[] result;
-        try {
-            final Point i = intersectionOf(eq1, eq2);
-            if (i == null) {
-                // parallel
-                result = null;
-            } else {
-                if (withinRange(i, a, b) && withinRange(i, c, d)) {
-                    result = new double[] { i.x(), i.y() };
-                } else {
-                    // intersection outside lines
-                    result = null;
-                }
-            }
-        } catch (final CoincidentLineException e) {
-            result = new double[] {};
-        }
-        return result;
-    }
-
     private static boolean isZero(final double val) {
         return equals(val, 0.0);
     }
@@ -386,18 +539,36 @@ final class Geometry2D {
         return new double[] { midX, midY };
     }
 
-    private static double normOf(final double[] v) {
-        return Math.sqrt(x(v) * x(v) + y(v) * y(v));
-    }
-
-    private static double[] scale(final double scale, final double[] v) {
-        return new double[] { scale * x(v), scale * y(v) };
+    /*
+     * intersection of the segments [(x1, y1), (x2, y2)] and [(x3, y3), (x4, y4)]: the status is PARALLEL if the
+     * lines are parallel or if their intersection lies outside any of the two segments.
+     */
+    private static int segmentIntersectionOf(final double x1, final double y1, final double x2, final double y2,
+            final double x3, final double y3, final double x4, final double y4, final double[] intersection) {
+        final double m1 = slopeOfLine(x1, y1, x2, y2);
+        final double b1 = yInterceptOfLine(m1, x1, y1, x2, y2);
+        final double m2 = slopeOfLine(x3, y3, x4, y4);
+        final double b2 = yInterceptOfLine(m2, x3, y3, x4, y4);
+        int status =
+                intersectionOf(m1, b1, xInterceptOfLine(m1, b1, x1), m2, b2, xInterceptOfLine(m2, b2, x3),
+                               intersection);
+        if (status == INTERSECTION
+            && !(withinRange(intersection[0], intersection[1], x1, y1, x2, y2) && withinRange(intersection[0],
+                                                                                              intersection[1],
+                                                                                              x3, y3, x4, y4))) {
+            // intersection outside lines
+            status = PARALLEL;
+        }
+        return status;
     }
 
-    private static double signedAreaOf(final Point a, final Point b, final Point c) {
-        final double[] v1 = vector(a, b);
-        final double[] v2 = vector(a, c);
-        return 0.5 * exteriorProductOf(v1, v2);
+    private static double signedAreaOf(final double ax, final double ay, final double bx, final double by,
+            final double cx, final double cy) {
+        final double v1x = bx - ax;
+        final double v1y = by - ay;
+        final double v2x = cx - ax;
+        final double v2y = cy - ay;
+        return 0.5 * (v1x * v2y - v2x * v1y);
     }
 
     /*
@@ -407,17 +578,44 @@ final class Geometry2D {
         return (p2.y() - p1.y()) / (p2.x() - p1.x());
     }
 
-    // vector from "from" to "to".
-    private static double[] vector(final Point from, final Point to) {
-        return new double[] { to.x() - from.x(), to.y() - from.y() };
+    /*
+     * slope of the line equation of ((x1, y1), (x2, y2)), as built by lineEquationOf: infinite if vertical.
+     */
+    private static double slopeOfLine(final double x1, final double y1, final double x2, final double y2) {
+        final double m = (y2 - y1) / (x2 - x1);
+        if (!Double.isFinite(m)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return m == 0.0 ? 0.0 : m;
     }
 
     private static double x(final double[] v) {
         return v[0];
     }
 
-    private static double y(final double[] v) {
-        return v[1];
+    /*
+     * x-intercept of the line equation of slope m and y-intercept b passing through x1, as built by
+     * lineEquationOf.
+     */
+    private static double xInterceptOfLine(final double m, final double b, final double x1) {
+        if (Double.isInfinite(m)) {
+            return x1;
+        }
+        return m == 0.0 ? Double.POSITIVE_INFINITY : -b / m;
+    }
+
+    /*
+     * y-intercept of the line equation of slope m passing through ((x1, y1), (x2, y2)), as built by
+     * lineEquationOf.
+     */
+    private static double yInterceptOfLine(final double m, final double x1, final double y1, final double x2,
+            final double y2) {
+        if (Double.isInfinite(m)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final double midX = (x1 + x2) / 2;
+        final double midY = (y1 + y2) / 2;
+        return midY - m * midX;
     }
 
 }
@@ -2,7 +2,6 @@ package com.ncl.sketch.agent.di.impl;
 
 import java.util.logging.Logger;
 
-import com.ncl.sketch.agent.api.Point;
 import com.ncl.sketch.agent.api.Stroke;
 
 /**
@@ -16,6 +15,7 @@ import com.ncl.sketch.agent.api.Stroke;
  * @see <a href="http://en.wikipedia.org/wiki/Least_squares">wikipedia: least squares</a>
  * @see <a href="http://en.wikipedia.org/wiki/Coefficient_of_determination">wikipedia: coefficient of
  *      determination</a>
+ * @see Moments
  */
 final class LeastSquares {
 
@@ -28,102 +28,83 @@ final class LeastSquares {
         // empty.
     }
 
+    /**
+     * Returns the {@link RegressionLine regression line} of the specified samplings, computed in a single pass.
+     * 
+     * @param x the x values of the samplings
+     * @param y the y values of the samplings
+     * @return the {@link RegressionLine regression line} of the specified samplings
+     */
     RegressionLine regressionLine(final double[] x, final double[] y) {
         if (x.length != y.length) {
             throw new IllegalArgumentException("x and y must contain the same number of samplings");
         }
 
-        final int nbSamplings = x.length;
-
-        /*
-         * compute xbar and ybar.
-         */
-
-        double sumx = 0.0;
-        double sumy = 0.0;
-        for (int i = 0; i < nbSamplings; i++) {
-            sumx += x[i];
-            sumy += y[i];
+        final Moments moments = new Moments();
+        for (int i = 0; i < x.length; i++) {
+            moments.add(x[i], y[i]);
         }
+        return regressionLine(moments);
+    }
 
-        final double xbar = sumx / nbSamplings;
-        final double ybar = sumy / nbSamplings;
-
-        /*
-         * compute total sum of squares: sst
-         */
-
-        double sst = 0.0;
-        for (int i = 0; i < nbSamplings; i++) {
-            sst += (ybar - y[i]) * (ybar - y[i]);
+    /**
+     * Returns the {@link RegressionLine regression line} of the points of the specified {@link Stroke stroke},
+     * computed in a single pass over its coordinates.
+     * 
+     * @param stroke the stroke
+     * @return the {@link RegressionLine regression line} of the points of the specified stroke
+     */
+    RegressionLine regressionLine(final Stroke stroke) {
+        final Moments moments = new Moments();
+        final int strokeSize = stroke.size();
+        for (int i = 0; i < strokeSize; i++) {
+            moments.add(stroke.x(i), stroke.y(i));
         }
+        return regressionLine(moments);
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the samplings accumulated in the specified
+     * {@link Moments moments}.
+     * 
+     * @param moments the moments of the samplings
+     * @return the {@link RegressionLine regression line} of the samplings
+     */
+    RegressionLine regressionLine(final Moments moments) {
+        final RegressionLine rl = moments.regressionLine();
+        LOGGER.fine(rl.toString());
+        return rl;
+    }
 
+    /**
+     * Returns the {@link RegressionLine regression line} of the samplings <i>(i, y<sub>i</sub>)</i> for <i>i</i> in
+     * <i>0</i> to <i>n - 1</i>. The mean of the indexes is <i>(n - 1) / 2</i> and the sum of their squared
+     * deviations is <i>n (n² - 1) / 12</i>: only the moments of the y values need to be accumulated.
+     * 
+     * @param n the number of samplings
+     * @param meanY the mean of the y values
+     * @param syy the sum of squared deviations of the y values
+     * @param sxy the sum of the products of the index deviations <i>i - (n - 1) / 2</i> by the y values
+     * @return the {@link RegressionLine regression line} of the samplings
+     */
+    static RegressionLine regressionLineOfIndexes(final int n, final double meanY, final double syy,
+            final double sxy) {
         final RegressionLine rl;
-        if (sst == 0.0) {
+        if (syy <= 0.0) {
             /*
              * Actual data fit an horizontal line no need to compute regression
              */
-            rl = new RegressionLine(ybar, 0.0, 1.0);
-
+            rl = new RegressionLine(n == 0 ? Double.NaN : meanY, 0.0, 1.0);
         } else {
-
-            /*
-             * compute a & b (equation of regression line is y = a + bx).
-             */
-            double xxbar = 0.0;
-            double xybar = 0.0;
-            for (int i = 0; i < nbSamplings; i++) {
-                xxbar += (x[i] - xbar) * (x[i] - xbar);
-                xybar += (x[i] - xbar) * (y[i] - ybar);
-            }
-
-            if (xxbar == 0.0) {
-                /*
-                 * Actual data fit a vertical line no need to compute regression
-                 */
-                rl = new RegressionLine(0.0, 1.0, 1.0);
-
-            } else {
-
-                final double b = xybar / xxbar;
-                final double a = ybar - b * xbar;
-
-                /*
-                 * compute error sum of squares: sse
-                 */
-
-                double sse = 0.0;
-                for (int i = 0; i < nbSamplings; i++) {
-                    final double fit = a + b * x[i];
-                    sse += (fit - y[i]) * (fit - y[i]);
-                }
-
-                /*
-                 * compute coefficient of determination: r2.
-                 */
-
-                final double r2 = 1 - sse / sst;
-
-                rl = new RegressionLine(a, b, r2);
-            }
+            final double meanX = (n - 1) / 2.0;
+            final double sxx = n * ((double) n * n - 1) / 12.0;
+            final double b = sxy / sxx;
+            final double a = meanY - b * meanX;
+            final double r2 = b * sxy / syy;
+            rl = new RegressionLine(a, b, r2);
         }
-
         LOGGER.fine(rl.toString());
-
         return rl;
     }
 
-    RegressionLine regressionLine(final Stroke stroke) {
-        final int strokeSize = stroke.size();
-        final double[] x = new double[strokeSize];
-        final double[] y = new double[strokeSize];
-
-        for (int i = 0; i < strokeSize; i++) {
-            final Point pt = stroke.get(i);
-            x[i] = pt.x();
-            y[i] = pt.y();
-        }
-        return regressionLine(x, y);
-    }
-
 }
@@ -18,8 +18,6 @@ final class LinePatternRecognizer implements PatternRecognizer,
 
     private double maxAreaRatio;
 
-    private final LeastSquares ls;
-
     /**
      * Constructor.
      *
@@ -38,7 +36,6 @@ final class LinePatternRecognizer implements PatternRecognizer,
 	    final double maximumAreaRatio) {
 	minCorrelation = minimumCorrelation;
 	maxAreaRatio = maximumAreaRatio;
-	ls = new LeastSquares();
     }
 
     @Override
@@ -66,10 +63,11 @@ final class LinePatternRecognizer implements PatternRecognizer,
     }
 
     @Override
-    public final boolean recognize(final Stroke stroke,
+    public final boolean recognize(final StrokeFeatures features,
 	    final StrokeRecognitionResult result) {
+	final Stroke stroke = features.stroke();
 	LOGGER.fine("Processing stroke with " + stroke.size() + " points");
-	final boolean fitsLine = fitsLine(stroke);
+	final boolean fitsLine = fitsLine(features);
 	final boolean isLine;
 	if (fitsLine) {
 	    final Line candidate = new Line(stroke.get(0), stroke.get(stroke
@@ -82,7 +80,7 @@ final class LinePatternRecognizer implements PatternRecognizer,
 	    LOGGER.fine("Feature area: " + featureArea + "; Candidate area: "
 		    + candidateArea + "; ratio: " + areaRatio);
 	    if (isLine) {
-		LOGGER.info("Recognized line: " + candidate
+		LOGGER.log(result.logLevel(), "Recognized line: " + candidate
 			+ " from stroke with " + stroke.size() + " points");
 		result.add(candidate);
 	    }
@@ -92,8 +90,8 @@ final class LinePatternRecognizer implements PatternRecognizer,
 	return isLine;
     }
 
-    private boolean fitsLine(final Stroke stroke) {
-	final RegressionLine rl = ls.regressionLine(stroke);
+    private boolean fitsLine(final StrokeFeatures features) {
+	final RegressionLine rl = features.regressionLine();
 	return rl.coefficientOfDetermination() >= minCorrelation;
 
     }
@@ -0,0 +1,151 @@
+package com.ncl.sketch.agent.di.impl;
+
+/**
+ * An incremental accumulator of the first and second moments of a set of <i>(x, y)</i> samplings: means, sums of
+ * squared deviations and sum of cross deviations.
+ * <p>
+ * Samplings may be {@link #add(double, double) added} and {@link #remove(double, double) removed} in any order;
+ * the moments are updated with Welford's method which, unlike raw sums of squares, does not suffer from
+ * catastrophic cancellation when the samplings are far from the origin. The {@link #regressionLine() regression
+ * line} of the current samplings is then computed in constant time.
+ *
+ * @see <a href="http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance">wikipedia: algorithms for
+ *      calculating variance</a>
+ */
+final class Moments {
+
+    private int n;
+
+    private double meanX;
+
+    private double meanY;
+
+    private double sxx;
+
+    private double syy;
+
+    private double sxy;
+
+    /**
+     * Constructor.
+     */
+    Moments() {
+        // empty.
+    }
+
+    /**
+     * Adds the specified sampling.
+     *
+     * @param x the x value of the sampling
+     * @param y the y value of the sampling
+     * @return this {@link Moments} for chainable calls
+     */
+    final Moments add(final double x, final double y) {
+        n++;
+        final double dx = x - meanX;
+        final double dy = y - meanY;
+        meanX += dx / n;
+        meanY += dy / n;
+        sxx += dx * (x - meanX);
+        syy += dy * (y - meanY);
+        sxy += dx * (y - meanY);
+        return this;
+    }
+
+    /**
+     * Removes all the samplings.
+     *
+     * @return this {@link Moments} for chainable calls
+     */
+    final Moments clear() {
+        n = 0;
+        meanX = 0.0;
+        meanY = 0.0;
+        sxx = 0.0;
+        syy = 0.0;
+        sxy = 0.0;
+        return this;
+    }
+
+    /**
+     * Returns the mean of the x values.
+     *
+     * @return the mean of the x values
+     */
+    final double meanX() {
+        return meanX;
+    }
+
+    /**
+     * Returns the mean of the y values.
+     *
+     * @return the mean of the y values
+     */
+    final double meanY() {
+        return meanY;
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the current samplings.
+     *
+     * @return the {@link RegressionLine regression line} of the current samplings
+     */
+    final RegressionLine regressionLine() {
+        final RegressionLine rl;
+        if (syy <= 0.0) {
+            /*
+             * Actual data fit an horizontal line no need to compute regression
+             */
+            rl = new RegressionLine(meanY, 0.0, 1.0);
+        } else if (sxx <= 0.0) {
+            /*
+             * Actual data fit a vertical line no need to compute regression
+             */
+            rl = new RegressionLine(0.0, 1.0, 1.0);
+        } else {
+            final double b = sxy / sxx;
+            final double a = meanY - b * meanX;
+            /*
+             * sse = syy - b * sxy, hence r2 = 1 - sse / syy = b * sxy / syy.
+             */
+            final double r2 = b * sxy / syy;
+            rl = new RegressionLine(a, b, r2);
+        }
+        return rl;
+    }
+
+    /**
+     * Removes the specified sampling, which shall have been previously added.
+     *
+     * @param x the x value of the sampling
+     * @param y the y value of the sampling
+     * @return this {@link Moments} for chainable calls
+     */
+    final Moments remove(final double x, final double y) {
+        if (n <= 1) {
+            return clear();
+        }
+        n--;
+        /*
+         * reverse of add: deviations from the current means, then from the means without the sampling.
+         */
+        final double dx = x - meanX;
+        final double dy = y - meanY;
+        meanX -= dx / n;
+        meanY -= dy / n;
+        sxx -= dx * (x - meanX);
+        syy -= dy * (y - meanY);
+        sxy -= dy * (x - meanX);
+        return this;
+    }
+
+    /**
+     * Returns the number of samplings.
+     *
+     * @return the number of samplings
+     */
+    final int size() {
+        return n;
+    }
+
+}
@@ -0,0 +1,330 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.Arrays;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.RecognitionSession;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.PreprocessingMode;
+
+/**
+ * A {@link RecognitionSession} maintaining, as each point is added, everything the {@link StrokeIndex index}, the
+ * {@link CurvatureProfile curvature profile} and the {@link StrokeFeatures features} of the whole stroke are
+ * otherwise built from after pen-up:
+ * <ul>
+ * <li>the prefix sums of the coordinates and the cumulative path length</li>
+ * <li>the direction and length of each segment, and the {@link Moments moments} of the unwrapped direction
+ * graph</li>
+ * <li>the curvature of each point, computed as soon as its <i>k</i> following segments are known, and the
+ * segment tree over the curvatures</li>
+ * <li>the {@link CircleFit algebraic circle fit} and the bounding box of the points</li>
+ * </ul>
+ * Adding a point costs <i>O(k + log n)</i> amortized. {@link #finish() Finishing} the stroke wraps these buffers
+ * without copying them and runs the pattern recognizers: no per-point feature is extracted after pen-up.
+ * <p>
+ * {@link #speculate() Speculative} recognitions of the partial stroke commit the segments recognized before the
+ * last one: a committed segment is not recognized again, later recognitions only segment the tail of the stroke
+ * following the last committed segment. On {@link #finish()} the whole stroke is still matched first against the
+ * patterns, so that a stroke recognized as a single pattern - a closed circle for instance - is not affected by
+ * the speculative segmentation.
+ * <p>
+ * When the {@link Preprocessor preprocessor} of the agent reduces strokes, the maintained features are not used:
+ * each speculation and the finish reduce the stroke drawn so far and recognize it whole, as
+ * {@link DomainIndependentAgentImpl#recognize(Stroke, RecognitionScratch)} does, and no segment is committed. The
+ * ranges of the recognized patterns are indices of the points added to the session.
+ * <p>
+ * The neighborhood size <i>k</i> is the one of the agent when the session is opened.
+ */
+final class OnlineRecognizer implements RecognitionSession {
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final PatternRecognizer recognizer;
+
+    private final SegmentationEngine segmentation;
+
+    private final Preprocessor preprocessor;
+
+    private final RecognitionScratch scratch;
+
+    private final StrokeRecognitionResult committed;
+
+    private int committedEnd;
+
+    private final double width;
+
+    private final int k;
+
+    private final Moments directionGraph;
+
+    private final CircleFit circleFit;
+
+    private int size;
+
+    private boolean finished;
+
+    private double[] xs;
+
+    private double[] ys;
+
+    private double[] sumX;
+
+    private double[] sumY;
+
+    private double[] sumXX;
+
+    private double[] sumXY;
+
+    private double[] sumYY;
+
+    private double[] length;
+
+    private double[] directions;
+
+    private double[] lengths;
+
+    private StrokeSegments segments;
+
+    private double[] curvatures;
+
+    private int[] tree;
+
+    private int leaves;
+
+    private double originX;
+
+    private double originY;
+
+    private double minX;
+
+    private double maxX;
+
+    private double minY;
+
+    private double maxY;
+
+    private int shift;
+
+    private double previousDirection;
+
+    /**
+     * Constructor.
+     *
+     * @param aRecognizer the {@link PatternRecognizer} matching the whole stroke against the patterns
+     * @param aSegmentation the {@link SegmentationEngine} segmenting the stroke
+     * @param aPreprocessor the {@link Preprocessor} reducing the stroke before its recognition
+     * @param aWidth the width of the stroke
+     * @param aK a small {@code integer} defining the neighborhood size around the each point of the stroke
+     */
+    OnlineRecognizer(final PatternRecognizer aRecognizer, final SegmentationEngine aSegmentation,
+            final Preprocessor aPreprocessor, final double aWidth, final int aK) {
+        recognizer = aRecognizer;
+        segmentation = aSegmentation;
+        preprocessor = aPreprocessor;
+        scratch = new RecognitionScratch();
+        committed = new StrokeRecognitionResult();
+        width = aWidth;
+        k = aK;
+        directionGraph = new Moments();
+        circleFit = new CircleFit();
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public final RecognitionSession add(final double x, final double y) {
+        if (finished) {
+            throw new IllegalStateException("session is finished");
+        }
+        final int i = size;
+        if (i == xs.length) {
+            allocate(2 * xs.length);
+        }
+        xs[i] = x;
+        ys[i] = y;
+        if (i == 0) {
+            originX = x;
+            originY = y;
+        }
+
+        final double u = x - originX;
+        final double v = y - originY;
+        sumX[i + 1] = sumX[i] + u;
+        sumY[i + 1] = sumY[i] + v;
+        sumXX[i + 1] = sumXX[i] + u * u;
+        sumXY[i + 1] = sumXY[i] + u * v;
+        sumYY[i + 1] = sumYY[i] + v * v;
+        if (i > 0) {
+            addSegment(i - 1, x - xs[i - 1], y - ys[i - 1]);
+            length[i] = length[i - 1] + lengths[i - 1];
+        }
+
+        circleFit.add(x, y);
+        minX = Math.min(x, minX);
+        maxX = Math.max(x, maxX);
+        minY = Math.min(y, minY);
+        maxY = Math.max(y, maxY);
+        size++;
+
+        /*
+         * the new point has no curvature yet; the curvature of the point k + 1 segments before is now known.
+         */
+        curvatures[i] = Double.NEGATIVE_INFINITY;
+        tree[leaves + i] = i;
+        CurvatureProfile.update(curvatures, tree, leaves, i);
+        final int n = size - k - 2;
+        if (n >= k) {
+            curvatures[n] = CurvatureProfile.curvature(segments, n, k);
+            CurvatureProfile.update(curvatures, tree, leaves, n);
+        }
+        return this;
+    }
+
+    @Override
+    public final RecognitionResult finish() {
+        if (finished) {
+            throw new IllegalStateException("session is finished");
+        }
+        finished = true;
+        if (preprocessor.mode() != PreprocessingMode.NONE) {
+            return recognizeReduced(false);
+        }
+        final StrokeFeatures features = features();
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        if (committedEnd == 0) {
+            segmentation.segment(features, profile(), result, scratch.stack());
+        } else if (recognizer.recognize(features, result)) {
+            result.endSegment(0, size - 1);
+        } else {
+            result.addAll(committed);
+            segmentation.segment(features, profile(), committedEnd, result, scratch.stack());
+        }
+        return result;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    @Override
+    public final RecognitionResult speculate() {
+        if (finished) {
+            throw new IllegalStateException("session is finished");
+        }
+        if (preprocessor.mode() != PreprocessingMode.NONE) {
+            return recognizeReduced(true);
+        }
+        final StrokeRecognitionResult tail = new StrokeRecognitionResult();
+        if (!segmentation.segment(features(), profile(), committedEnd, tail, scratch.stack())) {
+            return null;
+        }
+        final StrokeRecognitionResult result = new StrokeRecognitionResult().addAll(committed).addAll(tail);
+        /*
+         * all the segments but the last one are followed by a split at a curvature peak: they are committed.
+         */
+        final int segments = tail.segments();
+        if (segments > 1) {
+            committed.addSegments(tail, segments - 1);
+            committedEnd = tail.segmentEnd(segments - 2);
+        }
+        return result;
+    }
+
+    /*
+     * records the direction and length of the specified segment and adds its unwrapped direction to the direction
+     * graph, as Strokes#directionGraphRegressionLine does.
+     */
+    private void addSegment(final int segment, final double dx, final double dy) {
+        final double direction = Math.atan2(dy, dx);
+        directions[segment] = direction;
+        lengths[segment] = Math.sqrt(dx * dx + dy * dy);
+        if (segment > 0) {
+            shift = Strokes.shift(previousDirection, direction, shift);
+        }
+        directionGraph.add(segment, direction + TWO_PI * shift);
+        previousDirection = direction;
+    }
+
+    /*
+     * features of the stroke drawn so far, wrapping the buffers.
+     */
+    private StrokeFeatures features() {
+        final Stroke stroke = new Stroke(width, new PackedStroke(xs, ys, 0, size));
+        final StrokeIndex index =
+                new StrokeIndex(stroke, new StrokeSegments(directions, lengths, Math.max(0, size - 1)), sumX, sumY,
+                                sumXX, sumXY, sumYY, length);
+        return new StrokeFeatures(index, directionGraph.regressionLine(), circleFit, minX, maxX, minY, maxY);
+    }
+
+    private CurvatureProfile profile() {
+        return new CurvatureProfile(k, curvatures, tree, leaves);
+    }
+
+    /*
+     * recognizes the whole stroke drawn so far once reduced by the preprocessor; returns null if interrupted.
+     */
+    private StrokeRecognitionResult recognizeReduced(final boolean interruptible) {
+        final PreprocessedStroke preprocessed =
+                preprocessor.preprocess(new Stroke(width, new PackedStroke(xs, ys, 0, size)), scratch.stack());
+        final StrokeIndex index = new StrokeIndex(preprocessed.stroke(), scratch);
+        final StrokeFeatures features = new StrokeFeatures(index);
+        final CurvatureProfile curvature = new CurvatureProfile(index.segments(), k, scratch);
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        if (!interruptible) {
+            segmentation.segment(features, curvature, result, scratch.stack());
+        } else if (!segmentation.segment(features, curvature, 0, result, scratch.stack())) {
+            return null;
+        }
+        return result.mapSegments(preprocessed);
+    }
+
+    /*
+     * grows all the buffers to the specified capacity and rebuilds the segment tree.
+     */
+    private void allocate(final int capacity) {
+        if (xs == null) {
+            xs = new double[capacity];
+            ys = new double[capacity];
+            sumX = new double[capacity + 1];
+            sumY = new double[capacity + 1];
+            sumXX = new double[capacity + 1];
+            sumXY = new double[capacity + 1];
+            sumYY = new double[capacity + 1];
+            length = new double[capacity + 1];
+            directions = new double[capacity];
+            lengths = new double[capacity];
+            curvatures = new double[capacity];
+        } else {
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            sumX = Arrays.copyOf(sumX, capacity + 1);
+            sumY = Arrays.copyOf(sumY, capacity + 1);
+            sumXX = Arrays.copyOf(sumXX, capacity + 1);
+            sumXY = Arrays.copyOf(sumXY, capacity + 1);
+            sumYY = Arrays.copyOf(sumYY, capacity + 1);
+            length = Arrays.copyOf(length, capacity + 1);
+            directions = Arrays.copyOf(directions, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            curvatures = Arrays.copyOf(curvatures, capacity);
+        }
+        segments = new StrokeSegments(directions, lengths, capacity);
+
+        leaves = 1;
+        while (leaves < capacity) {
+            leaves <<= 1;
+        }
+        tree = new int[2 * leaves];
+        for (int i = 0; i < leaves; i++) {
+            tree[leaves + i] = i < size ? i : -1;
+        }
+        CurvatureProfile.build(curvatures, tree, leaves);
+    }
+
+}
@@ -1,38 +1,251 @@
 package com.ncl.sketch.agent.di.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
 
-import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.RecognizerChainParameters;
+import com.ncl.sketch.agent.di.api.RecognizerOrdering;
 
 /**
- * A chain of {@link PatternRecognizer}. Patterns are executed in the order they are
- * {@link #add(PatternRecognizer) added} to this chain. The execution stops as soon as one pattern has been
- * recognized.
+ * A chain of {@link PatternRecognizer}. In {@link RecognizerOrdering#FIXED fixed} order, patterns are executed in
+ * the order they are {@link #add(PatternRecognizer) added} to this chain. The execution stops as soon as one
+ * pattern has been recognized.
+ * <p>
+ * All the recognizers of the chain read the same {@link StrokeFeatures features}: a feature needed by several
+ * recognizers is only computed once.
+ * <p>
+ * A recognizer may be {@link #add(PatternRecognizer, RecognizerGate) added} behind a {@link RecognizerGate gate}:
+ * the recognizer is skipped on the strokes that the gate rejects. The chain counts, for each recognizer, the number
+ * of strokes it has been evaluated on and the number of strokes it has been skipped on. Counters may be updated
+ * concurrently.
+ * <p>
+ * In {@link RecognizerOrdering#ADAPTIVE adaptive} order, the chain keeps one order per stroke size bucket. Each
+ * time a recognizer is reached - gate included - the chain records its elapsed time and whether it matched. Every
+ * {@link #reorderPeriod() period} strokes of a bucket, its recognizers are sorted by increasing <i>c / p</i>, where
+ * <i>c</i> is the average cost and <i>p</i> the smoothed hit rate of the recognizer: the order minimizing the
+ * expected time to the first match. A recognizer never reached in a bucket has no cost yet and is moved first so
+ * that its statistics get sampled. Every {@link #EXPLORATION_PERIOD} strokes of a bucket, the recognizers
+ * following the first match are evaluated as well, their results discarded, so that a recognizer sorted behind
+ * one that always matches keeps being sampled and may move forward again. These exploring evaluations are neither
+ * counted as evaluations nor as skips, and their patterns are logged at fine level. New orders are published
+ * atomically, concurrent recognitions always read a complete order.
  */
-final class PatternRecognizerChain implements PatternRecognizer {
+final class PatternRecognizerChain implements PatternRecognizer, RecognizerChainParameters {
 
-    private final List<PatternRecognizer> chain;
+    /**
+     * Number of stroke size buckets: bucket <i>b</i> holds the strokes of <i>2<sup>b</sup></i> to
+     * <i>2<sup>b+1</sup> - 1</i> points, the last bucket holds all the larger strokes.
+     */
+    static final int BUCKETS = 16;
+
+    /**
+     * Number of strokes of a bucket between two evaluations of all its recognizers.
+     */
+    static final int EXPLORATION_PERIOD = 16;
+
+    /**
+     * The system clock.
+     */
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+
+        @Override
+        public final long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * A gate accepting all the strokes.
+     */
+    private static final RecognizerGate OPEN = new RecognizerGate() {
+
+        @Override
+        public final boolean accepts(final StrokeFeatures stroke) {
+            return true;
+        }
+    };
+
+    /**
+     * A recognizer of the chain, its gate and its counters.
+     */
+    private static final class Link {
+
+        private final int rank;
+
+        private final PatternRecognizer recognizer;
+
+        private final RecognizerGate gate;
+
+        private final AtomicLong evaluated;
+
+        private final AtomicLong skipped;
+
+        private final AtomicLongArray trials;
+
+        private final AtomicLongArray hits;
+
+        private final AtomicLongArray nanos;
+
+        Link(final int aRank, final PatternRecognizer aRecognizer, final RecognizerGate aGate) {
+            rank = aRank;
+            recognizer = aRecognizer;
+            gate = aGate;
+            evaluated = new AtomicLong();
+            skipped = new AtomicLong();
+            trials = new AtomicLongArray(BUCKETS);
+            hits = new AtomicLongArray(BUCKETS);
+            nanos = new AtomicLongArray(BUCKETS);
+        }
+
+        /*
+         * expected cost of a match in the specified bucket: average cost over smoothed hit rate.
+         */
+        final double expectedCost(final int bucket) {
+            final long t = trials.get(bucket);
+            if (t == 0) {
+                return 0.0;
+            }
+            final double cost = (double) nanos.get(bucket) / t;
+            final double hitRate = (hits.get(bucket) + 1.0) / (t + 2.0);
+            return cost / hitRate;
+        }
+
+        final void record(final int bucket, final boolean hit, final long elapsed) {
+            trials.incrementAndGet(bucket);
+            nanos.addAndGet(bucket, elapsed);
+            if (hit) {
+                hits.incrementAndGet(bucket);
+            }
+        }
+
+        final void reset() {
+            for (int b = 0; b < BUCKETS; b++) {
+                trials.set(b, 0L);
+                hits.set(b, 0L);
+                nanos.set(b, 0L);
+            }
+        }
+
+    }
+
+    /**
+     * The time source of the statistics of the {@link RecognizerOrdering#ADAPTIVE adaptive} order.
+     */
+    interface Clock {
+
+        /**
+         * Returns the current value of the time source.
+         *
+         * @return the current time in nanoseconds
+         */
+        long nanoTime();
+
+    }
+
+    private final Clock clock;
+
+    private final List<Link> chain;
+
+    private final AtomicReferenceArray<Link[]> orders;
+
+    private final AtomicLongArray strokes;
+
+    private volatile RecognizerOrdering ordering;
+
+    private volatile int reorderPeriod;
 
     /**
      * Constructor.
      */
     PatternRecognizerChain() {
-        chain = new ArrayList<PatternRecognizer>();
+        this(SYSTEM_CLOCK);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param aClock the time source of the statistics of the {@link RecognizerOrdering#ADAPTIVE adaptive} order
+     */
+    PatternRecognizerChain(final Clock aClock) {
+        clock = aClock;
+        chain = new ArrayList<Link>();
+        orders = new AtomicReferenceArray<Link[]>(BUCKETS);
+        strokes = new AtomicLongArray(BUCKETS);
+        ordering = RecognizerChainParameters.DEFAULT_ORDERING;
+        reorderPeriod = RecognizerChainParameters.DEFAULT_REORDER_PERIOD;
+        reset();
+    }
+
+    @Override
+    public final RecognizerOrdering ordering() {
+        return ordering;
+    }
+
+    @Override
+    public final RecognizerChainParameters ordering(final RecognizerOrdering orderingVal) {
+        ordering = orderingVal;
+        reset();
+        return this;
     }
 
     @Override
-    public final boolean recognize(final Stroke stroke, final StrokeRecognitionResult result) {
+    public final boolean recognize(final StrokeFeatures stroke, final StrokeRecognitionResult result) {
+        if (ordering == RecognizerOrdering.FIXED) {
+            for (final Link link : chain) {
+                if (evaluate(link, stroke, result)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        final int bucket = bucket(stroke.stroke().size());
+        final long count = strokes.incrementAndGet(bucket);
+        final boolean exploring = count % EXPLORATION_PERIOD == 0;
         boolean recognized = false;
-        for (final PatternRecognizer recognizer : chain) {
-            recognized = recognizer.recognize(stroke, result);
-            if (recognized) {
+        StrokeRecognitionResult discarded = null;
+        for (final Link link : orders.get(bucket)) {
+            final long start = clock.nanoTime();
+            final boolean hit;
+            if (!recognized) {
+                hit = evaluate(link, stroke, result);
+                recognized = hit;
+            } else {
+                if (discarded == null) {
+                    discarded = new StrokeRecognitionResult(Level.FINE);
+                }
+                hit = explore(link, stroke, discarded);
+            }
+            link.record(bucket, hit, clock.nanoTime() - start);
+            if (recognized && !exploring) {
                 break;
             }
         }
+        if (count % reorderPeriod == 0) {
+            reorder(bucket);
+        }
         return recognized;
     }
 
+    @Override
+    public final int reorderPeriod() {
+        return reorderPeriod;
+    }
+
+    @Override
+    public final RecognizerChainParameters reorderPeriod(final int reorderPeriodVal) {
+        if (reorderPeriodVal < 1) {
+            throw new IllegalArgumentException("the reorder period must be at least 1");
+        }
+        reorderPeriod = reorderPeriodVal;
+        return this;
+    }
+
     /**
      * Adds the specified {@link PatternRecognizer} at the end of this chain
      * 
@@ -40,8 +253,129 @@ final class PatternRecognizerChain implements PatternRecognizer {
      * @return this {@link PatternRecognizerChain} for chainable class
      */
     final PatternRecognizerChain add(final PatternRecognizer recognizer) {
-        chain.add(recognizer);
+        return add(recognizer, OPEN);
+    }
+
+    /**
+     * Adds the specified {@link PatternRecognizer} at the end of this chain, behind the specified
+     * {@link RecognizerGate gate}. Adding a recognizer starts a new session.
+     * 
+     * @param recognizer the {@link PatternRecognizer} to add
+     * @param gate the {@link RecognizerGate gate} evaluated before the recognizer
+     * @return this {@link PatternRecognizerChain} for chainable class
+     */
+    final PatternRecognizerChain add(final PatternRecognizer recognizer, final RecognizerGate gate) {
+        chain.add(new Link(chain.size(), recognizer, gate));
+        reset();
         return this;
     }
 
+    /**
+     * Returns the number of strokes the specified {@link PatternRecognizer} has been evaluated on, <i>0</i> if it
+     * does not belong to this chain.
+     * 
+     * @param recognizer the {@link PatternRecognizer}
+     * @return the number of strokes the specified {@link PatternRecognizer} has been evaluated on
+     */
+    final long evaluated(final PatternRecognizer recognizer) {
+        final Link link = link(recognizer);
+        return link == null ? 0L : link.evaluated.get();
+    }
+
+    /**
+     * Returns the {@link PatternRecognizer recognizers} in the order they are tried on a stroke of the specified
+     * number of points.
+     * 
+     * @param size the number of points of the stroke
+     * @return the {@link PatternRecognizer recognizers} in the order they are tried
+     */
+    final List<PatternRecognizer> order(final int size) {
+        final List<PatternRecognizer> order = new ArrayList<PatternRecognizer>();
+        final Iterable<Link> links =
+                ordering == RecognizerOrdering.FIXED ? chain : Arrays.asList(orders.get(bucket(size)));
+        for (final Link link : links) {
+            order.add(link.recognizer);
+        }
+        return order;
+    }
+
+    /**
+     * Returns the number of strokes on which the {@link RecognizerGate gate} of the specified
+     * {@link PatternRecognizer} has short-circuited the recognizer, <i>0</i> if it does not belong to this chain.
+     * 
+     * @param recognizer the {@link PatternRecognizer}
+     * @return the number of strokes the specified {@link PatternRecognizer} has been skipped on
+     */
+    final long skipped(final PatternRecognizer recognizer) {
+        final Link link = link(recognizer);
+        return link == null ? 0L : link.skipped.get();
+    }
+
+    /*
+     * floor of the base 2 logarithm of the size, capped to the last bucket.
+     */
+    private static int bucket(final int size) {
+        return Math.min(31 - Integer.numberOfLeadingZeros(Math.max(size, 1)), BUCKETS - 1);
+    }
+
+    private static boolean evaluate(final Link link, final StrokeFeatures stroke,
+            final StrokeRecognitionResult result) {
+        if (!link.gate.accepts(stroke)) {
+            link.skipped.incrementAndGet();
+            return false;
+        }
+        link.evaluated.incrementAndGet();
+        return link.recognizer.recognize(stroke, result);
+    }
+
+    /*
+     * evaluates the link without counting the evaluation or the skip: exploring is not part of the recognition.
+     */
+    private static boolean explore(final Link link, final StrokeFeatures stroke,
+            final StrokeRecognitionResult discarded) {
+        return link.gate.accepts(stroke) && link.recognizer.recognize(stroke, discarded);
+    }
+
+    private Link link(final PatternRecognizer recognizer) {
+        for (final Link link : chain) {
+            if (link.recognizer == recognizer) {
+                return link;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * sorts the recognizers of the bucket on a snapshot of their expected costs, ties keep the insertion order.
+     */
+    private void reorder(final int bucket) {
+        final Link[] order = chain.toArray(new Link[chain.size()]);
+        final double[] costs = new double[order.length];
+        for (final Link link : order) {
+            costs[link.rank] = link.expectedCost(bucket);
+        }
+        Arrays.sort(order, new Comparator<Link>() {
+
+            @Override
+            public final int compare(final Link l1, final Link l2) {
+                final int c = Double.compare(costs[l1.rank], costs[l2.rank]);
+                return c != 0 ? c : Integer.compare(l1.rank, l2.rank);
+            }
+        });
+        orders.set(bucket, order);
+    }
+
+    /*
+     * discards the statistics of all the buckets and restores the insertion order.
+     */
+    private void reset() {
+        for (final Link link : chain) {
+            link.reset();
+        }
+        for (int b = 0; b < BUCKETS; b++) {
+            strokes.set(b, 0L);
+            orders.set(b, chain.toArray(new Link[chain.size()]));
+        }
+    }
+
 }
@@ -0,0 +1,115 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.di.api.PreFilterParameters;
+
+/**
+ * The {@link RecognizerGate gates} of the line and circle recognizers, both evaluated from the path length and the
+ * closure distance of the stroke:
+ * <ul>
+ * <li>a line is about as long as the distance between its endpoints: the line recognizer is skipped when the path
+ * length exceeds the chord by more than {@link #lineMaxPathRatio() a ratio}</li>
+ * <li>a full circle ends close to where it starts: the circle recognizer is skipped when the closure distance
+ * exceeds {@link #circleMaxClosureRatio() a fraction} of the path length</li>
+ * </ul>
+ * Skip counts are read from the {@link PatternRecognizerChain chain} the gates have been added to.
+ */
+final class PreFilter implements PreFilterParameters {
+
+    private final PatternRecognizerChain chain;
+
+    private final PatternRecognizer lineRecognizer;
+
+    private final PatternRecognizer circleRecognizer;
+
+    private final RecognizerGate lineGate;
+
+    private final RecognizerGate circleGate;
+
+    private double lineMaxPathRatio;
+
+    private double circleMaxClosureRatio;
+
+    /**
+     * Constructor.
+     *
+     * @param aChain the {@link PatternRecognizerChain chain} the gates are added to
+     * @param aLineRecognizer the line recognizer
+     * @param aCircleRecognizer the circle recognizer
+     * @param aLineMaxPathRatio the maximum path ratio of a line
+     * @param aCircleMaxClosureRatio the maximum closure ratio of a circle
+     */
+    PreFilter(final PatternRecognizerChain aChain, final PatternRecognizer aLineRecognizer,
+            final PatternRecognizer aCircleRecognizer, final double aLineMaxPathRatio,
+            final double aCircleMaxClosureRatio) {
+        chain = aChain;
+        lineRecognizer = aLineRecognizer;
+        circleRecognizer = aCircleRecognizer;
+        lineMaxPathRatio = aLineMaxPathRatio;
+        circleMaxClosureRatio = aCircleMaxClosureRatio;
+        lineGate = new RecognizerGate() {
+
+            @Override
+            public final boolean accepts(final StrokeFeatures stroke) {
+                return stroke.pathLength() <= lineMaxPathRatio * stroke.closureDistance();
+            }
+        };
+        circleGate = new RecognizerGate() {
+
+            @Override
+            public final boolean accepts(final StrokeFeatures stroke) {
+                return stroke.closureDistance() <= circleMaxClosureRatio * stroke.pathLength();
+            }
+        };
+    }
+
+    @Override
+    public final double circleMaxClosureRatio() {
+        return circleMaxClosureRatio;
+    }
+
+    @Override
+    public final PreFilterParameters circleMaxClosureRatio(final double circleMaxClosureRatioVal) {
+        circleMaxClosureRatio = circleMaxClosureRatioVal;
+        return this;
+    }
+
+    @Override
+    public final long circleSkips() {
+        return chain.skipped(circleRecognizer);
+    }
+
+    @Override
+    public final double lineMaxPathRatio() {
+        return lineMaxPathRatio;
+    }
+
+    @Override
+    public final PreFilterParameters lineMaxPathRatio(final double lineMaxPathRatioVal) {
+        lineMaxPathRatio = lineMaxPathRatioVal;
+        return this;
+    }
+
+    @Override
+    public final long lineSkips() {
+        return chain.skipped(lineRecognizer);
+    }
+
+    /**
+     * Returns the {@link RecognizerGate gate} of the circle recognizer.
+     *
+     * @return the {@link RecognizerGate gate} of the circle recognizer
+     */
+    final RecognizerGate circleGate() {
+        return circleGate;
+    }
+
+    /**
+     * Returns the {@link RecognizerGate gate} of the line recognizer.
+     *
+     * @return the {@link RecognizerGate gate} of the line recognizer
+     */
+    final RecognizerGate lineGate() {
+        return lineGate;
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * A {@link Stroke stroke} reduced by the {@link Preprocessor}, with the index in the original stroke of each of
+ * its points.
+ */
+final class PreprocessedStroke {
+
+    private final Stroke stroke;
+
+    private final int[] originalIndices;
+
+    /**
+     * Constructor of a stroke left as drawn.
+     *
+     * @param aStroke the {@link Stroke stroke}
+     */
+    PreprocessedStroke(final Stroke aStroke) {
+        this(aStroke, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param aStroke the reduced {@link Stroke stroke}
+     * @param someOriginalIndices the index in the original stroke of each point of the reduced stroke, or
+     *            <code>null</code> if the stroke is the original stroke
+     */
+    PreprocessedStroke(final Stroke aStroke, final int[] someOriginalIndices) {
+        stroke = aStroke;
+        originalIndices = someOriginalIndices;
+    }
+
+    /**
+     * Returns the index in the original stroke of the specified point of the reduced stroke. A resampled point is
+     * mapped to the closest original point along the path.
+     *
+     * @param index the index of the point in the reduced stroke
+     * @return the index of the point in the original stroke
+     */
+    final int originalIndex(final int index) {
+        return originalIndices == null ? index : originalIndices[index];
+    }
+
+    /**
+     * Returns the reduced {@link Stroke stroke}.
+     *
+     * @return the reduced {@link Stroke stroke}
+     */
+    final Stroke stroke() {
+        return stroke;
+    }
+
+}
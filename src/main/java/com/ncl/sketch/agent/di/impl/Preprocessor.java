@@ -0,0 +1,265 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.Arrays;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.PreprocessingMode;
+import com.ncl.sketch.agent.di.api.PreprocessingParameters;
+
+/**
+ * Reduces the number of points of a {@link Stroke stroke} before it is submitted to the pattern recognizers,
+ * according to the {@link PreprocessingMode preprocessing mode}:
+ * <ul>
+ * <li>{@link PreprocessingMode#RESAMPLING resampling}: points are interpolated every spacing along the path, the
+ * first and last points being kept</li>
+ * <li>{@link PreprocessingMode#SIMPLIFICATION simplification}: the Douglas-Peucker algorithm keeps the point of
+ * each range farthest from the chord of the range, as long as it is farther than the tolerance times the width of
+ * the stroke. Ranges are processed from a {@link RangeStack stack} rather than recursively, so that long strokes
+ * do not overflow the call stack</li>
+ * <li>{@link PreprocessingMode#POINT_CAP point cap}: strokes with too many points keep points evenly spread by
+ * index, the first and last points being kept</li>
+ * </ul>
+ * Each reduction keeps the index in the original stroke of the reduced points. A stroke a reduction leaves
+ * unchanged is returned as is.
+ */
+final class Preprocessor implements PreprocessingParameters {
+
+    private PreprocessingMode mode;
+
+    private double resamplingSpacing;
+
+    private double simplificationTolerance;
+
+    private int maxPoints;
+
+    /**
+     * Constructor.
+     *
+     * @param aMode the {@link PreprocessingMode preprocessing mode}
+     * @param aResamplingSpacing the resampling spacing
+     * @param aSimplificationTolerance the simplification tolerance relative to the width of the stroke
+     * @param aMaxPoints the maximum number of points
+     */
+    Preprocessor(final PreprocessingMode aMode, final double aResamplingSpacing,
+            final double aSimplificationTolerance, final int aMaxPoints) {
+        mode = aMode;
+        resamplingSpacing = aResamplingSpacing;
+        simplificationTolerance = aSimplificationTolerance;
+        maxPoints = aMaxPoints;
+    }
+
+    @Override
+    public final int maxPoints() {
+        return maxPoints;
+    }
+
+    @Override
+    public final PreprocessingParameters maxPoints(final int maxPointsVal) {
+        if (maxPointsVal < 2) {
+            throw new IllegalArgumentException("the maximum number of points must be at least 2");
+        }
+        maxPoints = maxPointsVal;
+        return this;
+    }
+
+    @Override
+    public final PreprocessingMode mode() {
+        return mode;
+    }
+
+    @Override
+    public final PreprocessingParameters mode(final PreprocessingMode modeVal) {
+        mode = modeVal;
+        return this;
+    }
+
+    @Override
+    public final double resamplingSpacing() {
+        return resamplingSpacing;
+    }
+
+    @Override
+    public final PreprocessingParameters resamplingSpacing(final double resamplingSpacingVal) {
+        if (!(resamplingSpacingVal > 0.0)) {
+            throw new IllegalArgumentException("the resampling spacing must be strictly positive");
+        }
+        resamplingSpacing = resamplingSpacingVal;
+        return this;
+    }
+
+    @Override
+    public final double simplificationTolerance() {
+        return simplificationTolerance;
+    }
+
+    @Override
+    public final PreprocessingParameters simplificationTolerance(final double simplificationToleranceVal) {
+        if (!(simplificationToleranceVal >= 0.0)) {
+            throw new IllegalArgumentException("the simplification tolerance must be positive or zero");
+        }
+        simplificationTolerance = simplificationToleranceVal;
+        return this;
+    }
+
+    /**
+     * Reduces the specified {@link Stroke stroke} according to the {@link #mode() preprocessing mode}.
+     *
+     * @param stroke the {@link Stroke stroke} to reduce
+     * @param stack the {@link RangeStack stack} used by the simplification, empty
+     * @return the reduced stroke
+     */
+    final PreprocessedStroke preprocess(final Stroke stroke, final RangeStack stack) {
+        if (stroke.size() < 3) {
+            return new PreprocessedStroke(stroke);
+        }
+        switch (mode) {
+            case RESAMPLING:
+                return resample(stroke, resamplingSpacing);
+            case SIMPLIFICATION:
+                return simplify(stroke, simplificationTolerance * stroke.width(), stack);
+            case POINT_CAP:
+                return cap(stroke, maxPoints);
+            default:
+                return new PreprocessedStroke(stroke);
+        }
+    }
+
+    /**
+     * Keeps at most the specified number of points of the specified stroke, evenly spread by index.
+     *
+     * @param stroke the stroke
+     * @param maxPoints the maximum number of points, at least <i>2</i>
+     * @return the reduced stroke
+     */
+    static final PreprocessedStroke cap(final Stroke stroke, final int maxPoints) {
+        final int size = stroke.size();
+        if (size <= maxPoints) {
+            return new PreprocessedStroke(stroke);
+        }
+        final int[] indices = new int[maxPoints];
+        for (int i = 0; i < maxPoints; i++) {
+            indices[i] = (int) ((long) i * (size - 1) / (maxPoints - 1));
+        }
+        return select(stroke, indices, maxPoints);
+    }
+
+    /**
+     * Resamples the specified stroke at points equally spaced along its path. A stroke the points of which all
+     * coincide is left unchanged.
+     *
+     * @param stroke the stroke
+     * @param spacing the distance along the path between two resampled points, strictly positive
+     * @return the resampled stroke
+     */
+    static final PreprocessedStroke resample(final Stroke stroke, final double spacing) {
+        final int size = stroke.size();
+        double length = 0.0;
+        for (int i = 1; i < size; i++) {
+            length += Geometry2D.distance(stroke.x(i - 1), stroke.y(i - 1), stroke.x(i), stroke.y(i));
+        }
+        if (length == 0.0) {
+            return new PreprocessedStroke(stroke);
+        }
+        // the last point is kept, even closer than the spacing to the previous resampled point
+        final int count = (int) Math.ceil(length / spacing) + 1;
+        final double[] xs = new double[count];
+        final double[] ys = new double[count];
+        final int[] indices = new int[count];
+        xs[0] = stroke.x(0);
+        ys[0] = stroke.y(0);
+        int n = 1;
+        double travelled = 0.0;
+        double next = spacing;
+        for (int i = 1; i < size && n < count - 1; i++) {
+            final double x0 = stroke.x(i - 1);
+            final double y0 = stroke.y(i - 1);
+            final double segment = Geometry2D.distance(x0, y0, stroke.x(i), stroke.y(i));
+            while (n < count - 1 && next <= travelled + segment) {
+                final double t = (next - travelled) / segment;
+                xs[n] = x0 + t * (stroke.x(i) - x0);
+                ys[n] = y0 + t * (stroke.y(i) - y0);
+                indices[n] = t < 0.5 ? i - 1 : i;
+                n++;
+                next += spacing;
+            }
+            travelled += segment;
+        }
+        xs[n] = stroke.x(size - 1);
+        ys[n] = stroke.y(size - 1);
+        indices[n] = size - 1;
+        n++;
+        return new PreprocessedStroke(new Stroke(stroke.width(), new PackedStroke(xs, ys, 0, n)),
+                                      Arrays.copyOf(indices, n));
+    }
+
+    /**
+     * Simplifies the specified stroke with the Douglas-Peucker algorithm.
+     *
+     * @param stroke the stroke
+     * @param epsilon the maximum distance between a dropped point and the simplified path
+     * @param stack the {@link RangeStack stack} of the ranges to simplify, empty
+     * @return the simplified stroke
+     */
+    static final PreprocessedStroke simplify(final Stroke stroke, final double epsilon, final RangeStack stack) {
+        final int size = stroke.size();
+        final boolean[] kept = new boolean[size];
+        kept[0] = true;
+        kept[size - 1] = true;
+        int count = 2;
+        stack.push(0, size, 0);
+        while (!stack.isEmpty()) {
+            stack.pop();
+            final int from = stack.from();
+            final int last = stack.to() - 1;
+            final double ax = stroke.x(from);
+            final double ay = stroke.y(from);
+            final double dx = stroke.x(last) - ax;
+            final double dy = stroke.y(last) - ay;
+            final double chord = Math.hypot(dx, dy);
+            int farthest = -1;
+            double max = epsilon;
+            for (int i = from + 1; i < last; i++) {
+                final double px = stroke.x(i) - ax;
+                final double py = stroke.y(i) - ay;
+                // distance to the chord line, or to its start when both ends coincide
+                final double distance = chord == 0.0 ? Math.hypot(px, py) : Math.abs(dx * py - dy * px) / chord;
+                if (distance > max) {
+                    max = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                kept[farthest] = true;
+                count++;
+                stack.push(from, farthest + 1, 0);
+                stack.push(farthest, last + 1, 0);
+            }
+        }
+        if (count == size) {
+            return new PreprocessedStroke(stroke);
+        }
+        final int[] indices = new int[count];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (kept[i]) {
+                indices[n++] = i;
+            }
+        }
+        return select(stroke, indices, count);
+    }
+
+    /*
+     * the stroke made of the points of the specified indices.
+     */
+    private static PreprocessedStroke select(final Stroke stroke, final int[] indices, final int count) {
+        final double[] xs = new double[count];
+        final double[] ys = new double[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = stroke.x(indices[i]);
+            ys[i] = stroke.y(indices[i]);
+        }
+        return new PreprocessedStroke(new Stroke(stroke.width(), new PackedStroke(xs, ys)), indices);
+    }
+
+}
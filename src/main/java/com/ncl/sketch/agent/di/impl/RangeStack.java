@@ -0,0 +1,101 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.Arrays;
+
+/**
+ * A growable stack of sub stroke ranges: index of the first point, index following the last point and split
+ * depth.
+ */
+final class RangeStack {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private int[] froms;
+
+    private int[] tos;
+
+    private int[] depths;
+
+    private int top;
+
+    /**
+     * Constructor.
+     */
+    RangeStack() {
+        froms = new int[INITIAL_CAPACITY];
+        tos = new int[INITIAL_CAPACITY];
+        depths = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Removes all the ranges from this stack.
+     */
+    final void clear() {
+        top = 0;
+    }
+
+    /**
+     * Returns the depth of the last {@link #pop() popped} range.
+     *
+     * @return the depth of the last popped range
+     */
+    final int depth() {
+        return depths[top];
+    }
+
+    /**
+     * Returns the index of the first point of the last {@link #pop() popped} range.
+     *
+     * @return the index of the first point of the last popped range
+     */
+    final int from() {
+        return froms[top];
+    }
+
+    /**
+     * Returns <code>true</code> iff this stack contains no range.
+     *
+     * @return <code>true</code> iff this stack contains no range
+     */
+    final boolean isEmpty() {
+        return top == 0;
+    }
+
+    /**
+     * Removes the top range. It remains readable through {@link #from()}, {@link #to()} and {@link #depth()} until
+     * the next {@link #push(int, int, int) push}.
+     */
+    final void pop() {
+        top--;
+    }
+
+    /**
+     * Pushes the specified range on top of this stack.
+     *
+     * @param from index of the first point of the range
+     * @param to index following the last point of the range
+     * @param depth split depth of the range
+     */
+    final void push(final int from, final int to, final int depth) {
+        if (top == froms.length) {
+            final int capacity = 2 * top;
+            froms = Arrays.copyOf(froms, capacity);
+            tos = Arrays.copyOf(tos, capacity);
+            depths = Arrays.copyOf(depths, capacity);
+        }
+        froms[top] = from;
+        tos[top] = to;
+        depths[top] = depth;
+        top++;
+    }
+
+    /**
+     * Returns the index following the last point of the last {@link #pop() popped} range.
+     *
+     * @return the index following the last point of the last popped range
+     */
+    final int to() {
+        return tos[top];
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.ncl.sketch.agent.di.impl;
+
+/**
+ * Reusable working memory for the recognition of one stroke at a time: the arrays of the {@link StrokeIndex
+ * index}, {@link StrokeSegments segments} and {@link CurvatureProfile curvature profile} of the stroke and the
+ * {@link RangeStack stack} of the segmentation.
+ * <p>
+ * Arrays only grow: once warmed up on the longest stroke, the recognition of further strokes allocates none of
+ * them. The objects built on a scratch are only valid until the scratch is used for another stroke. A scratch
+ * shall not be shared between threads.
+ */
+final class RecognitionScratch {
+
+    static final int SUM_X = 0;
+
+    static final int SUM_Y = 1;
+
+    static final int SUM_XX = 2;
+
+    static final int SUM_XY = 3;
+
+    static final int SUM_YY = 4;
+
+    static final int PATH_LENGTH = 5;
+
+    static final int DIRECTIONS = 6;
+
+    static final int LENGTHS = 7;
+
+    static final int CURVATURES = 8;
+
+    private static final int NB_BUFFERS = 9;
+
+    private final double[][] buffers;
+
+    private int[] tree;
+
+    private final RangeStack stack;
+
+    /**
+     * Constructor.
+     */
+    RecognitionScratch() {
+        buffers = new double[NB_BUFFERS][0];
+        tree = new int[0];
+        stack = new RangeStack();
+    }
+
+    /**
+     * Returns the buffer of the specified slot, grown to at least the specified length.
+     *
+     * @param slot the slot of the buffer, e.g. {@link #SUM_X}
+     * @param length the minimum length of the buffer
+     * @return the buffer of the specified slot
+     */
+    final double[] buffer(final int slot, final int length) {
+        if (buffers[slot].length < length) {
+            buffers[slot] = new double[grow(buffers[slot].length, length)];
+        }
+        return buffers[slot];
+    }
+
+    /**
+     * Returns the {@link RangeStack stack} of the segmentation.
+     *
+     * @return the {@link RangeStack stack} of the segmentation
+     */
+    final RangeStack stack() {
+        return stack;
+    }
+
+    /**
+     * Returns the buffer of the range-maximum tree of the curvature profile, grown to at least the specified
+     * length.
+     *
+     * @param length the minimum length of the buffer
+     * @return the buffer of the range-maximum tree of the curvature profile
+     */
+    final int[] tree(final int length) {
+        if (tree.length < length) {
+            tree = new int[grow(tree.length, length)];
+        }
+        return tree;
+    }
+
+    private static int grow(final int current, final int length) {
+        return Math.max(length, current + (current >> 1));
+    }
+
+}
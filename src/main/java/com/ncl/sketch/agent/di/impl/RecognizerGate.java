@@ -0,0 +1,20 @@
+package com.ncl.sketch.agent.di.impl;
+
+/**
+ * A cheap test run before a {@link PatternRecognizer} to rule out strokes that the recognizer cannot match.
+ * <p>
+ * A gate shall run in constant time: it may only read the {@link StrokeFeatures features} of the stroke that are
+ * precomputed for the whole stroke, such as the path length or the closure distance.
+ */
+interface RecognizerGate {
+
+    /**
+     * Returns <code>false</code> if the stroke described by the specified {@link StrokeFeatures features} cannot
+     * match the pattern of the gated recognizer, <code>true</code> if it may.
+     * 
+     * @param stroke the {@link StrokeFeatures features} of the stroke
+     * @return <code>false</code> iff the gated recognizer can be skipped
+     */
+    boolean accepts(final StrokeFeatures stroke);
+
+}
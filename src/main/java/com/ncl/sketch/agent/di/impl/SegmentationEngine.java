@@ -0,0 +1,302 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.SegmentationParameters;
+
+/**
+ * Applies a {@link PatternRecognizer} to a {@link Stroke stroke} and, whenever no pattern is recognized, splits
+ * the stroke at its point of highest curvature and applies the recognizer to both sub strokes.
+ * <p>
+ * Sub strokes are processed depth-first, first half before second half, so that recognized patterns are added to
+ * the {@link StrokeRecognitionResult result} in stroke order. The pending sub strokes are kept as index ranges in
+ * an explicit stack rather than on the call stack: the segmentation of long, noisy strokes cannot overflow the
+ * thread stack and its cost is bounded by the {@link SegmentationParameters limits} of this engine.
+ * <p>
+ * Sub strokes larger than the {@link #parallelThreshold() parallel threshold} are recognized as
+ * {@link RecursiveTask}s in a {@link ForkJoinPool}: each task collects its own result and the results of both
+ * halves are concatenated in stroke order.
+ * <p>
+ * The segmentation of several strokes may run concurrently on the same engine provided each one uses its own
+ * {@link RangeStack stack}.
+ */
+final class SegmentationEngine implements SegmentationParameters {
+
+    private static final Logger LOGGER = Logger.getLogger("DI-Agent");
+
+    private final PatternRecognizer recognizer;
+
+    private final ForkJoinPool pool;
+
+    private int maxDepth;
+
+    private int minSegmentPoints;
+
+    private int maxSegments;
+
+    private int parallelThreshold;
+
+    /**
+     * Constructor.
+     *
+     * @param aRecognizer the {@link PatternRecognizer} applied to the stroke and its sub strokes
+     * @param maximumDepth the maximum split depth
+     * @param minimumSegmentPoints the minimum number of points of a sub stroke
+     * @param maximumSegments the maximum number of segments examined per stroke
+     * @param aParallelThreshold the minimum number of points of a sub stroke recognized in parallel
+     * @param aPool the {@link ForkJoinPool} running the parallel recognition
+     */
+    SegmentationEngine(final PatternRecognizer aRecognizer, final int maximumDepth, final int minimumSegmentPoints,
+            final int maximumSegments, final int aParallelThreshold, final ForkJoinPool aPool) {
+        recognizer = aRecognizer;
+        maxDepth = maximumDepth;
+        minSegmentPoints = minimumSegmentPoints;
+        maxSegments = maximumSegments;
+        parallelThreshold = aParallelThreshold;
+        pool = aPool;
+    }
+
+    @Override
+    public final int maxDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public final SegmentationParameters maxDepth(final int maxDepthVal) {
+        if (maxDepthVal < 1) {
+            throw new IllegalArgumentException("the maximum split depth must be at least 1");
+        }
+        maxDepth = maxDepthVal;
+        return this;
+    }
+
+    @Override
+    public final int maxSegments() {
+        return maxSegments;
+    }
+
+    @Override
+    public final SegmentationParameters maxSegments(final int maxSegmentsVal) {
+        if (maxSegmentsVal < 1) {
+            throw new IllegalArgumentException("the maximum number of segments must be at least 1");
+        }
+        maxSegments = maxSegmentsVal;
+        return this;
+    }
+
+    @Override
+    public final int minSegmentPoints() {
+        return minSegmentPoints;
+    }
+
+    @Override
+    public final SegmentationParameters minSegmentPoints(final int minSegmentPointsVal) {
+        if (minSegmentPointsVal < 2) {
+            throw new IllegalArgumentException("the minimum segment point count must be at least 2");
+        }
+        minSegmentPoints = minSegmentPointsVal;
+        return this;
+    }
+
+    @Override
+    public final int parallelThreshold() {
+        return parallelThreshold;
+    }
+
+    @Override
+    public final SegmentationParameters parallelThreshold(final int parallelThresholdVal) {
+        parallelThreshold = parallelThresholdVal;
+        return this;
+    }
+
+    /**
+     * Recognizes the patterns of the specified stroke, splitting it as needed. The specified
+     * {@link StrokeFeatures features} are read when the whole stroke is recognized, sub strokes get their own
+     * features.
+     *
+     * @param stroke the {@link StrokeFeatures features} of the stroke
+     * @param curvature the {@link CurvatureProfile curvature profile} of the stroke
+     * @param result the {@link StrokeRecognitionResult result} to which the recognized patterns are added
+     * @param stack the {@link RangeStack stack} of pending sub strokes
+     */
+    final void segment(final StrokeFeatures stroke, final CurvatureProfile curvature,
+            final StrokeRecognitionResult result, final RangeStack stack) {
+        final int strokeSize = stroke.stroke().size();
+        if (strokeSize >= parallelThreshold && maxSegments == Integer.MAX_VALUE) {
+            final SegmentTask task =
+                    new SegmentTask(this, stroke, curvature, 0, strokeSize, 0, maxDepth, minSegmentPoints,
+                                    parallelThreshold);
+            result.addAll(pool.invoke(task));
+        } else {
+            segment(stroke, curvature, 0, strokeSize, 0, maxDepth, minSegmentPoints, maxSegments, stack, false,
+                    result);
+        }
+    }
+
+    /**
+     * Recognizes the patterns of the portion of the specified stroke starting at the specified point, splitting it
+     * as needed. The segmentation is sequential and stops as soon as the calling thread is interrupted, leaving the
+     * result incomplete; the interrupt status of the thread is left set.
+     *
+     * @param stroke the {@link StrokeFeatures features} of the whole stroke
+     * @param curvature the {@link CurvatureProfile curvature profile} of the whole stroke
+     * @param fromIndex the index of the first point of the portion to segment
+     * @param result the {@link StrokeRecognitionResult result} to which the recognized patterns are added
+     * @param stack the {@link RangeStack stack} of pending sub strokes
+     * @return <code>false</code> if the segmentation has been interrupted, <code>true</code> otherwise
+     */
+    final boolean segment(final StrokeFeatures stroke, final CurvatureProfile curvature, final int fromIndex,
+            final StrokeRecognitionResult result, final RangeStack stack) {
+        return segment(stroke, curvature, fromIndex, stroke.stroke().size(), 0, maxDepth, minSegmentPoints,
+                       maxSegments, stack, true, result);
+    }
+
+    /*
+     * sequential segmentation of the specified range of the specified stroke; returns false if interrupted.
+     */
+    private boolean segment(final StrokeFeatures stroke, final CurvatureProfile curvature, final int fromIndex,
+            final int toIndex, final int fromDepth, final int maximumDepth, final int minimumSegmentPoints,
+            final int maximumSegments, final RangeStack ranges, final boolean interruptible,
+            final StrokeRecognitionResult result) {
+        ranges.clear();
+        ranges.push(fromIndex, toIndex, fromDepth);
+        int segments = 0;
+        while (!ranges.isEmpty()) {
+            if (interruptible && Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            ranges.pop();
+            final int from = ranges.from();
+            final int to = ranges.to();
+            final int depth = ranges.depth();
+
+            if (segments == maximumSegments) {
+                LOGGER.info("Maximum number of segments reached, dropping remaining sub strokes");
+                break;
+            }
+            segments++;
+
+            final StrokeIndex index = recognize(stroke, from, to, result);
+            if (index != null) {
+                final int split = split(index, curvature, depth, maximumDepth, minimumSegmentPoints);
+                if (split > 0) {
+                    /*
+                     * the second half is pushed first so that the first half is processed first.
+                     */
+                    ranges.push(from + split, to, depth + 1);
+                    ranges.push(from, from + split + 1, depth + 1);
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * recognizes the specified range and returns its index if no pattern has been recognized, null otherwise.
+     */
+    private StrokeIndex recognize(final StrokeFeatures stroke, final int from, final int to,
+            final StrokeRecognitionResult result) {
+        final StrokeFeatures features =
+                from == 0 && to == stroke.stroke().size() ? stroke
+                                                          : new StrokeFeatures(stroke.index().subIndex(from, to));
+        if (recognizer.recognize(features, result)) {
+            result.endSegment(from, to - 1);
+            return null;
+        }
+        return features.index();
+    }
+
+    /*
+     * returns the split index of the specified unrecognized sub stroke or -1 if it shall not be split.
+     */
+    private static int split(final StrokeIndex index, final CurvatureProfile curvature, final int depth,
+            final int maximumDepth, final int minimumSegmentPoints) {
+        final int strokeSize = index.stroke().size();
+        LOGGER.info("Entering recursive recognition phase for stroke with " + strokeSize + " points");
+        int result = -1;
+        if (strokeSize > 1 && depth < maximumDepth) {
+            final int split = curvature.indexOfMaxCurvature(index);
+            if (split > 0
+                && split < strokeSize - 1
+                && split + 1 >= minimumSegmentPoints
+                && strokeSize - split >= minimumSegmentPoints) {
+                LOGGER.info("Splitting index = " + split);
+                result = split;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recognition of a sub stroke in a {@link ForkJoinPool}. Sub strokes smaller than the parallel threshold are
+     * segmented sequentially by the task.
+     */
+    private static final class SegmentTask extends RecursiveTask<StrokeRecognitionResult> {
+
+        private static final long serialVersionUID = -4183316411829462351L;
+
+        private final transient SegmentationEngine engine;
+
+        private final transient StrokeFeatures stroke;
+
+        private final transient CurvatureProfile curvature;
+
+        private final int from;
+
+        private final int to;
+
+        private final int depth;
+
+        private final int maxDepth;
+
+        private final int minSegmentPoints;
+
+        private final int parallelThreshold;
+
+        SegmentTask(final SegmentationEngine anEngine, final StrokeFeatures aStroke,
+                final CurvatureProfile aCurvature, final int fromIndex, final int toIndex, final int aDepth,
+                final int maximumDepth, final int minimumSegmentPoints, final int aParallelThreshold) {
+            engine = anEngine;
+            stroke = aStroke;
+            curvature = aCurvature;
+            from = fromIndex;
+            to = toIndex;
+            depth = aDepth;
+            maxDepth = maximumDepth;
+            minSegmentPoints = minimumSegmentPoints;
+            parallelThreshold = aParallelThreshold;
+        }
+
+        @SuppressWarnings("synthetic-access")
+        @Override
+        protected final StrokeRecognitionResult compute() {
+            final StrokeRecognitionResult result = new StrokeRecognitionResult();
+            if (to - from < parallelThreshold) {
+                engine.segment(stroke, curvature, from, to, depth, maxDepth, minSegmentPoints, Integer.MAX_VALUE,
+                               new RangeStack(), false, result);
+            } else {
+                final StrokeIndex index = engine.recognize(stroke, from, to, result);
+                if (index != null) {
+                    final int split = split(index, curvature, depth, maxDepth, minSegmentPoints);
+                    if (split > 0) {
+                        final SegmentTask first = subTask(from, from + split + 1);
+                        final SegmentTask second = subTask(from + split, to);
+                        second.fork();
+                        result.addAll(first.compute()).addAll(second.join());
+                    }
+                }
+            }
+            return result;
+        }
+
+        private SegmentTask subTask(final int fromIndex, final int toIndex) {
+            return new SegmentTask(engine, stroke, curvature, fromIndex, toIndex, depth + 1, maxDepth,
+                                   minSegmentPoints, parallelThreshold);
+        }
+
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * The features of a {@link Stroke stroke} - or of a sub stroke - read by the {@link PatternRecognizer}s: segment
+ * directions and lengths, path length, bounding box, regression line, direction graph regression line, algebraic
+ * circle fit and closure distance.
+ * <p>
+ * The features are extracted once per stroke and shared by all the recognizers of the chain. Each feature is
+ * computed the first time it is read, so that a recognizer that rejects the stroke early does not pay for the
+ * features it does not need. Features derived from the {@link StrokeIndex index} of the root stroke - segments,
+ * path length and regression line - are not recomputed for sub strokes.
+ * <p>
+ * This object is not thread-safe.
+ */
+final class StrokeFeatures {
+
+    private final StrokeIndex index;
+
+    private RegressionLine regressionLine;
+
+    private RegressionLine directionGraphRegressionLine;
+
+    private CircleFit circleFit;
+
+    private boolean bounded;
+
+    private double minX;
+
+    private double maxX;
+
+    private double minY;
+
+    private double maxY;
+
+    /**
+     * Constructor.
+     *
+     * @param aStroke the {@link Stroke stroke}
+     */
+    StrokeFeatures(final Stroke aStroke) {
+        this(new StrokeIndex(aStroke));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param anIndex the {@link StrokeIndex index} of the stroke
+     */
+    StrokeFeatures(final StrokeIndex anIndex) {
+        index = anIndex;
+    }
+
+    /**
+     * Constructor of the features of a stroke some of which have already been computed, as points were added to
+     * the stroke.
+     *
+     * @param anIndex the {@link StrokeIndex index} of the stroke
+     * @param aDirectionGraphRegressionLine the {@link RegressionLine regression line} of the direction graph
+     * @param aCircleFit the {@link CircleFit algebraic circle fit} of the stroke points
+     * @param aMinX the smallest x coordinate of the stroke points
+     * @param aMaxX the largest x coordinate of the stroke points
+     * @param aMinY the smallest y coordinate of the stroke points
+     * @param aMaxY the largest y coordinate of the stroke points
+     */
+    StrokeFeatures(final StrokeIndex anIndex, final RegressionLine aDirectionGraphRegressionLine,
+            final CircleFit aCircleFit, final double aMinX, final double aMaxX, final double aMinY,
+            final double aMaxY) {
+        index = anIndex;
+        directionGraphRegressionLine = aDirectionGraphRegressionLine;
+        circleFit = aCircleFit;
+        bounded = true;
+        minX = aMinX;
+        maxX = aMaxX;
+        minY = aMinY;
+        maxY = aMaxY;
+    }
+
+    /**
+     * Returns the {@link CircleFit algebraic circle fit} of the stroke points.
+     *
+     * @return the {@link CircleFit algebraic circle fit} of the stroke points
+     */
+    final CircleFit circleFit() {
+        if (circleFit == null) {
+            circleFit = CircleFit.of(index.stroke());
+        }
+        return circleFit;
+    }
+
+    /**
+     * Returns the distance between the first and the last point of the stroke, <i>0</i> if the stroke is empty.
+     *
+     * @return the distance between the first and the last point of the stroke
+     */
+    final double closureDistance() {
+        final Stroke stroke = index.stroke();
+        final int last = stroke.size() - 1;
+        return last < 0 ? 0.0 : Geometry2D.distance(stroke.x(0), stroke.y(0), stroke.x(last), stroke.y(last));
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the direction graph of the stroke against the index of
+     * each direction.
+     *
+     * @see Strokes#directionGraphRegressionLine(StrokeSegments)
+     * @return the {@link RegressionLine regression line} of the direction graph of the stroke
+     */
+    final RegressionLine directionGraphRegressionLine() {
+        if (directionGraphRegressionLine == null) {
+            directionGraphRegressionLine = Strokes.directionGraphRegressionLine(index.segments());
+        }
+        return directionGraphRegressionLine;
+    }
+
+    /**
+     * Returns the {@link StrokeIndex index} of the stroke.
+     *
+     * @return the {@link StrokeIndex index} of the stroke
+     */
+    final StrokeIndex index() {
+        return index;
+    }
+
+    /**
+     * Returns the largest x coordinate of the stroke points.
+     *
+     * @return the largest x coordinate of the stroke points
+     */
+    final double maxX() {
+        bound();
+        return maxX;
+    }
+
+    /**
+     * Returns the largest y coordinate of the stroke points.
+     *
+     * @return the largest y coordinate of the stroke points
+     */
+    final double maxY() {
+        bound();
+        return maxY;
+    }
+
+    /**
+     * Returns the smallest x coordinate of the stroke points.
+     *
+     * @return the smallest x coordinate of the stroke points
+     */
+    final double minX() {
+        bound();
+        return minX;
+    }
+
+    /**
+     * Returns the smallest y coordinate of the stroke points.
+     *
+     * @return the smallest y coordinate of the stroke points
+     */
+    final double minY() {
+        bound();
+        return minY;
+    }
+
+    /**
+     * Returns the length of the path followed by the stroke.
+     *
+     * @return the length of the path followed by the stroke
+     */
+    final double pathLength() {
+        return index.pathLength();
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the stroke points.
+     *
+     * @return the {@link RegressionLine regression line} of the stroke points
+     */
+    final RegressionLine regressionLine() {
+        if (regressionLine == null) {
+            regressionLine = index.regressionLine();
+        }
+        return regressionLine;
+    }
+
+    /**
+     * Returns the {@link StrokeSegments segments} of the stroke: direction and length of each segment.
+     *
+     * @return the {@link StrokeSegments segments} of the stroke
+     */
+    final StrokeSegments segments() {
+        return index.segments();
+    }
+
+    /**
+     * Returns the {@link Stroke stroke}.
+     *
+     * @return the {@link Stroke stroke}
+     */
+    final Stroke stroke() {
+        return index.stroke();
+    }
+
+    /*
+     * computes the bounding box of the stroke on first access.
+     */
+    private void bound() {
+        if (bounded) {
+            return;
+        }
+        bounded = true;
+        final Stroke stroke = index.stroke();
+        final int size = stroke.size();
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            final double x = stroke.x(i);
+            final double y = stroke.y(i);
+            minX = Math.min(x, minX);
+            maxX = Math.max(x, maxX);
+            minY = Math.min(y, minY);
+            maxY = Math.max(y, maxY);
+        }
+    }
+
+}
@@ -0,0 +1,274 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * A prefix-sum index over the points of a {@link Stroke stroke}.
+ * <p>
+ * The index is built once when the stroke arrives: it holds, for every point, the running sums of <i>x</i>,
+ * <i>y</i>, <i>x²</i>, <i>xy</i>, <i>y²</i> and the cumulative path length. Any {@link #subIndex(int, int) sub
+ * index} shares these sums with its parent so that the {@link #regressionLine() regression line} and the
+ * {@link #pathLength() path length} of any portion of the stroke are computed in constant time.
+ * <p>
+ * The index also holds the {@link StrokeSegments segments} of the stroke, likewise shared with the sub indexes.
+ * <p>
+ * Coordinates are summed relative to the first point of the root stroke to limit the loss of precision of the
+ * squared sums.
+ */
+final class StrokeIndex {
+
+    private static final double RELATIVE_ZERO = 1.0e-13;
+
+    private final Stroke stroke;
+
+    private final StrokeSegments segments;
+
+    private final int offset;
+
+    private final double[] sumX;
+
+    private final double[] sumY;
+
+    private final double[] sumXX;
+
+    private final double[] sumXY;
+
+    private final double[] sumYY;
+
+    private final double[] length;
+
+    private final double originX;
+
+    private final double originY;
+
+    /**
+     * Constructor.
+     *
+     * @param aStroke the {@link Stroke stroke} to index
+     */
+    StrokeIndex(final Stroke aStroke) {
+        this(aStroke, new RecognitionScratch());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param aStroke the {@link Stroke stroke} to index
+     * @param scratch the {@link RecognitionScratch scratch} providing the buffers of the index
+     */
+    StrokeIndex(final Stroke aStroke, final RecognitionScratch scratch) {
+        stroke = aStroke;
+        segments = new StrokeSegments(aStroke, scratch);
+        offset = 0;
+
+        final int size = aStroke.size();
+        sumX = scratch.buffer(RecognitionScratch.SUM_X, size + 1);
+        sumY = scratch.buffer(RecognitionScratch.SUM_Y, size + 1);
+        sumXX = scratch.buffer(RecognitionScratch.SUM_XX, size + 1);
+        sumXY = scratch.buffer(RecognitionScratch.SUM_XY, size + 1);
+        sumYY = scratch.buffer(RecognitionScratch.SUM_YY, size + 1);
+        length = scratch.buffer(RecognitionScratch.PATH_LENGTH, size + 1);
+        sumX[0] = 0.0;
+        sumY[0] = 0.0;
+        sumXX[0] = 0.0;
+        sumXY[0] = 0.0;
+        sumYY[0] = 0.0;
+        length[0] = 0.0;
+        originX = size == 0 ? 0.0 : aStroke.x(0);
+        originY = size == 0 ? 0.0 : aStroke.y(0);
+
+        for (int i = 0; i < size; i++) {
+            final double x = aStroke.x(i) - originX;
+            final double y = aStroke.y(i) - originY;
+            sumX[i + 1] = sumX[i] + x;
+            sumY[i + 1] = sumY[i] + y;
+            sumXX[i + 1] = sumXX[i] + x * x;
+            sumXY[i + 1] = sumXY[i] + x * y;
+            sumYY[i + 1] = sumYY[i] + y * y;
+            if (i > 0) {
+                length[i] = length[i - 1] + segments.length(i - 1);
+            }
+        }
+    }
+
+    /**
+     * Constructor of the index of a stroke whose segments and prefix sums have already been computed, relative to
+     * the first point of the stroke. The arrays are not copied.
+     *
+     * @param aStroke the indexed {@link Stroke stroke}
+     * @param someSegments the {@link StrokeSegments segments} of the stroke
+     * @param someSumX the running sums of <i>x</i>, starting with <i>0</i>
+     * @param someSumY the running sums of <i>y</i>, starting with <i>0</i>
+     * @param someSumXX the running sums of <i>x²</i>, starting with <i>0</i>
+     * @param someSumXY the running sums of <i>xy</i>, starting with <i>0</i>
+     * @param someSumYY the running sums of <i>y²</i>, starting with <i>0</i>
+     * @param someLengths the cumulative path length at each point
+     */
+    StrokeIndex(final Stroke aStroke, final StrokeSegments someSegments, final double[] someSumX,
+            final double[] someSumY, final double[] someSumXX, final double[] someSumXY, final double[] someSumYY,
+            final double[] someLengths) {
+        stroke = aStroke;
+        segments = someSegments;
+        offset = 0;
+        sumX = someSumX;
+        sumY = someSumY;
+        sumXX = someSumXX;
+        sumXY = someSumXY;
+        sumYY = someSumYY;
+        length = someLengths;
+        originX = aStroke.size() == 0 ? 0.0 : aStroke.x(0);
+        originY = aStroke.size() == 0 ? 0.0 : aStroke.y(0);
+    }
+
+    /*
+     * sub index: the offset is relative to the root stroke so that nested sub indexes stay flat.
+     */
+    private StrokeIndex(final StrokeIndex parent, final int fromIndex, final int toIndex) {
+        stroke = parent.stroke.subStroke(fromIndex, toIndex);
+        segments = parent.segments.subSegments(fromIndex, toIndex);
+        offset = parent.offset + fromIndex;
+        sumX = parent.sumX;
+        sumY = parent.sumY;
+        sumXX = parent.sumXX;
+        sumXY = parent.sumXY;
+        sumYY = parent.sumYY;
+        length = parent.length;
+        originX = parent.originX;
+        originY = parent.originY;
+    }
+
+    /**
+     * Returns the index, in the root stroke, of the first point of the indexed {@link Stroke stroke}.
+     *
+     * @return the index, in the root stroke, of the first point of the indexed {@link Stroke stroke}
+     */
+    final int offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the length of the path followed by the indexed {@link Stroke stroke}: the sum of the distances
+     * between consecutive points.
+     *
+     * @return the length of the path followed by the indexed {@link Stroke stroke}
+     */
+    final double pathLength() {
+        return pathLength(0, stroke.size());
+    }
+
+    /**
+     * Returns the length of the path going from the point at <tt>fromIndex</tt> to the point at
+     * <tt>toIndex - 1</tt>.
+     *
+     * @param fromIndex low endpoint (inclusive) of the range
+     * @param toIndex high endpoint (exclusive) of the range
+     * @return the length of the path within the specified range
+     */
+    final double pathLength(final int fromIndex, final int toIndex) {
+        if (toIndex - fromIndex < 2) {
+            return 0.0;
+        }
+        return length[offset + toIndex - 1] - length[offset + fromIndex];
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the indexed {@link Stroke stroke}. The result is the
+     * same as {@link LeastSquares#regressionLine(Stroke)} but is computed in constant time.
+     *
+     * @return the {@link RegressionLine regression line} of the indexed {@link Stroke stroke}
+     */
+    final RegressionLine regressionLine() {
+        return regressionLine(0, stroke.size());
+    }
+
+    /**
+     * Returns the {@link RegressionLine regression line} of the points in the specified range, computed in
+     * constant time.
+     *
+     * @param fromIndex low endpoint (inclusive) of the range
+     * @param toIndex high endpoint (exclusive) of the range
+     * @return the {@link RegressionLine regression line} of the points in the specified range
+     */
+    final RegressionLine regressionLine(final int fromIndex, final int toIndex) {
+        final int from = offset + fromIndex;
+        final int to = offset + toIndex;
+        final double n = toIndex - fromIndex;
+
+        final double sx = sumX[to] - sumX[from];
+        final double sy = sumY[to] - sumY[from];
+        final double sxx = sumXX[to] - sumXX[from];
+        final double sxy = sumXY[to] - sumXY[from];
+        final double syy = sumYY[to] - sumYY[from];
+
+        final double xbar = sx / n;
+        final double ybar = sy / n;
+
+        /*
+         * total sum of squares, sum of squares of x and sum of cross products.
+         */
+        final double sst = syy - sy * ybar;
+        final double xxbar = sxx - sx * xbar;
+        final double xybar = sxy - sx * ybar;
+
+        final RegressionLine rl;
+        if (n == 0 || isZero(sst, syy)) {
+            /*
+             * Actual data fit an horizontal line no need to compute regression
+             */
+            rl = new RegressionLine(ybar + originY, 0.0, 1.0);
+        } else if (isZero(xxbar, sxx)) {
+            /*
+             * Actual data fit a vertical line no need to compute regression
+             */
+            rl = new RegressionLine(0.0, 1.0, 1.0);
+        } else {
+            final double b = xybar / xxbar;
+            final double a = ybar + originY - b * (xbar + originX);
+            /*
+             * sse = sst - b * sxy, hence r2 = b * sxy / sst, kept within [0, 1] despite the rounding of the sums.
+             */
+            final double r2 = Math.max(0.0, Math.min(1.0, b * xybar / sst));
+            rl = new RegressionLine(a, b, r2);
+        }
+        return rl;
+    }
+
+    /**
+     * Returns the {@link StrokeSegments segments} of the indexed {@link Stroke stroke}.
+     *
+     * @return the {@link StrokeSegments segments} of the indexed {@link Stroke stroke}
+     */
+    final StrokeSegments segments() {
+        return segments;
+    }
+
+    /**
+     * Returns the indexed {@link Stroke stroke}.
+     *
+     * @return the indexed {@link Stroke stroke}
+     */
+    final Stroke stroke() {
+        return stroke;
+    }
+
+    /**
+     * Returns the index of the portion of the indexed stroke between the specified <tt>fromIndex</tt>, inclusive,
+     * and <tt>toIndex</tt>, exclusive. The returned index shares the prefix sums of this index.
+     *
+     * @param fromIndex low endpoint (inclusive) of the sub stroke
+     * @param toIndex high endpoint (exclusive) of the sub stroke
+     * @return the index of the specified range within the indexed stroke
+     */
+    final StrokeIndex subIndex(final int fromIndex, final int toIndex) {
+        return new StrokeIndex(this, fromIndex, toIndex);
+    }
+
+    /*
+     * a sum of squared deviations is considered null if it is negligible compared to the sum of the squares of the
+     * same range.
+     */
+    private static boolean isZero(final double value, final double magnitude) {
+        return value <= RELATIVE_ZERO * Math.abs(magnitude);
+    }
+
+}
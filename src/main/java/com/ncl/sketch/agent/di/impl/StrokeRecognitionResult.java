@@ -1,27 +1,94 @@
 package com.ncl.sketch.agent.di.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.logging.Level;
 
+import com.ncl.sketch.agent.api.Arc;
 import com.ncl.sketch.agent.api.Circle;
 import com.ncl.sketch.agent.api.Line;
 import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.di.api.SegmentedRecognitionResult;
 
 /**
  * {@link RecognitionResult Result} of the recognition process applied to a stroke.
+ * <p>
+ * Besides the recognized patterns, the result keeps the order in which they were added and, when they were
+ * recognized by a {@link SegmentationEngine}, the indices of the first and last stroke points of each recognized
+ * segment and the segment of each pattern. The result can thus be {@link #addSegments(StrokeRecognitionResult, int)
+ * truncated} at a segment boundary, and tells the {@link SegmentedRecognitionResult range} of each pattern.
+ * <p>
+ * A result also tells the {@link PatternRecognizer recognizers} the {@link #logLevel() level} at which they log the
+ * patterns they add to it, so that a result which is only recorded and then thrown away does not flood the log.
  */
-final class StrokeRecognitionResult implements RecognitionResult {
+final class StrokeRecognitionResult implements SegmentedRecognitionResult {
+
+    private static final int LINE = 0;
+
+    private static final int CIRCLE = 1;
+
+    private static final int ARC = 2;
 
     private final List<Line> lines;
 
     private final List<Circle> circles;
 
+    private final List<Arc> arcs;
+
+    private int[] kinds;
+
+    private int patterns;
+
+    /*
+     * the segment of each pattern, -1 if the pattern has been added out of any segment.
+     */
+    private int[] patternSegments;
+
+    /*
+     * the number of patterns whose segment is known: the following ones belong to the next recorded segment.
+     */
+    private int segmentedPatterns;
+
+    private int[] starts;
+
+    private int[] ends;
+
+    private int segments;
+
+    private final Level logLevel;
+
     /**
-     * Constructor.
+     * Constructor of a result whose patterns are logged at {@link Level#INFO INFO} level.
      */
     StrokeRecognitionResult() {
+        this(Level.INFO);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param aLogLevel the level at which the recognizers log the patterns added to this result
+     */
+    StrokeRecognitionResult(final Level aLogLevel) {
+        logLevel = aLogLevel;
         lines = new ArrayList<Line>();
         circles = new ArrayList<Circle>();
+        arcs = new ArrayList<Arc>();
+        kinds = new int[4];
+        patternSegments = new int[4];
+        starts = new int[4];
+        ends = new int[4];
+    }
+
+    @Override
+    public final List<Arc> arcs() {
+        return arcs;
+    }
+
+    @Override
+    public final int[] arcRange(final int index) {
+        return range(ARC, index, arcs.size());
     }
 
     @Override
@@ -29,11 +96,32 @@ final class StrokeRecognitionResult implements RecognitionResult {
         return circles;
     }
 
+    @Override
+    public final int[] circleRange(final int index) {
+        return range(CIRCLE, index, circles.size());
+    }
+
     @Override
     public final List<Line> lines() {
         return lines;
     }
 
+    @Override
+    public final int[] lineRange(final int index) {
+        return range(LINE, index, lines.size());
+    }
+
+    /**
+     * Adds the specified {@link Arc arc} to the list of recognized arcs.
+     * 
+     * @param arc the arc to add
+     * @return this {@link StrokeRecognitionResult} for chainable calls
+     */
+    final StrokeRecognitionResult add(final Arc arc) {
+        arcs.add(arc);
+        return kind(ARC);
+    }
+
     /**
      * Adds the specified {@link Circle circle} to the list of recognized circles.
      * 
@@ -42,7 +130,7 @@ final class StrokeRecognitionResult implements RecognitionResult {
      */
     final StrokeRecognitionResult add(final Circle circle) {
         circles.add(circle);
-        return this;
+        return kind(CIRCLE);
     }
 
     /**
@@ -53,6 +141,154 @@ final class StrokeRecognitionResult implements RecognitionResult {
      */
     final StrokeRecognitionResult add(final Line line) {
         lines.add(line);
+        return kind(LINE);
+    }
+
+    /**
+     * Appends all the patterns recognized in the specified {@link StrokeRecognitionResult result} to this result.
+     * 
+     * @param other the result to append
+     * @return this {@link StrokeRecognitionResult} for chainable calls
+     */
+    final StrokeRecognitionResult addAll(final StrokeRecognitionResult other) {
+        lines.addAll(other.lines);
+        circles.addAll(other.circles);
+        arcs.addAll(other.arcs);
+        final int offset = segments;
+        for (int i = 0; i < other.patterns; i++) {
+            kind(other.kinds[i]);
+            final int segment = other.patternSegments[i];
+            patternSegments[patterns - 1] = segment < 0 ? -1 : offset + segment;
+        }
+        segmentedPatterns = patterns;
+        for (int i = 0; i < other.segments; i++) {
+            segment(other.starts[i], other.ends[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Appends the patterns of the first <tt>count</tt> segments of the specified {@link StrokeRecognitionResult
+     * result} to this result. Each segment of the specified result shall hold a single pattern.
+     * 
+     * @param other the result whose first segments are appended
+     * @param count the number of segments to append
+     * @return this {@link StrokeRecognitionResult} for chainable calls
+     */
+    final StrokeRecognitionResult addSegments(final StrokeRecognitionResult other, final int count) {
+        int line = 0;
+        int circle = 0;
+        int arc = 0;
+        for (int i = 0; i < count; i++) {
+            switch (other.kinds[i]) {
+                case LINE:
+                    add(other.lines.get(line++));
+                    break;
+                case CIRCLE:
+                    add(other.circles.get(circle++));
+                    break;
+                default:
+                    add(other.arcs.get(arc++));
+                    break;
+            }
+            endSegment(other.starts[i], other.ends[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Records the end of a recognized segment: the patterns added since the previous segment have been recognized
+     * on the portion of the stroke between the specified points.
+     * 
+     * @param start the index of the first point of the segment in the segmented stroke
+     * @param end the index of the last point of the segment in the segmented stroke
+     * @return this {@link StrokeRecognitionResult} for chainable calls
+     */
+    final StrokeRecognitionResult endSegment(final int start, final int end) {
+        while (segmentedPatterns < patterns) {
+            patternSegments[segmentedPatterns++] = segments;
+        }
+        return segment(start, end);
+    }
+
+    /**
+     * Returns the level at which the {@link PatternRecognizer recognizers} log the patterns added to this result.
+     *
+     * @return the level at which the recognizers log the patterns added to this result
+     */
+    final Level logLevel() {
+        return logLevel;
+    }
+
+    /**
+     * Maps the first and last points of the recognized segments, recognized on the specified
+     * {@link PreprocessedStroke reduced stroke}, to the points of the original stroke: the ranges of the patterns
+     * become ranges of the original stroke. The recognized patterns themselves are left as computed on the reduced
+     * stroke.
+     * 
+     * @param stroke the reduced stroke the segments have been recognized on
+     * @return this {@link StrokeRecognitionResult} for chainable calls
+     */
+    final StrokeRecognitionResult mapSegments(final PreprocessedStroke stroke) {
+        for (int i = 0; i < segments; i++) {
+            starts[i] = stroke.originalIndex(starts[i]);
+            ends[i] = stroke.originalIndex(ends[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the index of the last point of the specified recognized segment.
+     * 
+     * @param segment the index of the segment
+     * @return the index of the last point of the segment in the segmented stroke
+     */
+    final int segmentEnd(final int segment) {
+        return ends[segment];
+    }
+
+    /**
+     * Returns the number of recognized segments.
+     * 
+     * @return the number of recognized segments
+     */
+    final int segments() {
+        return segments;
+    }
+
+    private StrokeRecognitionResult kind(final int kind) {
+        if (patterns == kinds.length) {
+            kinds = Arrays.copyOf(kinds, 2 * patterns);
+            patternSegments = Arrays.copyOf(patternSegments, 2 * patterns);
+        }
+        patternSegments[patterns] = -1;
+        kinds[patterns++] = kind;
+        return this;
+    }
+
+    /*
+     * the range of the index-th pattern of the specified kind, null if it belongs to no segment.
+     */
+    private int[] range(final int kind, final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + size);
+        }
+        int count = 0;
+        int pattern = 0;
+        while (kinds[pattern] != kind || count++ != index) {
+            pattern++;
+        }
+        final int segment = patternSegments[pattern];
+        return segment < 0 ? null : new int[] { starts[segment], ends[segment] };
+    }
+
+    private StrokeRecognitionResult segment(final int start, final int end) {
+        if (segments == ends.length) {
+            starts = Arrays.copyOf(starts, 2 * segments);
+            ends = Arrays.copyOf(ends, 2 * segments);
+        }
+        starts[segments] = start;
+        ends[segments++] = end;
         return this;
     }
 
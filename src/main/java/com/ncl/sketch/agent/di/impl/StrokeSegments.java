@@ -0,0 +1,130 @@
+package com.ncl.sketch.agent.di.impl;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * The direction and the length of each segment - two consecutive points - of a {@link Stroke stroke}.
+ * <p>
+ * Directions and lengths are computed once when this buffer is built and then shared by all the calculations
+ * that need them: {@link Strokes#directionGraph(StrokeSegments) direction graph} and
+ * {@link Strokes#indexOfMaxCurvature(StrokeSegments, int) curvature}. {@link #subSegments(int, int) Sub segments}
+ * share the buffer of their parent.
+ */
+final class StrokeSegments {
+
+    private final double[] directions;
+
+    private final double[] lengths;
+
+    private final int offset;
+
+    private final int size;
+
+    /**
+     * Constructor.
+     *
+     * @param stroke the {@link Stroke stroke}
+     */
+    StrokeSegments(final Stroke stroke) {
+        this(stroke, new RecognitionScratch());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param stroke the {@link Stroke stroke}
+     * @param scratch the {@link RecognitionScratch scratch} providing the buffers
+     */
+    StrokeSegments(final Stroke stroke, final RecognitionScratch scratch) {
+        size = Math.max(0, stroke.size() - 1);
+        offset = 0;
+        directions = scratch.buffer(RecognitionScratch.DIRECTIONS, size);
+        lengths = scratch.buffer(RecognitionScratch.LENGTHS, size);
+        for (int i = 0; i < size; i++) {
+            final double dx = stroke.x(i + 1) - stroke.x(i);
+            final double dy = stroke.y(i + 1) - stroke.y(i);
+            directions[i] = Math.atan2(dy, dx);
+            lengths[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Constructor of the segments of a stroke whose directions and lengths have already been computed. The arrays
+     * are not copied.
+     *
+     * @param someDirections the direction of each segment
+     * @param someLengths the length of each segment
+     * @param aSize the number of segments
+     */
+    StrokeSegments(final double[] someDirections, final double[] someLengths, final int aSize) {
+        directions = someDirections;
+        lengths = someLengths;
+        offset = 0;
+        size = aSize;
+    }
+
+    private StrokeSegments(final StrokeSegments parent, final int fromIndex, final int toIndex) {
+        directions = parent.directions;
+        lengths = parent.lengths;
+        offset = parent.offset + fromIndex;
+        size = Math.max(0, toIndex - fromIndex - 1);
+    }
+
+    /**
+     * Returns the direction of the segment starting at the n-th stroke point. The result is an angle in
+     * <strong>radians</strong> in the range of -<i>pi</i> to <i>pi</i>.
+     *
+     * @param n the index of the segment
+     * @return the direction of the n-th segment in <strong>radians</strong>
+     */
+    final double direction(final int n) {
+        return directions[offset + n];
+    }
+
+    /**
+     * Returns the length of the path between the stroke points at the specified indexes.
+     *
+     * @param from index of the first point
+     * @param to index of the last point
+     * @return the length of the path between the stroke points at the specified indexes
+     */
+    final double distance(final int from, final int to) {
+        double distance = 0.0;
+        for (int i = offset + from; i < offset + to; i++) {
+            distance += lengths[i];
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the length of the segment starting at the n-th stroke point.
+     *
+     * @param n the index of the segment
+     * @return the length of the n-th segment
+     */
+    final double length(final int n) {
+        return lengths[offset + n];
+    }
+
+    /**
+     * Returns the number of segments: one less than the number of stroke points.
+     *
+     * @return the number of segments
+     */
+    final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the segments of the sub stroke between the specified <tt>fromIndex</tt>, inclusive, and
+     * <tt>toIndex</tt>, exclusive - indexes of stroke points. The returned segments share this buffer.
+     *
+     * @param fromIndex low endpoint (inclusive) of the sub stroke
+     * @param toIndex high endpoint (exclusive) of the sub stroke
+     * @return the segments of the specified sub stroke
+     */
+    final StrokeSegments subSegments(final int fromIndex, final int toIndex) {
+        return new StrokeSegments(this, fromIndex, toIndex);
+    }
+
+}
@@ -22,10 +22,30 @@ final class Strokes {
         // empty;
     }
 
+    /**
+     * Returns the specified number of turns added to the directions of a direction graph, increased or decreased
+     * on a discontinuity between two consecutive directions, so that the graph is unwrapped.
+     * 
+     * @param previousDirection the direction of the previous segment
+     * @param direction the direction of the current segment
+     * @param shift the number of turns added to the previous direction
+     * @return the number of turns to add to the current direction
+     */
+    static final int shift(final double previousDirection, final double direction, final int shift) {
+        if (previousDirection - direction > DIRECTION_DISCONTINUITY_THRESHOLD) {
+            return shift + 1;
+        } else if (previousDirection - direction < -DIRECTION_DISCONTINUITY_THRESHOLD) {
+            return shift - 1;
+        }
+        return shift;
+    }
+
     /**
      * Returns a new {@link Arc} that best approximate the specified {@link Stroke stroke}. The arc will pass
      * through the first and last {@link Point point} of the stroke and the intersection between the perpendicular
-     * bisector to the line <i>(first, last)</i> and the stroke. Returns <code>null</code> if no such arc can be
+     * bisector to the line <i>(first, last)</i> and the stroke. Of the two arcs of the circumcircle joining the
+     * first and last points, the returned arc is the one passing through that intersection: its angles increase
+     * from its start angle up to the start angle plus its extent. Returns <code>null</code> if no such arc can be
      * computed.
      * 
      * @param stroke the {@link Stroke stroke}
@@ -36,20 +56,25 @@ final class Strokes {
         final Point first = stroke.get(0);
         final Point last = stroke.get(stroke.size() - 1);
         final LineEquation bisector = Geometry2D.perpendicularBisectorOf(first, last);
-        Point intersection = null;
+        final double[] coordinates = new double[2];
+        boolean found = false;
         for (int i = 0; i < stroke.size() - 1; i++) {
-            final Point from = stroke.get(i);
-            final Point to = stroke.get(i + 1);
-            final LineEquation line1 = Geometry2D.lineEquationOf(from, to);
-            try {
-                intersection = Geometry2D.intersectionOf(line1, bisector);
-                if (intersection != null && Geometry2D.withinRange(intersection, from, to)) {
+            final double fromX = stroke.x(i);
+            final double fromY = stroke.y(i);
+            final double toX = stroke.x(i + 1);
+            final double toY = stroke.y(i + 1);
+            final int status = Geometry2D.intersectionOf(fromX, fromY, toX, toY, bisector, coordinates);
+            if (status == Geometry2D.INTERSECTION) {
+                found = true;
+                if (Geometry2D.withinRange(coordinates[0], coordinates[1], fromX, fromY, toX, toY)) {
                     break;
                 }
-            } catch (final CoincidentLineException e) {
-                // ignore and move to next stroke segment
+            } else if (status == Geometry2D.PARALLEL) {
+                found = false;
             }
+            // coincident: move to next stroke segment
         }
+        final Point intersection = found ? Geometry2D.point(coordinates[0], coordinates[1]) : null;
 
         final Arc result;
         if (intersection == null) {
@@ -59,10 +84,15 @@ final class Strokes {
             final Circle circle = Geometry2D.circumcircleOf(first, intersection, last);
             final double firstAngle = Geometry2D.angleOf(first, circle.center());
             final double lastAngle = Geometry2D.angleOf(last, circle.center());
-            if (firstAngle < lastAngle) {
-                result = new Arc(circle.center(), circle.radius(), firstAngle, lastAngle - firstAngle);
+            final double midAngle = Geometry2D.angleOf(intersection, circle.center());
+            /*
+             * of the two arcs joining first and last, keep the one passing through the intersection.
+             */
+            final double extent = positiveAngle(lastAngle - firstAngle);
+            if (positiveAngle(midAngle - firstAngle) <= extent) {
+                result = new Arc(circle.center(), circle.radius(), firstAngle, extent);
             } else {
-                result = new Arc(circle.center(), circle.radius(), lastAngle, firstAngle - lastAngle);
+                result = new Arc(circle.center(), circle.radius(), lastAngle, TWO_PI - extent);
             }
         }
 
@@ -79,27 +109,51 @@ final class Strokes {
      *         and the mean distance between the center and each stroke point as its radius
      */
     static final Circle circle(final Stroke stroke) {
-        double maxX = Double.MIN_VALUE;
-        double minX = Double.MAX_VALUE;
-        double maxY = Double.MIN_VALUE;
-        double minY = Double.MAX_VALUE;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double minX = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
 
         final int size = stroke.size();
         for (int i = 0; i < size; i++) {
-            final Point point = stroke.get(i);
-            maxX = Math.max(point.x(), maxX);
-            minX = Math.min(point.x(), minX);
-            maxY = Math.max(point.y(), maxY);
-            minY = Math.min(point.y(), minY);
+            final double px = stroke.x(i);
+            final double py = stroke.y(i);
+            maxX = Math.max(px, maxX);
+            minX = Math.min(px, minX);
+            maxY = Math.max(py, maxY);
+            minY = Math.min(py, minY);
         }
+        return circle(stroke, minX, maxX, minY, maxY);
+    }
 
+    /**
+     * Returns a new {@link Circle circle} which takes the center of the {@link StrokeFeatures stroke}'s bounding
+     * box as its own center and the mean distance between the center and each stroke point as its radius.
+     * 
+     * @see #circle(Stroke)
+     * @param features the {@link StrokeFeatures features} of the stroke
+     * @return a new {@link Circle circle} which takes the center of the stroke's bounding box as its own center
+     *         and the mean distance between the center and each stroke point as its radius
+     */
+    static final Circle circle(final StrokeFeatures features) {
+        return circle(features.stroke(), features.minX(), features.maxX(), features.minY(), features.maxY());
+    }
+
+    /*
+     * circle centered on the specified bounding box.
+     */
+    private static Circle circle(final Stroke stroke, final double minX, final double maxX, final double minY,
+            final double maxY) {
+        final int size = stroke.size();
         final double x = (maxX - minX) / 2 + minX;
         final double y = (maxY - minY) / 2 + minY;
         final Point centre = Geometry2D.point(x, y);
 
         double radius = 0.0;
         for (int i = 0; i < size; i++) {
-            radius += Geometry2D.distance(centre, stroke.get(i));
+            final double dx = stroke.x(i) - x;
+            final double dy = stroke.y(i) - y;
+            radius += Math.sqrt(dx * dx + dy * dy);
         }
         radius = radius / size;
 
@@ -118,19 +172,25 @@ final class Strokes {
      * @return an array containing <code>{@link Stroke#size()} - 1</code> angles in <strong>radians</strong>
      */
     static final double[] directionGraph(final Stroke stroke) {
-        final int strokeSize = stroke.size();
-        final double[] result = new double[strokeSize - 1];
+        return directionGraph(new StrokeSegments(stroke));
+    }
+
+    /**
+     * Returns the direction graph of the stroke described by the specified {@link StrokeSegments segments}.
+     * 
+     * @see #directionGraph(Stroke)
+     * @param segments the {@link StrokeSegments segments} of the stroke
+     * @return an array containing one angle in <strong>radians</strong> per segment
+     */
+    static final double[] directionGraph(final StrokeSegments segments) {
+        final int size = segments.size();
+        final double[] result = new double[size];
         int shift = 0;
         double previousDirection = Double.MIN_VALUE;
-        for (int i = 0; i < strokeSize - 1; i++) {
-            final double direction = direction(stroke, i);
+        for (int i = 0; i < size; i++) {
+            final double direction = segments.direction(i);
             if (i > 0) {
-                /* increase/decrease shift on discontinuity. */
-                if (previousDirection - direction > DIRECTION_DISCONTINUITY_THRESHOLD) {
-                    shift++;
-                } else if (previousDirection - direction < -DIRECTION_DISCONTINUITY_THRESHOLD) {
-                    shift--;
-                }
+                shift = shift(previousDirection, direction, shift);
             }
             result[i] = direction + TWO_PI * shift;
             previousDirection = direction;
@@ -138,6 +198,44 @@ final class Strokes {
         return result;
     }
 
+    /**
+     * Returns the {@link RegressionLine regression line} of the direction graph of the stroke described by the
+     * specified {@link StrokeSegments segments} against the index of each direction. The result is the same as
+     * {@link LeastSquares#regressionLine(double[], double[]) regressionLine({0, 1, 2, ...}, directionGraph)} but
+     * the direction graph is unwrapped and fitted in one pass, without allocating any array: the index axis is
+     * evenly spaced so that its mean and sum of squared deviations are known in closed form.
+     * 
+     * @see #directionGraph(StrokeSegments)
+     * @param segments the {@link StrokeSegments segments} of the stroke
+     * @return the {@link RegressionLine regression line} of the direction graph
+     */
+    static final RegressionLine directionGraphRegressionLine(final StrokeSegments segments) {
+        final int size = segments.size();
+        final double meanIndex = (size - 1) / 2.0;
+        int shift = 0;
+        double previousDirection = Double.MIN_VALUE;
+        double meanDirection = 0.0;
+        double sdd = 0.0;
+        double sid = 0.0;
+        for (int i = 0; i < size; i++) {
+            final double direction = segments.direction(i);
+            if (i > 0) {
+                shift = shift(previousDirection, direction, shift);
+            }
+            final double unwrapped = direction + TWO_PI * shift;
+            /*
+             * Welford update of the mean and sum of squared deviations of the directions; the sum of cross
+             * deviations needs no mean of the directions as the index deviations sum to zero.
+             */
+            final double delta = unwrapped - meanDirection;
+            meanDirection += delta / (i + 1);
+            sdd += delta * (unwrapped - meanDirection);
+            sid += (i - meanIndex) * unwrapped;
+            previousDirection = direction;
+        }
+        return LeastSquares.regressionLineOfIndexes(size, meanDirection, sdd, sid);
+    }
+
     /**
      * Returns the feature area of the specified stroke to the specified {@link Line line} which is computed as the
      * sum area of all the small quadrangles formed by two consecutive stroke points and their foot points on the
@@ -149,13 +247,33 @@ final class Strokes {
      */
     static final double featureArea(final Stroke stroke, final Line line) {
         final int strokeSize = stroke.size();
+        final double startX = line.start().x();
+        final double startY = line.start().y();
+        final double endX = line.end().x();
+        final double endY = line.end().y();
+        final double[] intersection = new double[2];
         double area = 0.0;
-        for (int i = 0; i < strokeSize - 1; i++) {
-            final Point a = stroke.get(i);
-            final Point b = stroke.get(i + 1);
-            final Point c = Geometry2D.project(b, line);
-            final Point d = Geometry2D.project(a, line);
-            area += Geometry2D.areaOf(a, b, c, d);
+        if (strokeSize > 1) {
+            /*
+             * the foot point of each stroke point is computed once and shared by its two quadrangles.
+             */
+            double ax = stroke.x(0);
+            double ay = stroke.y(0);
+            double scale = Geometry2D.projectionOf(ax, ay, startX, startY, endX, endY);
+            double dx = scale * (endX - startX) + startX;
+            double dy = scale * (endY - startY) + startY;
+            for (int i = 0; i < strokeSize - 1; i++) {
+                final double bx = stroke.x(i + 1);
+                final double by = stroke.y(i + 1);
+                scale = Geometry2D.projectionOf(bx, by, startX, startY, endX, endY);
+                final double cx = scale * (endX - startX) + startX;
+                final double cy = scale * (endY - startY) + startY;
+                area += Geometry2D.areaOf(ax, ay, bx, by, cx, cy, dx, dy, intersection);
+                ax = bx;
+                ay = by;
+                dx = cx;
+                dy = cy;
+            }
         }
         return area;
     }
@@ -172,9 +290,10 @@ final class Strokes {
     static final double featureArea(final Stroke stroke, final Point point) {
         final int strokeSize = stroke.size();
         double area = 0.0;
+        final double px = point.x();
+        final double py = point.y();
         for (int i = 0; i < strokeSize - 1; i++) {
-            area += Geometry2D.areaOf(stroke.get(i), stroke.get(i + 1), point);
-
+            area += Geometry2D.areaOf(stroke.x(i), stroke.y(i), stroke.x(i + 1), stroke.y(i + 1), px, py);
         }
         return area;
     }
@@ -193,7 +312,20 @@ final class Strokes {
      *         curvature
      */
     static final int indexOfMaxCurvature(final Stroke stroke, final int k) {
-        final int strokeSize = stroke.size();
+        return indexOfMaxCurvature(new StrokeSegments(stroke), k);
+    }
+
+    /**
+     * Returns the index of the point which has the highest curvature in the stroke described by the specified
+     * {@link StrokeSegments segments}.
+     * 
+     * @see #indexOfMaxCurvature(Stroke, int)
+     * @param segments the {@link StrokeSegments segments} of the stroke
+     * @param k a small {@code integer} defining the neighborhood size around the each point of the stroke
+     * @return the index of the point which has the highest curvature
+     */
+    static final int indexOfMaxCurvature(final StrokeSegments segments, final int k) {
+        final int strokeSize = segments.size() + 1;
         int result = -1;
         if (strokeSize == 3) {
             result = 1;
@@ -203,7 +335,7 @@ final class Strokes {
             final int actualK = Math.min(maxK, k);
             double maxCurvature = 0;
             for (int i = actualK; i < strokeSize - actualK - 1; i++) {
-                final double curvature = curvature(stroke, i, actualK);
+                final double curvature = curvature(segments, i, actualK);
                 if (curvature > maxCurvature) {
                     maxCurvature = curvature;
                     result = i;
@@ -220,51 +352,27 @@ final class Strokes {
      * the paper set it to {@code 2} empirically as a tradeoff between the suppression of noise and the sensitivity
      * of vertex detection.
      * 
-     * @param stroke the {@link Stroke stroke}
+     * @param segments the {@link StrokeSegments segments} of the stroke
      * @param n the index of the point in the stroke for which the curvature shall be computed
      * @param k a small {@code integer} defining the neighborhood size around the n-th point
      * @return the curvature of the n-th stroke point
      */
-    private static double curvature(final Stroke stroke, final int n, final int k) {
+    static final double curvature(final StrokeSegments segments, final int n, final int k) {
         double theta = 0.0;
-        double di = direction(stroke, n - k);
+        double di = segments.direction(n - k);
         for (int i = n - k; i <= n + k - 1; i++) {
-            final double di1 = direction(stroke, i + 1);
+            final double di1 = segments.direction(i + 1);
             theta += shift(di1 - di);
             di = di1;
         }
         theta = Math.abs(theta);
-        final double distance = distance(stroke, n - k, n + k);
+        final double distance = segments.distance(n - k, n + k);
         return theta / distance;
     }
 
-    private static double direction(final Point start, final Point end) {
-        final double dy = end.y() - start.y();
-        final double dx = end.x() - start.x();
-        return Math.atan2(dy, dx);
-    }
-
-    /**
-     * Returns the direction of the n-th stroke point. The result is an angle in <strong>radians</strong> in the
-     * range of -<i>pi</i> to <i>pi</i>.
-     * 
-     * @param stroke the {@link Stroke stroke}
-     * @param n the index of the point in the stroke for which the direction shall be computed
-     * @return the direction of the n-th stroke point in <strong>radians</strong> in the range of -<i>pi</i> to
-     *         <i>pi</i>
-     */
-    private static double direction(final Stroke stroke, final int n) {
-        return direction(stroke.get(n), stroke.get(n + 1));
-    }
-
-    private static double distance(final Stroke stroke, final int from, final int to) {
-        double distance = 0.0;
-        for (int i = from; i < to; i++) {
-            final Point fromPt = stroke.get(i);
-            final Point toPt = stroke.get(i + 1);
-            distance += Geometry2D.distance(fromPt, toPt);
-        }
-        return distance;
+    // shifts the specified angle, in range -2*pi to 2*pi, in the range 0 to 2*pi
+    private static double positiveAngle(final double angle) {
+        return angle < 0 ? angle + TWO_PI : angle;
     }
 
     // shifts the specified angle in the range -pi to pi. Note that angle shall
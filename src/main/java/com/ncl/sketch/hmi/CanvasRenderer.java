@@ -0,0 +1,435 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.Polyline;
+
+import com.ncl.sketch.agent.api.Arc;
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.Line;
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+
+/**
+ * {@link SketchRenderer Renderer} painting the finished sketches and the recognized shapes onto a single screen
+ * {@link Canvas} laid under the live {@link Polyline} of the sketch in progress, so that the scene graph does not
+ * grow with the number of sketches:
+ * <li>The renderer retains the painted items - ink of the sketches and shapes - in a {@link SpatialIndex spatial
+ * index} of the document
+ * <li>The screen is composed of square tiles of the current {@link Viewport#zoomLevel() zoom level}. Each visible
+ * tile is rendered once, from the items intersecting it, and kept in a bounded cache of the most recently used
+ * tiles, so that panning back and forth and zooming in and out only render the newly visible tiles
+ * <li>Each change invalidates the cached tiles intersecting the bounding box of the changed item, which are
+ * rendered again on {@link #flush()} if visible
+ * <li>Lines are one pixel wide whatever the zoom level, and the ink of the sketches is simplified to the resolution
+ * of the zoom level, so that the cost of rendering a zoomed out tile does not grow with the number of points
+ * <li>Items smaller than a pixel of the zoom level are not drawn: the index does not even visit them, so that the
+ * cost of rendering a zoomed out tile does not grow with the number of small sketches
+ */
+final class CanvasRenderer implements SketchRenderer {
+
+    private static final int TILE_SIZE = 256;
+
+    private static final int MAX_TILES = 128;
+
+    private static final double CELL_SIZE = 256.0;
+
+    /*
+     * extent of the smallest drawn item, in pixels.
+     */
+    private static final double MIN_EXTENT = 1.0;
+
+    /*
+     * margin around the items covering the width of the lines and antialiasing, in pixels.
+     */
+    private static final double MARGIN = 2.0;
+
+    private final Pane content;
+
+    private final Viewport viewport;
+
+    private final Canvas canvas;
+
+    private final Canvas tileCanvas;
+
+    private final SnapshotParameters snapshotParameters;
+
+    private final SpatialIndex<Item> index;
+
+    private final Map<Polyline, Ink> inks;
+
+    private final Map<Long, Tile> tiles;
+
+    private final List<Item> visible;
+
+    private boolean invalid;
+
+    private long renderedTiles;
+
+    /**
+     * Constructor. The canvas is added to the specified screen container, under its other children, and follows
+     * its size.
+     *
+     * @param aContainer the screen container
+     * @param aContent the child of the container holding the live polylines
+     * @param aViewport the viewport mapping the document to the screen
+     */
+    CanvasRenderer(final Pane aContainer, final Pane aContent, final Viewport aViewport) {
+        content = aContent;
+        viewport = aViewport;
+        canvas = new Canvas();
+        canvas.setMouseTransparent(true);
+        canvas.widthProperty().bind(aContainer.widthProperty());
+        canvas.heightProperty().bind(aContainer.heightProperty());
+        final ChangeListener<Number> resize = new ChangeListener<Number>() {
+            @Override
+            public void changed(final ObservableValue<? extends Number> observable, final Number oldValue,
+                    final Number newValue) {
+                // a resized canvas is cleared
+                invalidate();
+                flush();
+            }
+        };
+        canvas.widthProperty().addListener(resize);
+        canvas.heightProperty().addListener(resize);
+        aContainer.getChildren().add(0, canvas);
+        viewport.onChange(new Runnable() {
+            @Override
+            public void run() {
+                invalidate();
+            }
+        });
+        tileCanvas = new Canvas(TILE_SIZE, TILE_SIZE);
+        snapshotParameters = new SnapshotParameters();
+        snapshotParameters.setFill(Color.TRANSPARENT);
+        index = new SpatialIndex<>(CELL_SIZE);
+        inks = new IdentityHashMap<>();
+        tiles = new LinkedHashMap<Long, Tile>(2 * MAX_TILES, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Long, Tile> eldest) {
+                return size() > MAX_TILES;
+            }
+        };
+        visible = new ArrayList<>();
+    }
+
+    @Override
+    public final void flush() {
+        if (!invalid) {
+            return;
+        }
+        invalid = false;
+        final double width = canvas.getWidth();
+        final double height = canvas.getHeight();
+        final double tx = viewport.translateX();
+        final double ty = viewport.translateY();
+        final int level = viewport.zoomLevel();
+        final GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        final long i0 = (long) Math.floor(-tx / TILE_SIZE);
+        final long i1 = (long) Math.floor((width - tx) / TILE_SIZE);
+        final long j0 = (long) Math.floor(-ty / TILE_SIZE);
+        final long j1 = (long) Math.floor((height - ty) / TILE_SIZE);
+        for (long i = i0; i <= i1; i++) {
+            for (long j = j0; j <= j1; j++) {
+                final Tile tile = tile(level, (int) i, (int) j);
+                if (tile.image != null) {
+                    gc.drawImage(tile.image, i * TILE_SIZE + tx, j * TILE_SIZE + ty);
+                }
+            }
+        }
+    }
+
+    @Override
+    public final void ink(final Polyline sketchDrawing, final PackedStroke sketchPoints) {
+        final Ink ink = new Ink(sketchPoints);
+        add(ink);
+        inks.put(sketchDrawing, ink);
+        // only the sketch in progress remains a node
+        content.getChildren().remove(sketchDrawing);
+    }
+
+    @Override
+    public final void recognized(final Polyline sketchDrawing, final RecognitionResult recognitionResult) {
+        final Ink ink = inks.remove(sketchDrawing);
+        if (recognitionResult == null) {
+            return;
+        }
+        if (ink != null) {
+            ink.color = Color.LIGHTGRAY;
+            invalidate(ink);
+        }
+        for (final Line line : recognitionResult.lines()) {
+            add(new LineItem(line));
+        }
+        for (final Circle circle : recognitionResult.circles()) {
+            add(new CircleItem(circle));
+        }
+        for (final Arc arc : recognitionResult.arcs()) {
+            add(new ArcItem(arc));
+        }
+    }
+
+    /**
+     * Returns the number of tiles rendered since the creation of the renderer.
+     *
+     * @return the number of rendered tiles
+     */
+    final long renderedTiles() {
+        return renderedTiles;
+    }
+
+    private void add(final Item item) {
+        index.add(item, item.minX, item.minY, item.maxX, item.maxY);
+        invalidate(item);
+    }
+
+    private void invalidate() {
+        invalid = true;
+    }
+
+    /*
+     * drops the cached tiles intersecting the item, of all zoom levels.
+     */
+    private void invalidate(final Item item) {
+        final Iterator<Tile> iterator = tiles.values().iterator();
+        while (iterator.hasNext()) {
+            final Tile tile = iterator.next();
+            final double scale = Viewport.scaleOf(tile.level);
+            final double margin = MARGIN / scale;
+            if (item.maxX >= tile.i * TILE_SIZE / scale - margin
+                && item.minX <= (tile.i + 1) * TILE_SIZE / scale + margin
+                && item.maxY >= tile.j * TILE_SIZE / scale - margin
+                && item.minY <= (tile.j + 1) * TILE_SIZE / scale + margin) {
+                iterator.remove();
+            }
+        }
+        invalid = true;
+    }
+
+    /*
+     * the cached tile, rendered if missing.
+     */
+    private Tile tile(final int level, final int i, final int j) {
+        final Long key = Long.valueOf((long) level << 48 ^ ((long) i & 0xFFFFFF) << 24 ^ (long) j & 0xFFFFFF);
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            tile = new Tile(level, i, j);
+            render(tile);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    private void render(final Tile tile) {
+        final double scale = Viewport.scaleOf(tile.level);
+        final double margin = MARGIN / scale;
+        index.query(tile.i * TILE_SIZE / scale - margin, tile.j * TILE_SIZE / scale - margin,
+                    (tile.i + 1) * TILE_SIZE / scale + margin, (tile.j + 1) * TILE_SIZE / scale + margin,
+                    MIN_EXTENT / scale, visible);
+        if (visible.isEmpty()) {
+            // nothing to draw
+            return;
+        }
+        final GraphicsContext gc = tileCanvas.getGraphicsContext2D();
+        gc.setTransform(1.0, 0.0, 0.0, 1.0, 0.0, 0.0);
+        gc.clearRect(0, 0, TILE_SIZE, TILE_SIZE);
+        gc.setTransform(scale, 0.0, 0.0, scale, -tile.i * TILE_SIZE, -tile.j * TILE_SIZE);
+        gc.setLineWidth(1.0 / scale);
+        for (final Item item : visible) {
+            item.paint(gc, scale);
+        }
+        visible.clear();
+        tile.image = tileCanvas.snapshot(snapshotParameters, null);
+        renderedTiles++;
+    }
+
+    /*
+     * a square of the screen at a zoom level: the tile (i, j) covers the document points p such that
+     * scale * p is in [i, i + 1[ x [j, j + 1[ times the size of the tiles.
+     */
+    private static final class Tile {
+
+        private final int level;
+
+        private final int i;
+
+        private final int j;
+
+        private WritableImage image;
+
+        Tile(final int aLevel, final int anI, final int aJ) {
+            level = aLevel;
+            i = anI;
+            j = aJ;
+        }
+
+    }
+
+    /*
+     * an item painted on the canvas, with its bounding box in the document.
+     */
+    private abstract static class Item {
+
+        private double minX;
+
+        private double minY;
+
+        private double maxX;
+
+        private double maxY;
+
+        abstract void paint(final GraphicsContext gc, final double scale);
+
+        final void bound(final double aMinX, final double aMinY, final double aMaxX, final double aMaxY) {
+            minX = aMinX;
+            minY = aMinY;
+            maxX = aMaxX;
+            maxY = aMaxY;
+        }
+
+    }
+
+    /*
+     * the ink of a sketch, simplified on demand for each zoomed out resolution.
+     */
+    private static final class Ink extends Item {
+
+        private final double[][] xs;
+
+        private final double[][] ys;
+
+        private Color color;
+
+        Ink(final PackedStroke somePoints) {
+            final int size = somePoints.size();
+            xs = new double[Integer.SIZE][];
+            ys = new double[Integer.SIZE][];
+            xs[0] = somePoints.xs();
+            ys[0] = somePoints.ys();
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                minX = Math.min(xs[0][i], minX);
+                minY = Math.min(ys[0][i], minY);
+                maxX = Math.max(xs[0][i], maxX);
+                maxY = Math.max(ys[0][i], maxY);
+            }
+            bound(minX, minY, maxX, maxY);
+            color = Color.BLACK;
+        }
+
+        @Override
+        final void paint(final GraphicsContext gc, final double scale) {
+            // level k drops the points closer than 2^k to the previous kept point along both axes: at most a pixel
+            final int level = Math.max(0, Math.min(Integer.SIZE - 1, -Math.getExponent(scale) - 1));
+            if (xs[level] == null) {
+                simplify(level);
+            }
+            gc.setStroke(color);
+            gc.strokePolyline(xs[level], ys[level], xs[level].length);
+        }
+
+        private void simplify(final int level) {
+            final double[] x = xs[0];
+            final double[] y = ys[0];
+            final double tolerance = Math.pow(2.0, level);
+            final double[] sx = new double[x.length];
+            final double[] sy = new double[y.length];
+            int size = 0;
+            for (int i = 0; i < x.length; i++) {
+                if (size == 0
+                    || i == x.length - 1
+                    || Math.abs(x[i] - sx[size - 1]) >= tolerance
+                    || Math.abs(y[i] - sy[size - 1]) >= tolerance) {
+                    sx[size] = x[i];
+                    sy[size] = y[i];
+                    size++;
+                }
+            }
+            xs[level] = Arrays.copyOf(sx, size);
+            ys[level] = Arrays.copyOf(sy, size);
+        }
+
+    }
+
+    private static final class LineItem extends Item {
+
+        private final Line line;
+
+        LineItem(final Line aLine) {
+            line = aLine;
+            bound(Math.min(aLine.start().x(), aLine.end().x()), Math.min(aLine.start().y(), aLine.end().y()),
+                  Math.max(aLine.start().x(), aLine.end().x()), Math.max(aLine.start().y(), aLine.end().y()));
+        }
+
+        @Override
+        final void paint(final GraphicsContext gc, final double scale) {
+            gc.setStroke(Color.DARKBLUE);
+            gc.strokeLine(line.start().x(), line.start().y(), line.end().x(), line.end().y());
+        }
+
+    }
+
+    private static final class CircleItem extends Item {
+
+        private final Circle circle;
+
+        CircleItem(final Circle aCircle) {
+            circle = aCircle;
+            bound(aCircle.center().x() - aCircle.radius(), aCircle.center().y() - aCircle.radius(),
+                  aCircle.center().x() + aCircle.radius(), aCircle.center().y() + aCircle.radius());
+        }
+
+        @Override
+        final void paint(final GraphicsContext gc, final double scale) {
+            gc.setStroke(Color.DARKBLUE);
+            gc.strokeOval(circle.center().x() - circle.radius(), circle.center().y() - circle.radius(),
+                          2 * circle.radius(), 2 * circle.radius());
+        }
+
+    }
+
+    private static final class ArcItem extends Item {
+
+        private final Arc arc;
+
+        ArcItem(final Arc anArc) {
+            arc = anArc;
+            // bounded by the whole circle
+            bound(anArc.center().x() - anArc.radius(), anArc.center().y() - anArc.radius(),
+                  anArc.center().x() + anArc.radius(), anArc.center().y() + anArc.radius());
+        }
+
+        @Override
+        final void paint(final GraphicsContext gc, final double scale) {
+            gc.setStroke(Color.DARKBLUE);
+            // screen y axis points down: angles are reversed
+            gc.strokeArc(arc.center().x() - arc.radius(), arc.center().y() - arc.radius(), 2 * arc.radius(),
+                         2 * arc.radius(), -Math.toDegrees(arc.startAngle()), -Math.toDegrees(arc.length()),
+                         ArcType.OPEN);
+        }
+
+    }
+
+}
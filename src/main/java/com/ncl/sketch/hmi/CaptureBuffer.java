@@ -0,0 +1,100 @@
+package com.ncl.sketch.hmi;
+
+import java.util.Arrays;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+
+/**
+ * The Capture Buffer accumulates the coordinates of the points of a sketch in growable primitive arrays, without
+ * boxing nor allocating an object per point.
+ * <p>
+ * Points are only appended: the {@link PackedStroke views} handed out share the arrays of the buffer, without
+ * copy, and the coordinates they expose are never modified afterwards. When the arrays grow, the views keep the
+ * previous arrays.
+ * <p>
+ * This object is not thread-safe: the views may be read by other threads once safely published.
+ */
+final class CaptureBuffer {
+
+    /**
+     * Number of points the arrays hold before they first grow.
+     */
+    static final int INITIAL_CAPACITY = 256;
+
+    private double[] xs;
+
+    private double[] ys;
+
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    CaptureBuffer() {
+        xs = new double[INITIAL_CAPACITY];
+        ys = new double[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends a point.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     */
+    final void add(final double x, final double y) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, 2 * size);
+            ys = Arrays.copyOf(ys, 2 * size);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    /**
+     * Returns a view of the points appended since the specified point, inclusive.
+     *
+     * @param fromIndex the index of the first point of the view
+     * @return a view of the points from the specified index
+     */
+    final PackedStroke points(final int fromIndex) {
+        return new PackedStroke(xs, ys, fromIndex, size - fromIndex);
+    }
+
+    /**
+     * Replaces the last point. The last point must not have been handed out in a view yet.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     */
+    final void replaceLast(final double x, final double y) {
+        xs[size - 1] = x;
+        ys[size - 1] = y;
+    }
+
+    /**
+     * Returns the number of points.
+     *
+     * @return the number of points
+     */
+    final int size() {
+        return size;
+    }
+
+    /**
+     * Returns the coordinates of the points from the specified point, inclusive, as a sequence of <i>x, y</i>
+     * pairs, as expected by {@link javafx.scene.shape.Polyline#getPoints()}.
+     *
+     * @param fromIndex the index of the first point to copy
+     * @return the coordinates of the points
+     */
+    final Double[] coordinates(final int fromIndex) {
+        final Double[] result = new Double[2 * (size - fromIndex)];
+        for (int i = fromIndex, j = 0; i < size; i++) {
+            result[j++] = xs[i];
+            result[j++] = ys[i];
+        }
+        return result;
+    }
+
+}
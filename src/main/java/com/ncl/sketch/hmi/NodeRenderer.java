@@ -0,0 +1,85 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.Polyline;
+
+import com.ncl.sketch.agent.api.Arc;
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.Line;
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+
+/**
+ * {@link SketchRenderer Renderer} keeping one node per sketch and per recognized shape in the container: finished
+ * sketches keep their live {@link Polyline} and shapes are added as JavaFX shape nodes, all at once on
+ * {@link #flush()}.
+ */
+final class NodeRenderer implements SketchRenderer {
+
+    private final Pane container;
+
+    private final List<Node> pendingShapes;
+
+    /**
+     * Constructor.
+     *
+     * @param aContainer the container of the sketches
+     */
+    NodeRenderer(final Pane aContainer) {
+        container = aContainer;
+        pendingShapes = new ArrayList<>();
+    }
+
+    @Override
+    public final void flush() {
+        // a single change of the scene graph for all the accumulated shapes
+        container.getChildren().addAll(pendingShapes);
+        pendingShapes.clear();
+    }
+
+    @Override
+    public final void ink(final Polyline sketchDrawing, final PackedStroke sketchPoints) {
+        // the live polyline remains
+    }
+
+    @Override
+    public final void recognized(final Polyline sketchDrawing, final RecognitionResult recognitionResult) {
+        if (recognitionResult == null) {
+            return;
+        }
+        sketchDrawing.setStroke(Color.LIGHTGRAY);
+
+        for (final Line line : recognitionResult.lines()) {
+            final javafx.scene.shape.Line lineFx =
+                    new javafx.scene.shape.Line(line.start().x(), line.start().y(), line.end().x(), line.end().y());
+            lineFx.setStroke(Color.DARKBLUE);
+            pendingShapes.add(lineFx);
+        }
+
+        for (final Circle circle : recognitionResult.circles()) {
+            final javafx.scene.shape.Circle circleFx =
+                    new javafx.scene.shape.Circle(circle.center().x(), circle.center().y(), circle.radius());
+            circleFx.setFill(Color.TRANSPARENT);
+            circleFx.setStroke(Color.DARKBLUE);
+            pendingShapes.add(circleFx);
+        }
+
+        for (final Arc arc : recognitionResult.arcs()) {
+            // screen y axis points down: angles are reversed
+            final javafx.scene.shape.Arc arcFx =
+                    new javafx.scene.shape.Arc(arc.center().x(), arc.center().y(), arc.radius(), arc.radius(),
+                                               -Math.toDegrees(arc.startAngle()), -Math.toDegrees(arc.length()));
+            arcFx.setType(ArcType.OPEN);
+            arcFx.setFill(Color.TRANSPARENT);
+            arcFx.setStroke(Color.DARKBLUE);
+            pendingShapes.add(arcFx);
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.ncl.sketch.hmi;
+
+/**
+ * The Point Filter decimates the points captured by the {@link SketchListener} before they reach the
+ * {@link CaptureBuffer}, so that the number of points handed to the agent follows the extent of the sketch rather
+ * than the sample rate of the pointing device:
+ * <li>A point at the same screen position as the previous kept point is always dropped: such zero length segments
+ * have no direction
+ * <li>A point closer than the {@link #minDistance() minimum distance} to the previous kept point, or received
+ * within the {@link #minInterval() minimum interval} after it, is dropped, except the last point of the sketch
+ * <li>The last point of the sketch is kept. If it is closer than the minimum distance to the previous kept point,
+ * it replaces that point rather than ending the sketch with a tiny segment - unless that point is the first point
+ * of the sketch, in which case the last point is dropped
+ * <li>The first point of a sketch is always kept
+ * <p>
+ * Distances are measured on screen, in pixels, whatever the zoom level. The filter counts the received and kept
+ * points to report its {@link #reductionRatio() reduction ratio}.
+ * <p>
+ * This object is not thread-safe.
+ */
+final class PointFilter {
+
+    /** The default minimum distance between kept points, in pixels. */
+    static final double DEFAULT_MIN_DISTANCE = 1.0;
+
+    /** The default minimum interval between kept points, in milliseconds: no time decimation. */
+    static final double DEFAULT_MIN_INTERVAL = 0.0;
+
+    private static final double NANOS_PER_MILLI = 1.0e6;
+
+    /**
+     * What to do with a received point.
+     */
+    enum Decision {
+
+        /** The point is dropped. */
+        DROP,
+
+        /** The point is appended to the sketch. */
+        KEEP,
+
+        /** The point replaces the previous kept point of the sketch. */
+        REPLACE;
+
+    }
+
+    private double minDistance;
+
+    private double minInterval;
+
+    private boolean started;
+
+    private boolean single;
+
+    private double lastX;
+
+    private double lastY;
+
+    private long lastTime;
+
+    private long received;
+
+    private long kept;
+
+    /**
+     * Constructor.
+     */
+    PointFilter() {
+        minDistance = DEFAULT_MIN_DISTANCE;
+        minInterval = DEFAULT_MIN_INTERVAL;
+    }
+
+    /**
+     * Decides what to do with the specified point. Unless it is dropped, the point becomes the previous kept point.
+     *
+     * @param x the x coordinate of the point on screen
+     * @param y the y coordinate of the point on screen
+     * @param time the time the point was received, in nanoseconds
+     * @param last whether the point is the last point of the sketch
+     * @return the {@link Decision decision} about the point
+     */
+    final Decision accept(final double x, final double y, final long time, final boolean last) {
+        received++;
+        Decision decision = Decision.KEEP;
+        if (started) {
+            if (x == lastX && y == lastY) {
+                return Decision.DROP;
+            }
+            if (Math.hypot(x - lastX, y - lastY) < minDistance) {
+                if (!last || single) {
+                    return Decision.DROP;
+                }
+                decision = Decision.REPLACE;
+            } else if (!last && (time - lastTime) / NANOS_PER_MILLI < minInterval) {
+                return Decision.DROP;
+            }
+        }
+        single = !started;
+        started = true;
+        lastX = x;
+        lastY = y;
+        lastTime = time;
+        if (decision == Decision.KEEP) {
+            kept++;
+        }
+        return decision;
+    }
+
+    /**
+     * Returns the number of kept points since the creation of the filter.
+     *
+     * @return the number of kept points
+     */
+    final long kept() {
+        return kept;
+    }
+
+    /**
+     * Returns the minimum distance between kept points.
+     *
+     * @return the minimum distance between kept points in pixels
+     */
+    final double minDistance() {
+        return minDistance;
+    }
+
+    /**
+     * Sets the minimum distance between kept points.
+     *
+     * @param minDistanceVal the minimum distance between kept points in pixels
+     * @return this {@link PointFilter} for chainable calls
+     */
+    final PointFilter minDistance(final double minDistanceVal) {
+        minDistance = minDistanceVal;
+        return this;
+    }
+
+    /**
+     * Returns the minimum interval between kept points.
+     *
+     * @return the minimum interval between kept points in milliseconds
+     */
+    final double minInterval() {
+        return minInterval;
+    }
+
+    /**
+     * Sets the minimum interval between kept points.
+     *
+     * @param minIntervalVal the minimum interval between kept points in milliseconds
+     * @return this {@link PointFilter} for chainable calls
+     */
+    final PointFilter minInterval(final double minIntervalVal) {
+        minInterval = minIntervalVal;
+        return this;
+    }
+
+    /**
+     * Returns the number of received points since the creation of the filter.
+     *
+     * @return the number of received points
+     */
+    final long received() {
+        return received;
+    }
+
+    /**
+     * Returns the fraction of the received points that have been dropped, <i>0</i> if no point has been received.
+     *
+     * @return the reduction ratio, between <i>0</i> and <i>1</i>
+     */
+    final double reductionRatio() {
+        return received == 0 ? 0.0 : 1.0 - (double) kept / received;
+    }
+
+    /**
+     * Starts a new sketch: its first point will be kept.
+     */
+    final void reset() {
+        started = false;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.ncl.sketch.hmi;
+
+import javafx.event.Event;
+import javafx.event.EventType;
+
+import com.ncl.sketch.agent.api.RecognitionResult;
+
+/**
+ * Recognition Event raised by the Recognition Scheduler when the recognition of a Sketch is delivered.
+ *
+ * @param <D> the type of the drawing of the Sketch
+ */
+final class RecognitionEvent<D> extends Event {
+
+    /** The serial version uid. */
+    private static final long serialVersionUID = -3417532810963508152L;
+
+    /** The Recognition Event type. */
+    private static final EventType<Event> EVENT_TYPE = new EventType<>("RecognitionEvent");
+
+    /** the Sketch drawing, typically its displayed polyline in the JavaFX container. */
+    private final D sketchDrawing;
+
+    /** The recognition result, null if the recognition was dropped. */
+    private final RecognitionResult recognitionResult;
+
+    /** The latency between the end of the Sketch and the delivery, in milliseconds. */
+    private final double latency;
+
+    /**
+     * Constructor.
+     *
+     * @param sketchDrawingVal the Sketch drawing
+     * @param recognitionResultVal the recognition result, null if the recognition was dropped
+     * @param latencyVal the latency between the end of the Sketch and the delivery, in milliseconds
+     */
+    RecognitionEvent(final D sketchDrawingVal, final RecognitionResult recognitionResultVal,
+            final double latencyVal) {
+        super(EVENT_TYPE);
+        sketchDrawing = sketchDrawingVal;
+        recognitionResult = recognitionResultVal;
+        latency = latencyVal;
+    }
+
+    /**
+     * Get the latency between the end of the Sketch and the delivery of its recognition.
+     *
+     * @return the latency in milliseconds
+     */
+    final double getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get the recognition result.
+     *
+     * @return the recognition result, null if the recognition was dropped to keep up with the user
+     */
+    final RecognitionResult getRecognitionResult() {
+        return recognitionResult;
+    }
+
+    /**
+     * Get the Sketch drawing.
+     *
+     * @return the Sketch drawing
+     */
+    final D getSketchDrawing() {
+        return sketchDrawing;
+    }
+
+}
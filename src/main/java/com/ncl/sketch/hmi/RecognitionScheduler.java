@@ -0,0 +1,399 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.event.EventHandler;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.RecognitionSession;
+import com.ncl.sketch.agent.api.SketchRecognitionAgent;
+
+/**
+ * The Recognition Scheduler runs the recognition of the sketches drawn by the user on a small pool of workers,
+ * without letting the recognition fall behind the user:
+ * <li>Each sketch is bound to a single worker, which confines its {@link RecognitionSession session} to one
+ * thread. Points are received as views of the captured coordinates, without copy, and handed to the session by
+ * the recognition tasks, so that the queue of a worker holds at most a few tasks per sketch
+ * <li>A speculation supersedes the pending speculation of the same sketch, which is cancelled, and is skipped if
+ * the queue of the worker already holds as many tasks as its capacity
+ * <li>The recognition of an ended sketch is never superseded: it is always queued, whatever the capacity. A
+ * sketch is delivered without result only if its recognition fails or the scheduler is shut down
+ * <li>Results are delivered on the JavaFX application thread through a {@link ResultPublisher publisher}, in the
+ * order of the sketches whatever the worker that recognized them, with the latency between the end of the sketch
+ * and the delivery
+ * <p>
+ * Except for {@link #shutdown()}, the methods of the scheduler shall be called on the JavaFX application thread.
+ * <p>
+ * The scheduler does not read the drawings of the sketches: each sketch is identified by an opaque drawing, handed
+ * back with its recognition.
+ *
+ * @param <D> the type of the drawings of the sketches
+ */
+final class RecognitionScheduler<D> {
+
+    private static final Logger LOGGER = Logger.getLogger("HMI");
+
+    private static final double NANOS_PER_MILLI = 1.0e6;
+
+    private final SketchRecognitionAgent agent;
+
+    private final Executor publisher;
+
+    private final ThreadPoolExecutor[] workers;
+
+    private final int capacity;
+
+    private final List<EventHandler<RecognitionEvent<D>>> listeners;
+
+    /*
+     * fields below are only accessed by the JavaFX application thread.
+     */
+    private final Map<Long, ScheduledSketch<D>> recognized;
+
+    private ScheduledSketch<D> current;
+
+    private long opened;
+
+    private long delivered;
+
+    private long dropped;
+
+    private double lastLatency;
+
+    private double maxLatency;
+
+    private double totalLatency;
+
+    /**
+     * Constructor.
+     *
+     * @param anAgent the agent recognizing the sketches
+     * @param aPublisher the publisher delivering the recognitions to the JavaFX application thread, typically a
+     *            {@link ResultPublisher}
+     * @param aWorkers the number of recognition workers
+     * @param aCapacity the number of tasks queued by a worker beyond which speculations are skipped
+     */
+    RecognitionScheduler(final SketchRecognitionAgent anAgent, final Executor aPublisher, final int aWorkers,
+            final int aCapacity) {
+        agent = anAgent;
+        publisher = aPublisher;
+        capacity = aCapacity;
+        workers = new ThreadPoolExecutor[aWorkers];
+        for (int i = 0; i < aWorkers; i++) {
+            workers[i] =
+                    new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+        }
+        listeners = new ArrayList<>();
+        recognized = new HashMap<>();
+    }
+
+    /**
+     * Registers a handler notified on the JavaFX application thread of the recognition of each sketch, in the
+     * order of the sketches.
+     *
+     * @param handler the handler to register
+     */
+    final void onRecognitionDone(final EventHandler<RecognitionEvent<D>> handler) {
+        listeners.add(handler);
+    }
+
+    /**
+     * Starts a new sketch. The previous sketch is ended if it has not been yet.
+     *
+     * @param sketchDrawing the drawing of the sketch, handed back with its recognition
+     * @param width the width of the stroke
+     * @return the new sketch
+     */
+    final ScheduledSketch<D> open(final D sketchDrawing, final double width) {
+        if (current != null) {
+            finish(current);
+        }
+        current = new ScheduledSketch<>(opened, workers[(int) (opened % workers.length)], sketchDrawing, width);
+        opened++;
+        return current;
+    }
+
+    /**
+     * Adds points at the end of the specified sketch. The points are not copied: their coordinates must not be
+     * modified afterwards.
+     *
+     * @param sketch the sketch
+     * @param points the points to add
+     */
+    final void add(final ScheduledSketch<D> sketch, final PackedStroke points) {
+        sketch.add(points);
+    }
+
+    /**
+     * Speculatively recognizes the points of the specified sketch received so far, superseding its pending
+     * speculation.
+     *
+     * @param sketch the sketch
+     */
+    final void speculate(final ScheduledSketch<D> sketch) {
+        if (sketch.finished) {
+            return;
+        }
+        cancelSpeculation(sketch);
+        final FutureTask<RecognitionResult> speculation =
+                new FutureTask<RecognitionResult>(new Callable<RecognitionResult>() {
+                    @SuppressWarnings("synthetic-access")
+                    @Override
+                    public RecognitionResult call() {
+                        return sketch.feed(agent).speculate();
+                    }
+                });
+        if (sketch.worker.getQueue().size() >= capacity) {
+            // the worker is late: the end of the sketches matters more than a speculation
+            return;
+        }
+        try {
+            sketch.worker.execute(speculation);
+            sketch.speculation = speculation;
+        } catch (final RejectedExecutionException e) {
+            // the scheduler is shut down
+        }
+    }
+
+    /**
+     * Ends the specified sketch: its recognition will be delivered to the registered handlers.
+     *
+     * @param sketch the sketch
+     */
+    final void finish(final ScheduledSketch<D> sketch) {
+        if (sketch.finished) {
+            return;
+        }
+        sketch.finished = true;
+        sketch.penUp = System.nanoTime();
+        if (sketch == current) {
+            current = null;
+        }
+        cancelSpeculation(sketch);
+        final Recognition recognition = new Recognition(sketch);
+        try {
+            sketch.worker.execute(recognition);
+        } catch (final RejectedExecutionException e) {
+            // the scheduler is shut down: the sketch is delivered without result
+            recognition.cancel(false);
+        }
+    }
+
+    /**
+     * Stops the workers, interrupting the running recognitions.
+     */
+    final void shutdown() {
+        for (final ThreadPoolExecutor worker : workers) {
+            worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the number of sketches delivered without result because their recognition was dropped.
+     *
+     * @return the number of dropped sketches
+     */
+    final long dropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the number of sketches delivered with their recognition result.
+     *
+     * @return the number of recognized sketches
+     */
+    final long delivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the latency of the last recognized sketch, between its end and its delivery.
+     *
+     * @return the latency of the last recognized sketch in milliseconds
+     */
+    final double lastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Returns the largest latency of the recognized sketches.
+     *
+     * @return the largest latency in milliseconds
+     */
+    final double maxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * Returns the mean latency of the recognized sketches, <i>0</i> if no sketch has been recognized.
+     *
+     * @return the mean latency in milliseconds
+     */
+    final double meanLatency() {
+        return delivered == 0 ? 0.0 : totalLatency / delivered;
+    }
+
+    private static void cancelSpeculation(final ScheduledSketch<?> sketch) {
+        if (sketch.speculation != null) {
+            // interrupting a speculation leaves the session unchanged
+            sketch.speculation.cancel(true);
+            sketch.worker.remove(sketch.speculation);
+            sketch.speculation = null;
+        }
+    }
+
+    /*
+     * keeps the recognized sketch until all the preceding sketches have been delivered.
+     */
+    private void deliver(final ScheduledSketch<D> sketch) {
+        recognized.put(sketch.sequence, sketch);
+        ScheduledSketch<D> next = recognized.remove(delivered + dropped);
+        while (next != null) {
+            final double latency = (System.nanoTime() - next.penUp) / NANOS_PER_MILLI;
+            if (next.result == null) {
+                dropped++;
+            } else {
+                delivered++;
+                lastLatency = latency;
+                maxLatency = Math.max(latency, maxLatency);
+                totalLatency += latency;
+            }
+            LOGGER.fine("Sketch " + next.sequence + " delivered in " + latency + " ms");
+            final RecognitionEvent<D> event = new RecognitionEvent<>(next.drawing, next.result, latency);
+            for (final EventHandler<RecognitionEvent<D>> listener : listeners) {
+                listener.handle(event);
+            }
+            next = recognized.remove(delivered + dropped);
+        }
+    }
+
+    /**
+     * A sketch scheduled for recognition.
+     *
+     * @param <D> the type of the drawing of the sketch
+     */
+    static final class ScheduledSketch<D> {
+
+        private final long sequence;
+
+        private final ThreadPoolExecutor worker;
+
+        private final D drawing;
+
+        private final double width;
+
+        /*
+         * points received and not yet fed to the session, guarded by this sketch.
+         */
+        private List<PackedStroke> pending;
+
+        /*
+         * only accessed by the worker.
+         */
+        private RecognitionSession session;
+
+        /*
+         * only accessed by the JavaFX application thread.
+         */
+        private FutureTask<RecognitionResult> speculation;
+
+        private boolean finished;
+
+        private long penUp;
+
+        private RecognitionResult result;
+
+        private ScheduledSketch(final long aSequence, final ThreadPoolExecutor aWorker, final D aDrawing,
+                final double aWidth) {
+            sequence = aSequence;
+            worker = aWorker;
+            drawing = aDrawing;
+            width = aWidth;
+            pending = new ArrayList<>();
+        }
+
+        private synchronized void add(final PackedStroke points) {
+            pending.add(points);
+        }
+
+        /*
+         * hands the buffered points to the session, opened on first call.
+         */
+        private RecognitionSession feed(final SketchRecognitionAgent agent) {
+            if (session == null) {
+                session = agent.openSession(width);
+            }
+            final List<PackedStroke> received;
+            synchronized (this) {
+                received = pending;
+                pending = new ArrayList<>();
+            }
+            for (final PackedStroke points : received) {
+                final int size = points.size();
+                for (int i = 0; i < size; i++) {
+                    session.add(points.x(i), points.y(i));
+                }
+            }
+            return session;
+        }
+
+    }
+
+    /*
+     * the recognition of an ended sketch, delivered once done or cancelled.
+     */
+    private final class Recognition extends FutureTask<RecognitionResult> {
+
+        private final ScheduledSketch<D> sketch;
+
+        Recognition(final ScheduledSketch<D> aSketch) {
+            super(new Callable<RecognitionResult>() {
+                @SuppressWarnings("synthetic-access")
+                @Override
+                public RecognitionResult call() {
+                    return aSketch.feed(agent).finish();
+                }
+            });
+            sketch = aSketch;
+        }
+
+        @Override
+        protected final void done() {
+            RecognitionResult result = null;
+            if (!isCancelled()) {
+                try {
+                    result = get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (final ExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Recognition of sketch " + sketch.sequence + " failed", e.getCause());
+                }
+            }
+            final RecognitionResult recognitionResult = result;
+            publisher.execute(new Runnable() {
+                @SuppressWarnings("synthetic-access")
+                @Override
+                public void run() {
+                    sketch.result = recognitionResult;
+                    deliver(sketch);
+                }
+            });
+        }
+
+    }
+
+}
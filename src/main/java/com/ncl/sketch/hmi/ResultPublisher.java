@@ -0,0 +1,153 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * The Result Publisher coalesces the updates posted by the recognition workers into a single update of the JavaFX
+ * scene per pulse, instead of one {@link javafx.application.Platform#runLater(Runnable)} per result:
+ * <li>Updates are {@link #publish(Runnable) published} from any thread into a concurrent queue
+ * <li>At each pulse, an {@link AnimationTimer} runs the updates queued when the pulse starts, then notifies the
+ * {@link #onBatch(Runnable) batch handlers} once, so that they can apply the changes accumulated by the updates to
+ * the scene graph at once
+ * <p>
+ * The publisher exposes the number of queued updates and the duration of the last frames so that the HMI can check
+ * it keeps up with the display rate.
+ */
+final class ResultPublisher implements Executor {
+
+    private static final double NANOS_PER_MILLI = 1.0e6;
+
+    private final Queue<Runnable> queue;
+
+    private final AtomicInteger depth;
+
+    private final List<Runnable> batchHandlers;
+
+    private final AnimationTimer timer;
+
+    /*
+     * fields below are only accessed by the JavaFX application thread.
+     */
+    private long lastPulse;
+
+    private long frameTime;
+
+    private long batchTime;
+
+    /**
+     * Constructor.
+     */
+    ResultPublisher() {
+        queue = new ConcurrentLinkedQueue<>();
+        depth = new AtomicInteger();
+        batchHandlers = new ArrayList<>();
+        timer = new AnimationTimer() {
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final long now) {
+                pulse(now);
+            }
+        };
+    }
+
+    /**
+     * Returns the duration of the processing of the last non empty batch of updates.
+     *
+     * @return the duration of the last batch in milliseconds
+     */
+    final double batchTime() {
+        return batchTime / NANOS_PER_MILLI;
+    }
+
+    /**
+     * {@link #publish(Runnable) Publishes} the specified update.
+     *
+     * @param update the update to run
+     */
+    @Override
+    public final void execute(final Runnable update) {
+        publish(update);
+    }
+
+    /**
+     * Returns the duration of the last frame: the time elapsed between the last two pulses.
+     *
+     * @return the duration of the last frame in milliseconds
+     */
+    final double frameTime() {
+        return frameTime / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Registers a handler run on the JavaFX application thread after each non empty batch of updates.
+     *
+     * @param handler the handler to register
+     */
+    final void onBatch(final Runnable handler) {
+        batchHandlers.add(handler);
+    }
+
+    /**
+     * Posts the specified update, run on the JavaFX application thread at the next pulse. May be called from any
+     * thread.
+     *
+     * @param update the update to run
+     */
+    final void publish(final Runnable update) {
+        // queued before being counted, so that a counted update can always be polled
+        queue.add(update);
+        depth.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of updates waiting for the next pulse.
+     *
+     * @return the number of queued updates
+     */
+    final int queueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Starts running the published updates at each pulse. Shall be called on the JavaFX application thread.
+     */
+    final void start() {
+        timer.start();
+    }
+
+    /**
+     * Stops running the published updates. Shall be called on the JavaFX application thread.
+     */
+    final void stop() {
+        timer.stop();
+    }
+
+    private void pulse(final long now) {
+        if (lastPulse != 0L) {
+            frameTime = now - lastPulse;
+        }
+        lastPulse = now;
+        // updates published while the batch runs wait for the next pulse
+        final int count = depth.get();
+        if (count == 0) {
+            return;
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            depth.decrementAndGet();
+            queue.poll().run();
+        }
+        for (final Runnable handler : batchHandlers) {
+            handler.run();
+        }
+        batchTime = System.nanoTime() - start;
+    }
+
+}
@@ -1,14 +1,13 @@
 package com.ncl.sketch.hmi;
 
-import java.util.List;
-
 import javafx.event.Event;
 import javafx.event.EventType;
-import javafx.geometry.Point2D;
 import javafx.scene.shape.Polyline;
 
+import com.ncl.sketch.agent.api.PackedStroke;
+
 /**
- * Sketch Event raised by the Sketch Listener when a Sketch is finished.
+ * Sketch Event raised by the Sketch Listener when a point is added to a Sketch and when a Sketch is finished.
  */
 final class SketchEvent extends Event {
 
@@ -18,8 +17,8 @@ final class SketchEvent extends Event {
     /** The Sketch Event type. */
     private static final EventType<Event> EVENT_TYPE = new EventType<>("SketchEvent");
 
-    /** The Sketch points list. */
-    private final List<Point2D> sketchPoints;
+    /** The Sketch points, viewed without copy. */
+    private final PackedStroke sketchPoints;
 
     /** the Sketch displayed polyline in the JavaFX container. */
     private final Polyline sketchDrawing;
@@ -27,21 +26,21 @@ final class SketchEvent extends Event {
     /**
      * Constructor.
      * 
-     * @param sketchPointsVal The Sketch points list
+     * @param sketchPointsVal The Sketch points
      * @param sketchDrawingVal the Sketch displayed polyline
      */
-    SketchEvent(final List<Point2D> sketchPointsVal, final Polyline sketchDrawingVal) {
+    SketchEvent(final PackedStroke sketchPointsVal, final Polyline sketchDrawingVal) {
         super(EVENT_TYPE);
         sketchPoints = sketchPointsVal;
         sketchDrawing = sketchDrawingVal;
     }
 
     /**
-     * Get the Sketch points list.
+     * Get the Sketch points. The coordinates are shared with the Sketch Listener and must not be modified.
      * 
-     * @return the Sketch points list
+     * @return the Sketch points
      */
-    final List<Point2D> getSketchPoints() {
+    final PackedStroke getSketchPoints() {
         return sketchPoints;
     }
 
@@ -3,9 +3,11 @@ package com.ncl.sketch.hmi;
 import java.util.ArrayList;
 import java.util.List;
 
+import javafx.animation.AnimationTimer;
 import javafx.event.EventHandler;
 import javafx.geometry.Point2D;
 import javafx.scene.Scene;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
@@ -13,55 +15,84 @@ import javafx.scene.shape.Polyline;
 
 /**
  * The Sketch Listener is responsible to listen user mouse input on the JavaFX graphical window in order to : <li>
- * Draw the user sketch <li>Build the list of points of the Sketch <li>Notify the {@link SketchEvent} when a sketch
- * is done
+ * Draw the user sketch, in the coordinates of the container, with the primary button <li>Build the list of points
+ * of the Sketch <li>Notify a {@link SketchEvent} holding the points added to the sketch since the previous
+ * notification <li>Notify the {@link SketchEvent} when a sketch is done
+ * <p>
+ * Points are decimated by a {@link PointFilter} then captured in a {@link CaptureBuffer}: mouse events only append
+ * coordinates to primitive arrays, or replace the last point while it has not been handed out. The drawing of the
+ * sketch and the point listeners are updated once per pulse with all the points captured during the pulse, and the
+ * events hand out views of the buffer, without copy.
  */
 final class SketchListener implements EventHandler<MouseEvent> {
 
-    private final List<Point2D> sketch;
+    private CaptureBuffer sketch;
+
+    private int flushed;
 
     private Polyline sketchDrawing;
 
+    private boolean drawing;
+
     private final List<EventHandler<SketchEvent>> listeners;
 
+    private final List<EventHandler<SketchEvent>> pointListeners;
+
     private final Pane container;
 
-    SketchListener(final Scene scene, final Pane aContainer) {
-        sketch = new ArrayList<>();
+    private final AnimationTimer timer;
+
+    private final PointFilter filter;
+
+    SketchListener(final Scene scene, final Pane aContainer, final PointFilter aFilter) {
         listeners = new ArrayList<>();
+        pointListeners = new ArrayList<>();
+        timer = new AnimationTimer() {
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final long now) {
+                flush();
+            }
+        };
 
         scene.setOnMousePressed(this);
         scene.setOnMouseDragged(this);
         scene.setOnMouseReleased(this);
         container = aContainer;
+        filter = aFilter;
     }
 
     @Override
     public final void handle(final MouseEvent event) {
         if (event.getEventType() == MouseEvent.MOUSE_PRESSED) {
+            if (event.getButton() != MouseButton.PRIMARY) {
+                // other buttons control the viewport
+                return;
+            }
+            drawing = true;
             // initialize the sketch
+            sketch = new CaptureBuffer();
+            flushed = 0;
+            filter.reset();
             sketchDrawing = new Polyline();
             sketchDrawing.setStroke(Color.BLACK);
             container.getChildren().add(sketchDrawing);
 
-            final Point2D point = container.parentToLocal(event.getX(), event.getY());
-            sketch.add(point);
-            sketchDrawing.getPoints().addAll(point.getX(), point.getY());
+            addPoint(event, false);
+            timer.start();
+        } else if (!drawing) {
+            return;
         } else if (event.getEventType() == MouseEvent.MOUSE_DRAGGED) {
             // update the sketch
-            final Point2D point = container.parentToLocal(event.getX(), event.getY());
-            sketch.add(point);
-            sketchDrawing.getPoints().addAll(point.getX(), point.getY());
-        } else if (event.getEventType() == MouseEvent.MOUSE_RELEASED) {
+            addPoint(event, false);
+        } else if (event.getEventType() == MouseEvent.MOUSE_RELEASED && event.getButton() == MouseButton.PRIMARY) {
+            drawing = false;
             // finalize the sketch and throw a sketch event
-            final Point2D point = container.parentToLocal(event.getX(), event.getY());
-            sketch.add(point);
-            sketchDrawing.getPoints().addAll(point.getX(), point.getY());
-
-            final List<Point2D> notificationList = new ArrayList<>(sketch);
-            sketch.clear();
+            addPoint(event, true);
+            timer.stop();
+            flush();
 
-            final SketchEvent sketchEvent = new SketchEvent(notificationList, sketchDrawing);
+            final SketchEvent sketchEvent = new SketchEvent(sketch.points(0), sketchDrawing);
             for (final EventHandler<SketchEvent> listener : listeners) {
                 listener.handle(sketchEvent);
             }
@@ -72,4 +103,48 @@ final class SketchListener implements EventHandler<MouseEvent> {
         listeners.add(handler);
     }
 
+    /**
+     * Registers a handler notified, once per pulse while the sketch is drawn, of the points added to the sketch
+     * since the previous notification, with a {@link SketchEvent} holding these points and the drawing of the
+     * sketch. The drawing identifies the sketch: a new drawing is created for each sketch.
+     * 
+     * @param handler the handler to register
+     */
+    final void onSketchPoint(final EventHandler<SketchEvent> handler) {
+        pointListeners.add(handler);
+    }
+
+    private void addPoint(final MouseEvent event, final boolean last) {
+        final PointFilter.Decision decision =
+                filter.accept(event.getSceneX(), event.getSceneY(), System.nanoTime(), last);
+        if (decision == PointFilter.Decision.DROP) {
+            return;
+        }
+        final Point2D point = container.sceneToLocal(event.getSceneX(), event.getSceneY());
+        if (decision == PointFilter.Decision.KEEP) {
+            sketch.add(point.getX(), point.getY());
+        } else if (sketch.size() > flushed) {
+            sketch.replaceLast(point.getX(), point.getY());
+        }
+        // else the replaced point has already been handed out: it ends the sketch
+    }
+
+    /*
+     * updates the drawing and notifies the point listeners of the points captured since the last flush.
+     */
+    private void flush() {
+        if (flushed == sketch.size()) {
+            return;
+        }
+        // a single change of the list of points of the drawing
+        sketchDrawing.getPoints().addAll(sketch.coordinates(flushed));
+        if (!pointListeners.isEmpty()) {
+            final SketchEvent pointEvent = new SketchEvent(sketch.points(flushed), sketchDrawing);
+            for (final EventHandler<SketchEvent> listener : pointListeners) {
+                listener.handle(pointEvent);
+            }
+        }
+        flushed = sketch.size();
+    }
+
 }
@@ -1,97 +1,154 @@
 package com.ncl.sketch.hmi;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
 import javafx.application.Application;
-import javafx.application.Platform;
 import javafx.event.EventHandler;
 import javafx.geometry.Insets;
-import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
-import javafx.scene.paint.Color;
+import javafx.scene.shape.Polyline;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 
-import com.ncl.sketch.agent.api.Circle;
-import com.ncl.sketch.agent.api.Line;
-import com.ncl.sketch.agent.api.Point;
-import com.ncl.sketch.agent.api.RecognitionResult;
-import com.ncl.sketch.agent.api.Stroke;
 import com.ncl.sketch.agent.di.impl.DomainIndependentAgentImpl;
+import com.ncl.sketch.hmi.RecognitionScheduler.ScheduledSketch;
 
 public class SketchRecognitionHMI extends Application {
 
+    private static final int SPECULATION_POINTS = 32;
+
+    private static final long SPECULATION_PERIOD_MS = 50;
+
+    private static final int RECOGNITION_WORKERS = 2;
+
+    private static final int RECOGNITION_QUEUE_CAPACITY = 8;
+
     private DomainIndependentAgentImpl domainIndependentAgent;
 
-    private ScheduledExecutorService executor;
+    private PointFilter filter;
+
+    private ResultPublisher publisher;
+
+    private RecognitionScheduler<Polyline> scheduler;
+
+    /*
+     * fields below are only accessed by the JavaFX application thread.
+     */
+    private Polyline drawing;
+
+    private ScheduledSketch<Polyline> sketch;
+
+    private int pendingPoints;
+
+    private long lastSpeculation;
 
     @Override
     public void start(final Stage stage) throws Exception {
         domainIndependentAgent = new DomainIndependentAgentImpl();
-        executor = Executors.newSingleThreadScheduledExecutor();
+        publisher = new ResultPublisher();
+        scheduler =
+                new RecognitionScheduler<>(domainIndependentAgent, publisher, RECOGNITION_WORKERS,
+                                           RECOGNITION_QUEUE_CAPACITY);
 
         final BorderPane borderPane = new BorderPane();
         final Pane container = new Pane();
         container.setPrefSize(500, 500);
         borderPane.setCenter(container);
+        // the sketches are drawn in the document, mapped to the container by the viewport
+        final Pane content = new Pane();
+        container.getChildren().add(content);
+        final Viewport viewport = new Viewport();
+        viewport.install(container, content);
 
         // if(System.getProperty("cheatMode",
         // "false").equalsIgnoreCase("true")){
+        filter = new PointFilter();
         final Node parametersPanel = createParametersPanel();
         borderPane.setRight(parametersPanel);
         // }
 
+        final Label statusLabel = new Label();
+        statusLabel.setPadding(new Insets(5, 20, 5, 20));
+        borderPane.setBottom(statusLabel);
+        final SketchRenderer renderer =
+                "canvas".equalsIgnoreCase(System.getProperty("renderer", "nodes"))
+                        ? new CanvasRenderer(container, content, viewport) : new NodeRenderer(content);
+
         final Scene scene = new Scene(borderPane);
 
-        final SketchListener sketchListener = new SketchListener(scene, container);
+        scheduler.onRecognitionDone(new EventHandler<RecognitionEvent<Polyline>>() {
+
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final RecognitionEvent<Polyline> recognitionEvent) {
+                renderer.recognized(recognitionEvent.getSketchDrawing(), recognitionEvent.getRecognitionResult());
+                recognitionEvent.consume();
+            }
+        });
+        publisher.onBatch(new Runnable() {
+
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void run() {
+                // a single update of the display for all the results of the pulse
+                renderer.flush();
+                statusLabel.setText(String.format("Latency: last %.1f ms, mean %.1f ms, max %.1f ms - dropped: %d"
+                                                  + " - frame: %.1f ms, batch: %.1f ms, queue: %d"
+                                                  + " - points: %d/%d kept (-%.0f%%)",
+                                                  scheduler.lastLatency(), scheduler.meanLatency(),
+                                                  scheduler.maxLatency(), scheduler.dropped(), publisher.frameTime(),
+                                                  publisher.batchTime(), publisher.queueDepth(), filter.kept(),
+                                                  filter.received(), filter.reductionRatio() * 100.0));
+            }
+        });
+        publisher.start();
+
+        viewport.onChange(new Runnable() {
+            @Override
+            public void run() {
+                renderer.flush();
+            }
+        });
+
+        final SketchListener sketchListener = new SketchListener(scene, content, filter);
+        sketchListener.onSketchPoint(new EventHandler<SketchEvent>() {
+
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final SketchEvent sketchEvent) {
+                final long now = System.currentTimeMillis();
+                if (sketch == null || sketchEvent.getSketchDrawing() != drawing) {
+                    // first point of a new sketch
+                    drawing = sketchEvent.getSketchDrawing();
+                    sketch = scheduler.open(drawing, 1.0);
+                    pendingPoints = 0;
+                    lastSpeculation = now;
+                }
+                scheduler.add(sketch, sketchEvent.getSketchPoints());
+                pendingPoints += sketchEvent.getSketchPoints().size();
+                if (pendingPoints >= SPECULATION_POINTS || now - lastSpeculation >= SPECULATION_PERIOD_MS) {
+                    scheduler.speculate(sketch);
+                    pendingPoints = 0;
+                    lastSpeculation = now;
+                }
+                sketchEvent.consume();
+            }
+        });
         sketchListener.onSketchDone(new EventHandler<SketchEvent>() {
 
             @SuppressWarnings("synthetic-access")
             @Override
             public void handle(final SketchEvent sketchEvent) {
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-
-                        final RecognitionResult recognitionResult =
-                                domainIndependentAgent.recognize(stroke(sketchEvent.getSketchPoints()));
-
-                        final Collection<Line> lines = recognitionResult.lines();
-                        final Collection<Circle> circles = recognitionResult.circles();
-                        Platform.runLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                sketchEvent.getSketchDrawing().setStroke(Color.LIGHTGRAY);
-
-                                for (final Line line : lines) {
-                                    final javafx.scene.shape.Line lineFx =
-                                            new javafx.scene.shape.Line(line.start().x(), line.start().y(),
-                                                                        line.end().x(), line.end().y());
-                                    lineFx.setStroke(Color.DARKBLUE);
-                                    container.getChildren().add(lineFx);
-                                }
-
-                                for (final Circle circle : circles) {
-                                    final javafx.scene.shape.Circle circleFx =
-                                            new javafx.scene.shape.Circle(circle.center().x(),
-                                                                          circle.center().y(), circle.radius());
-                                    circleFx.setFill(Color.TRANSPARENT);
-                                    circleFx.setStroke(Color.DARKBLUE);
-                                    container.getChildren().add(circleFx);
-                                }
-
-                            }
-                        });
-                    }
-
-                });
+                if (sketch != null) {
+                    // reuses the segments committed by the speculations
+                    scheduler.finish(sketch);
+                    sketch = null;
+                }
+                renderer.ink(sketchEvent.getSketchDrawing(), sketchEvent.getSketchPoints());
+                renderer.flush();
                 sketchEvent.consume();
             }
         });
@@ -99,6 +156,8 @@ public class SketchRecognitionHMI extends Application {
         stage.setOnCloseRequest(new EventHandler<WindowEvent>() {
             @Override
             public void handle(final WindowEvent event) {
+                publisher.stop();
+                scheduler.shutdown();
                 System.exit(0);
             }
         });
@@ -118,6 +177,27 @@ public class SketchRecognitionHMI extends Application {
         box.setSpacing(10);
         box.setPadding(new Insets(0, 20, 10, 20));
 
+        // capture parameters
+        final ParameterSlider minDistanceParamSlider =
+                new ParameterSlider("Capture min distance (px)", 0, 10, (int) filter.minDistance());
+        minDistanceParamSlider.onParameterUpdate(new EventHandler<ParameterSliderEvent>() {
+            @Override
+            public void handle(final ParameterSliderEvent event) {
+                filter.minDistance(event.newValue());
+            }
+        });
+        box.getChildren().add(minDistanceParamSlider);
+
+        final ParameterSlider minIntervalParamSlider =
+                new ParameterSlider("Capture min interval (ms)", 0, 50, (int) filter.minInterval());
+        minIntervalParamSlider.onParameterUpdate(new EventHandler<ParameterSliderEvent>() {
+            @Override
+            public void handle(final ParameterSliderEvent event) {
+                filter.minInterval(event.newValue());
+            }
+        });
+        box.getChildren().add(minIntervalParamSlider);
+
         // k parameter
         final ParameterSlider kParamSlider = new ParameterSlider("Stroke k", 1, 10, domainIndependentAgent.k());
         kParamSlider.onParameterUpdate(new EventHandler<ParameterSliderEvent>() {
@@ -188,33 +268,6 @@ public class SketchRecognitionHMI extends Application {
         return box;
     }
 
-    private Stroke stroke(final List<Point2D> sketchPoints) {
-        final Point[] result = new Point[sketchPoints.size()];
-        int i = 0;
-        for (final Point2D pt : sketchPoints) {
-            result[i] = new Point() {
-
-                @Override
-                public final String toString() {
-                    return "[" + x() + ", " + y() + "]";
-                }
-
-                @Override
-                public final double x() {
-                    return pt.getX();
-                }
-
-                @Override
-                public final double y() {
-                    return pt.getY();
-                }
-            };
-            i++;
-        }
-
-        return new Stroke(1.0, result);
-    }
-
     public static void main(final String[] args) {
         Application.launch(args);
     }
@@ -0,0 +1,38 @@
+package com.ncl.sketch.hmi;
+
+import javafx.scene.shape.Polyline;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+
+/**
+ * The Sketch Renderer displays the finished sketches and their recognized shapes in the JavaFX container, while
+ * the sketch in progress is displayed by the {@link SketchListener} as a live {@link Polyline}.
+ * <p>
+ * Changes may be accumulated until the next {@link #flush()}. The methods shall be called on the JavaFX
+ * application thread.
+ */
+interface SketchRenderer {
+
+    /**
+     * Updates the display with the accumulated changes.
+     */
+    void flush();
+
+    /**
+     * Takes over the display of a finished sketch.
+     *
+     * @param sketchDrawing the Sketch displayed polyline
+     * @param sketchPoints the Sketch points list
+     */
+    void ink(final Polyline sketchDrawing, final PackedStroke sketchPoints);
+
+    /**
+     * Displays the recognition of a finished sketch. The sketch is no longer referenced afterwards.
+     *
+     * @param sketchDrawing the Sketch displayed polyline
+     * @param recognitionResult the recognition result, null if the recognition was dropped
+     */
+    void recognized(final Polyline sketchDrawing, final RecognitionResult recognitionResult);
+
+}
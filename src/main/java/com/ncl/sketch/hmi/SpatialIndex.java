@@ -0,0 +1,250 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid index of bounded items, answering the items intersecting a rectangle in the order the items were
+ * added.
+ * <p>
+ * Each item is registered in every cell its bounding box overlaps, except items overlapping more than
+ * {@link #MAX_ITEM_CELLS} cells, which are kept aside and tested by every query. Queries covering more cells than
+ * the index holds visit the occupied cells instead of the covered ones, so that the cost of a query is bounded by
+ * the size of the index whatever the size of the rectangle.
+ * <p>
+ * Items are grouped in size classes - items the extent of which, the largest side of their bounding box, has the
+ * same power of two - each with its own grid. A query may ignore the items smaller than a minimum extent: the size
+ * classes made only of such items are not visited at all, so that a query at a coarse resolution does not pay for
+ * the many small items it would not show.
+ * <p>
+ * This object is not thread-safe.
+ *
+ * @param <T> the type of the items
+ */
+final class SpatialIndex<T> {
+
+    private static final int MAX_ITEM_CELLS = 64;
+
+    /*
+     * size classes cover the extents from 2^MIN_EXPONENT to 2^MAX_EXPONENT: smaller and larger items are kept in
+     * the first and last classes.
+     */
+    private static final int MIN_EXPONENT = -32;
+
+    private static final int MAX_EXPONENT = 32;
+
+    private static final Comparator<Entry<?>> SEQUENCE = new Comparator<Entry<?>>() {
+        @Override
+        public int compare(final Entry<?> e1, final Entry<?> e2) {
+            return Long.compare(e1.sequence, e2.sequence);
+        }
+    };
+
+    private final double cellSize;
+
+    private final List<Map<Long, List<Entry<T>>>> classes;
+
+    private final List<Entry<T>> oversized;
+
+    private final List<Entry<T>> found;
+
+    private long size;
+
+    private int query;
+
+    /**
+     * Constructor.
+     *
+     * @param aCellSize the size of the cells of the grid
+     */
+    SpatialIndex(final double aCellSize) {
+        cellSize = aCellSize;
+        classes = new ArrayList<>(MAX_EXPONENT - MIN_EXPONENT + 1);
+        for (int e = MIN_EXPONENT; e <= MAX_EXPONENT; e++) {
+            classes.add(null);
+        }
+        oversized = new ArrayList<>();
+        found = new ArrayList<>();
+    }
+
+    /**
+     * Adds an item with the specified bounding box.
+     *
+     * @param item the item to add
+     * @param minX the smallest x coordinate of the item
+     * @param minY the smallest y coordinate of the item
+     * @param maxX the largest x coordinate of the item
+     * @param maxY the largest y coordinate of the item
+     */
+    final void add(final T item, final double minX, final double minY, final double maxX, final double maxY) {
+        final Entry<T> entry = new Entry<>(item, size++, minX, minY, maxX, maxY);
+        final long cx0 = cell(minX);
+        final long cy0 = cell(minY);
+        final long cx1 = cell(maxX);
+        final long cy1 = cell(maxY);
+        if ((cx1 - cx0 + 1) * (cy1 - cy0 + 1) > MAX_ITEM_CELLS) {
+            oversized.add(entry);
+            return;
+        }
+        final int sizeClass = sizeClass(entry.extent);
+        Map<Long, List<Entry<T>>> cells = classes.get(sizeClass);
+        if (cells == null) {
+            cells = new HashMap<>();
+            classes.set(sizeClass, cells);
+        }
+        for (long cx = cx0; cx <= cx1; cx++) {
+            for (long cy = cy0; cy <= cy1; cy++) {
+                final Long key = key(cx, cy);
+                List<Entry<T>> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Appends the items intersecting the specified rectangle to the specified list, in the order they were added.
+     *
+     * @param minX the smallest x coordinate of the rectangle
+     * @param minY the smallest y coordinate of the rectangle
+     * @param maxX the largest x coordinate of the rectangle
+     * @param maxY the largest y coordinate of the rectangle
+     * @param result the list the items are appended to
+     * @return the specified list
+     */
+    final List<T> query(final double minX, final double minY, final double maxX, final double maxY,
+            final List<T> result) {
+        return query(minX, minY, maxX, maxY, 0.0, result);
+    }
+
+    /**
+     * Appends the items intersecting the specified rectangle, the extent of which is at least the specified
+     * minimum, to the specified list, in the order they were added.
+     *
+     * @param minX the smallest x coordinate of the rectangle
+     * @param minY the smallest y coordinate of the rectangle
+     * @param maxX the largest x coordinate of the rectangle
+     * @param maxY the largest y coordinate of the rectangle
+     * @param minExtent the minimum extent of the items
+     * @param result the list the items are appended to
+     * @return the specified list
+     */
+    final List<T> query(final double minX, final double minY, final double maxX, final double maxY,
+            final double minExtent, final List<T> result) {
+        query++;
+        final long cx0 = cell(minX);
+        final long cy0 = cell(minY);
+        final long cx1 = cell(maxX);
+        final long cy1 = cell(maxY);
+        // the classes below hold items smaller than the minimum extent only
+        for (int c = minExtent > 0.0 ? sizeClass(minExtent) : 0; c < classes.size(); c++) {
+            final Map<Long, List<Entry<T>>> cells = classes.get(c);
+            if (cells == null) {
+                continue;
+            }
+            if ((cx1 - cx0 + 1) * (cy1 - cy0 + 1) <= cells.size()) {
+                for (long cx = cx0; cx <= cx1; cx++) {
+                    for (long cy = cy0; cy <= cy1; cy++) {
+                        collect(cells.get(key(cx, cy)), minX, minY, maxX, maxY, minExtent);
+                    }
+                }
+            } else {
+                for (final List<Entry<T>> cell : cells.values()) {
+                    collect(cell, minX, minY, maxX, maxY, minExtent);
+                }
+            }
+        }
+        collect(oversized, minX, minY, maxX, maxY, minExtent);
+        Collections.sort(found, SEQUENCE);
+        for (final Entry<T> entry : found) {
+            result.add(entry.item);
+        }
+        found.clear();
+        return result;
+    }
+
+    /**
+     * Returns the number of items of the index.
+     *
+     * @return the number of items
+     */
+    final long size() {
+        return size;
+    }
+
+    private long cell(final double coordinate) {
+        return (long) Math.floor(coordinate / cellSize);
+    }
+
+    /*
+     * appends the entries of the cell intersecting the rectangle, at least as large as the minimum extent, not yet
+     * found by the current query.
+     */
+    private void collect(final List<Entry<T>> cell, final double minX, final double minY, final double maxX,
+            final double maxY, final double minExtent) {
+        if (cell == null) {
+            return;
+        }
+        for (final Entry<T> entry : cell) {
+            if (entry.query != query
+                && entry.extent >= minExtent
+                && entry.maxX >= minX
+                && entry.minX <= maxX
+                && entry.maxY >= minY
+                && entry.minY <= maxY) {
+                entry.query = query;
+                found.add(entry);
+            }
+        }
+    }
+
+    private static Long key(final long cx, final long cy) {
+        return Long.valueOf(cx << 32 ^ cy & 0xFFFFFFFFL);
+    }
+
+    /*
+     * the index of the size class of the extent: the power of two of the extent, clamped.
+     */
+    private static int sizeClass(final double extent) {
+        return Math.max(MIN_EXPONENT, Math.min(MAX_EXPONENT, Math.getExponent(extent))) - MIN_EXPONENT;
+    }
+
+    private static final class Entry<T> {
+
+        private final T item;
+
+        private final long sequence;
+
+        private final double minX;
+
+        private final double minY;
+
+        private final double maxX;
+
+        private final double maxY;
+
+        private final double extent;
+
+        private int query;
+
+        Entry(final T anItem, final long aSequence, final double aMinX, final double aMinY, final double aMaxX,
+                final double aMaxY) {
+            item = anItem;
+            sequence = aSequence;
+            minX = aMinX;
+            minY = aMinY;
+            maxX = aMaxX;
+            maxY = aMaxY;
+            extent = Math.max(aMaxX - aMinX, aMaxY - aMinY);
+        }
+
+    }
+
+}
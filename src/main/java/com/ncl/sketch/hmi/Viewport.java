@@ -0,0 +1,201 @@
+package com.ncl.sketch.hmi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.event.EventHandler;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.transform.Affine;
+
+/**
+ * The Viewport maps the document - the coordinates of the sketches - to the screen: <i>screen = scale * document +
+ * translation</i>.
+ * <p>
+ * The user pans with the secondary button or the scroll wheel and zooms with the scroll wheel while holding the
+ * control key, around the mouse cursor. The scale is quantized to {@link #STEPS_PER_OCTAVE} zoom levels per power
+ * of two, so that renderers can cache the rendering of each zoom level.
+ * <p>
+ * The methods shall be called on the JavaFX application thread.
+ */
+final class Viewport {
+
+    /** The number of zoom levels per power of two of the scale. */
+    static final int STEPS_PER_OCTAVE = 4;
+
+    private static final int MIN_ZOOM_LEVEL = -10 * STEPS_PER_OCTAVE;
+
+    private static final int MAX_ZOOM_LEVEL = 4 * STEPS_PER_OCTAVE;
+
+    private final Affine transform;
+
+    private final List<Runnable> listeners;
+
+    private int zoomLevel;
+
+    private double scale;
+
+    private double translateX;
+
+    private double translateY;
+
+    private double panX;
+
+    private double panY;
+
+    /**
+     * Constructor of the identity viewport.
+     */
+    Viewport() {
+        transform = new Affine();
+        listeners = new ArrayList<>();
+        scale = 1.0;
+    }
+
+    /**
+     * Installs the pan and zoom controls on the specified screen container, the children of which are clipped to
+     * its bounds, and applies the viewport to the specified content node.
+     *
+     * @param container the screen container
+     * @param content the child of the container holding document nodes
+     */
+    final void install(final Pane container, final Pane content) {
+        final Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(container.widthProperty());
+        clip.heightProperty().bind(container.heightProperty());
+        container.setClip(clip);
+        content.getTransforms().add(transform);
+        container.addEventHandler(MouseEvent.MOUSE_PRESSED, new EventHandler<MouseEvent>() {
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final MouseEvent event) {
+                if (event.getButton() == MouseButton.SECONDARY) {
+                    panX = event.getX();
+                    panY = event.getY();
+                }
+            }
+        });
+        container.addEventHandler(MouseEvent.MOUSE_DRAGGED, new EventHandler<MouseEvent>() {
+            @SuppressWarnings("synthetic-access")
+            @Override
+            public void handle(final MouseEvent event) {
+                if (event.isSecondaryButtonDown() && !event.isPrimaryButtonDown()) {
+                    pan(event.getX() - panX, event.getY() - panY);
+                    panX = event.getX();
+                    panY = event.getY();
+                }
+            }
+        });
+        container.addEventHandler(ScrollEvent.SCROLL, new EventHandler<ScrollEvent>() {
+            @Override
+            public void handle(final ScrollEvent event) {
+                if (event.isControlDown()) {
+                    zoom(event.getDeltaY() > 0 ? 1 : event.getDeltaY() < 0 ? -1 : 0, event.getX(), event.getY());
+                } else {
+                    pan(event.getDeltaX(), event.getDeltaY());
+                }
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Registers a handler notified of each change of the viewport.
+     *
+     * @param handler the handler to register
+     */
+    final void onChange(final Runnable handler) {
+        listeners.add(handler);
+    }
+
+    /**
+     * Moves the document by the specified screen distance, rounded to whole pixels.
+     *
+     * @param dx the horizontal distance in pixels
+     * @param dy the vertical distance in pixels
+     */
+    final void pan(final double dx, final double dy) {
+        final double x = Math.rint(dx);
+        final double y = Math.rint(dy);
+        if (x != 0.0 || y != 0.0) {
+            set(zoomLevel, translateX + x, translateY + y);
+        }
+    }
+
+    /**
+     * Returns the scale from the document to the screen.
+     *
+     * @return the scale from the document to the screen
+     */
+    final double scale() {
+        return scale;
+    }
+
+    /**
+     * Returns the horizontal translation from the document to the screen.
+     *
+     * @return the horizontal translation in pixels
+     */
+    final double translateX() {
+        return translateX;
+    }
+
+    /**
+     * Returns the vertical translation from the document to the screen.
+     *
+     * @return the vertical translation in pixels
+     */
+    final double translateY() {
+        return translateY;
+    }
+
+    /**
+     * Zooms in or out by the specified number of levels, keeping the document point under the specified screen
+     * point still.
+     *
+     * @param levels the number of levels, positive to zoom in
+     * @param x the x coordinate of the screen point
+     * @param y the y coordinate of the screen point
+     */
+    final void zoom(final int levels, final double x, final double y) {
+        final int level = Math.max(MIN_ZOOM_LEVEL, Math.min(MAX_ZOOM_LEVEL, zoomLevel + levels));
+        if (level != zoomLevel) {
+            final double ratio = scaleOf(level) / scale;
+            set(level, Math.rint(x - (x - translateX) * ratio), Math.rint(y - (y - translateY) * ratio));
+        }
+    }
+
+    /**
+     * Returns the zoom level: the scale is <i>2<sup>level / {@link #STEPS_PER_OCTAVE}</sup></i>.
+     *
+     * @return the zoom level
+     */
+    final int zoomLevel() {
+        return zoomLevel;
+    }
+
+    /**
+     * Returns the scale of the specified zoom level.
+     *
+     * @param level the zoom level
+     * @return the scale of the zoom level
+     */
+    static double scaleOf(final int level) {
+        return Math.pow(2.0, (double) level / STEPS_PER_OCTAVE);
+    }
+
+    private void set(final int level, final double x, final double y) {
+        zoomLevel = level;
+        scale = scaleOf(level);
+        translateX = x;
+        translateY = y;
+        transform.setToTransform(scale, 0.0, translateX, 0.0, scale, translateY);
+        for (final Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.ncl.sketch.agent.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public final class PackedStrokeTest {
+
+    @Test
+    public final void rejectsShorterYCoordinates() {
+        try {
+            new PackedStroke(new double[3], new double[2]);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("x and y must contain the same number of coordinates", e.getMessage());
+        }
+    }
+
+    @Test
+    public final void rejectsShorterXCoordinates() {
+        try {
+            new PackedStroke(new double[2], new double[3]);
+            fail();
+        } catch (final IllegalArgumentException e) {
+            assertEquals("x and y must contain the same number of coordinates", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.Arc;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.ArcRecognitionParameters;
+
+public final class ArcPatternRecognizerTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    public final void doNotRecognizeLine() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 154, 159, 164 };
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertFalse(recognizer().recognize(new StrokeFeatures(GeometricElements.stroke(x, y)), result));
+        assertTrue(result.arcs().isEmpty());
+    }
+
+    @Test
+    public final void doNotRecognizeCorner() {
+        final double[] x = { 0, 0, 0, 0, 0, 0, 1, 2, 3, 4, 5 };
+        final double[] y = { 5, 4, 3, 2, 1, 0, 0, 0, 0, 0, 0 };
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertFalse(recognizer().recognize(new StrokeFeatures(GeometricElements.stroke(x, y)), result));
+    }
+
+    @Test
+    public final void recognizeHalfCircle() {
+        final Stroke stroke = arc(0, 180, 37);
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertTrue(recognizer().recognize(new StrokeFeatures(stroke), result));
+        assertEquals(1, result.arcs().size());
+        final Arc arc = result.arcs().get(0);
+        assertEquals(100.0, arc.center().x(), DELTA);
+        assertEquals(100.0, arc.center().y(), DELTA);
+        assertEquals(50.0, arc.radius(), DELTA);
+        assertEquals(0.0, arc.startAngle(), DELTA);
+        assertEquals(Math.PI, arc.length(), DELTA);
+    }
+
+    @Test
+    public final void recognizeClockwiseThreeQuarterCircle() {
+        final Stroke stroke = arc(270, 0, 55);
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertTrue(recognizer().recognize(new StrokeFeatures(stroke), result));
+        final Arc arc = result.arcs().get(0);
+        assertEquals(50.0, arc.radius(), DELTA);
+        assertEquals(0.0, arc.startAngle(), DELTA);
+        assertEquals(3 * Math.PI / 2, arc.length(), DELTA);
+    }
+
+    @Test
+    public final void doNotRecognizeAlmostClosedCircle() {
+        // the ends are less than half a unit apart, but not at the same point
+        final Stroke stroke = arc(0, 359.5, 73);
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertFalse(recognizer().recognize(new StrokeFeatures(stroke), result));
+        assertTrue(result.arcs().isEmpty());
+    }
+
+    private static ArcPatternRecognizer recognizer() {
+        return new ArcPatternRecognizer(ArcRecognitionParameters.DEFAULT_MIN_CORRELATION,
+                                        ArcRecognitionParameters.DEFAULT_MAX_AREA_ERROR,
+                                        ArcRecognitionParameters.DEFAULT_MAX_SLOPE_ERROR,
+                                        ArcRecognitionParameters.DEFAULT_MAX_CLOSURE_DISTANCE);
+    }
+
+    /*
+     * arc of radius 50 centered on (100, 100) from the first to the last angle, in degrees.
+     */
+    private static Stroke arc(final double from, final double to, final int size) {
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            final double angle = Math.toRadians(from + (to - from) * i / (size - 1));
+            x[i] = 100 + 50 * Math.cos(angle);
+            y[i] = 100 + 50 * Math.sin(angle);
+        }
+        return GeometricElements.stroke(x, y);
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.RecognitionListener;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.SketchRecognitionAgent;
+import com.ncl.sketch.agent.api.Stroke;
+
+public final class BatchRecognizerTest {
+
+    @Test
+    public final void recognizeAllInOrder() {
+        final Stroke[] strokes = strokes(25);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.batchRecognitionParameters().parallelism(4).chunkSize(7);
+
+        final List<RecognitionResult> actuals = agent.recognizeAll(Arrays.asList(strokes));
+
+        assertEquals(strokes.length, actuals.size());
+        for (int i = 0; i < strokes.length; i++) {
+            assertResultEquals(agent.recognize(strokes[i]), actuals.get(i));
+        }
+    }
+
+    @Test
+    public final void recognizeAllOnCallingThread() {
+        final Stroke[] strokes = strokes(10);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.batchRecognitionParameters().parallelism(1).chunkSize(3);
+
+        final List<RecognitionResult> actuals = agent.recognizeAll(strokes);
+
+        assertEquals(strokes.length, actuals.size());
+        for (int i = 0; i < strokes.length; i++) {
+            assertResultEquals(agent.recognize(strokes[i]), actuals.get(i));
+        }
+    }
+
+    @Test
+    public final void recognizeAllWithListener() {
+        final Stroke[] strokes = strokes(13);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.batchRecognitionParameters().parallelism(3).chunkSize(4);
+        final Thread caller = Thread.currentThread();
+        final List<Long> indexes = new ArrayList<Long>();
+        final List<Stroke> recognized = new ArrayList<Stroke>();
+
+        agent.recognizeAll(Arrays.spliterator(strokes), new RecognitionListener() {
+
+            @Override
+            public final void recognized(final long index, final Stroke stroke, final RecognitionResult result) {
+                assertEquals(caller, Thread.currentThread());
+                indexes.add(index);
+                recognized.add(stroke);
+                assertResultEquals(agent.recognize(stroke), result);
+            }
+        });
+
+        assertEquals(strokes.length, indexes.size());
+        for (int i = 0; i < strokes.length; i++) {
+            assertEquals(Long.valueOf(i), indexes.get(i));
+            assertEquals(strokes[i], recognized.get(i));
+        }
+    }
+
+    @Test
+    public final void recognizeAllReusingWorkers() {
+        final Stroke[] strokes = strokes(11);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        for (final int parallelism : new int[] { 2, 4, 3, 1, 2 }) {
+            agent.batchRecognitionParameters().parallelism(parallelism).chunkSize(5);
+
+            final List<RecognitionResult> actuals = agent.recognizeAll(strokes);
+
+            assertEquals(strokes.length, actuals.size());
+            for (int i = 0; i < strokes.length; i++) {
+                assertResultEquals(agent.recognize(strokes[i]), actuals.get(i));
+            }
+        }
+    }
+
+    @Test
+    public final void recognizeAllByDefault() {
+        final Stroke[] strokes = strokes(7);
+        final DomainIndependentAgentImpl delegate = new DomainIndependentAgentImpl();
+        final SketchRecognitionAgent agent = new SketchRecognitionAgent() {
+
+            @Override
+            public final RecognitionResult postProcess() {
+                return delegate.postProcess();
+            }
+
+            @Override
+            public final RecognitionResult recognize(final Stroke stroke) {
+                return delegate.recognize(stroke);
+            }
+        };
+
+        final List<RecognitionResult> actuals = agent.recognizeAll(Arrays.asList(strokes));
+
+        assertEquals(strokes.length, actuals.size());
+        for (int i = 0; i < strokes.length; i++) {
+            assertResultEquals(delegate.recognize(strokes[i]), actuals.get(i));
+        }
+        assertEquals(0, agent.recognizeAll(new Stroke[0]).size());
+    }
+
+    @Test
+    public final void recognizeAllEmpty() {
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        assertEquals(0, agent.recognizeAll(new Stroke[0]).size());
+    }
+
+    private static void assertResultEquals(final RecognitionResult expected, final RecognitionResult actual) {
+        assertEquals(expected.lines().toString(), actual.lines().toString());
+        assertEquals(expected.circles().toString(), actual.circles().toString());
+    }
+
+    /*
+     * alternates circles, lines and polylines of various sizes so that workers are handed strokes of various costs.
+     */
+    private static Stroke[] strokes(final int count) {
+        final Stroke[] strokes = new Stroke[count];
+        for (int n = 0; n < count; n++) {
+            final int size = 12 + 3 * n;
+            final double[] x = new double[size];
+            final double[] y = new double[size];
+            for (int i = 0; i < size; i++) {
+                switch (n % 3) {
+                case 0:
+                    final double angle = 2 * Math.PI * i / size;
+                    x[i] = n + Math.cos(angle);
+                    y[i] = Math.sin(angle);
+                    break;
+                case 1:
+                    x[i] = i;
+                    y[i] = n + 2.0 * i;
+                    break;
+                default:
+                    x[i] = i;
+                    y[i] = i < size / 2 ? i : size - i;
+                    break;
+                }
+            }
+            strokes[n] = GeometricElements.stroke(x, y);
+        }
+        return strokes;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.Random;
+
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.Stroke;
+
+/**
+ * Compares the speed and the accuracy of the {@link Strokes#circle(Stroke) bounding box} and the
+ * {@link CircleFit algebraic} circle fitting strategies on noisy strokes covering a full circle, half a circle
+ * and a quarter of a circle.
+ * <p>
+ * This is not a unit test: run it with <code>java com.ncl.sketch.agent.di.impl.CircleFitBenchmark</code>.
+ */
+public final class CircleFitBenchmark {
+
+    private static final int STROKES = 1000;
+
+    private static final int POINTS = 200;
+
+    private static final double RADIUS = 100.0;
+
+    private static final double NOISE = 1.0;
+
+    private static final int ROUNDS = 20;
+
+    private CircleFitBenchmark() {
+
+    }
+
+    public static void main(final String[] args) {
+        final double[] coverages = { 1.0, 0.5, 0.25 };
+        System.out.println("coverage\tstrategy\tns/stroke\tcenter error\tradius error");
+        for (final double coverage : coverages) {
+            final Stroke[] strokes = strokes(coverage, new Random(42));
+            run(coverage, "bounding box", strokes, false);
+            run(coverage, "algebraic", strokes, true);
+        }
+    }
+
+    private static void run(final double coverage, final String name, final Stroke[] strokes,
+            final boolean algebraic) {
+        double centerError = 0.0;
+        double radiusError = 0.0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            centerError = 0.0;
+            radiusError = 0.0;
+            final long start = System.nanoTime();
+            for (final Stroke stroke : strokes) {
+                final Circle circle = algebraic ? CircleFit.of(stroke).circle() : Strokes.circle(stroke);
+                centerError += Math.hypot(circle.center().x(), circle.center().y());
+                radiusError += Math.abs(circle.radius() - RADIUS);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(coverage
+            + "\t\t"
+            + name
+            + "\t"
+            + best / strokes.length
+            + "\t\t"
+            + centerError / strokes.length / RADIUS
+            + "\t"
+            + radiusError / strokes.length / RADIUS);
+    }
+
+    /*
+     * strokes drawn around (0, 0) with a radial gaussian noise, starting at a random angle.
+     */
+    private static Stroke[] strokes(final double coverage, final Random random) {
+        final Stroke[] strokes = new Stroke[STROKES];
+        for (int s = 0; s < STROKES; s++) {
+            final double[] x = new double[POINTS];
+            final double[] y = new double[POINTS];
+            final double start = random.nextDouble() * 2 * Math.PI;
+            for (int i = 0; i < POINTS; i++) {
+                final double angle = start + coverage * 2 * Math.PI * i / POINTS;
+                final double radius = RADIUS + NOISE * random.nextGaussian();
+                x[i] = radius * Math.cos(angle);
+                y[i] = radius * Math.sin(angle);
+            }
+            strokes[s] = new Stroke(1.0, new PackedStroke(x, y));
+        }
+        return strokes;
+    }
+
+}
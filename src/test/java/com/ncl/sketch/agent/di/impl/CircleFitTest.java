@@ -0,0 +1,67 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.Circle;
+
+public final class CircleFitTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    public final void fitCircle() {
+        final CircleFit fit = new CircleFit();
+        for (int i = 0; i < 36; i++) {
+            final double angle = Math.toRadians(10 * i);
+            fit.add(1000 + 5 * Math.cos(angle), 2000 + 5 * Math.sin(angle));
+        }
+        final Circle circle = fit.circle();
+        assertEquals(1000.0, circle.center().x(), DELTA);
+        assertEquals(2000.0, circle.center().y(), DELTA);
+        assertEquals(5.0, circle.radius(), DELTA);
+        assertEquals(0.0, fit.residual(), DELTA);
+    }
+
+    @Test
+    public final void fitQuarterCircle() {
+        final CircleFit fit = new CircleFit();
+        for (int i = 0; i <= 9; i++) {
+            final double angle = Math.toRadians(10 * i);
+            fit.add(3 + 2 * Math.cos(angle), -1 + 2 * Math.sin(angle));
+        }
+        final Circle circle = fit.circle();
+        assertEquals(3.0, circle.center().x(), DELTA);
+        assertEquals(-1.0, circle.center().y(), DELTA);
+        assertEquals(2.0, circle.radius(), DELTA);
+    }
+
+    @Test
+    public final void fitNoisyCircle() {
+        final double noise = 0.01;
+        final CircleFit fit = new CircleFit();
+        for (int i = 0; i < 72; i++) {
+            final double angle = Math.toRadians(5 * i);
+            final double radius = 1 + (i % 2 == 0 ? noise : -noise);
+            fit.add(radius * Math.cos(angle), radius * Math.sin(angle));
+        }
+        assertEquals(1.0, fit.circle().radius(), 0.001);
+        assertEquals(noise, fit.residual(), 0.001);
+    }
+
+    @Test
+    public final void doNotFitLine() {
+        final CircleFit fit = new CircleFit().add(0, 0).add(1, 2).add(2, 4).add(3, 6);
+        assertNull(fit.circle());
+        assertTrue(Double.isNaN(fit.residual()));
+    }
+
+    @Test
+    public final void doNotFitTwoPoints() {
+        assertNull(new CircleFit().add(0, 0).add(1, 1).circle());
+    }
+
+}
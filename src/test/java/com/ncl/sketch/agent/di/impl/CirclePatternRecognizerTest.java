@@ -10,6 +10,7 @@ import org.junit.Test;
 
 import com.ncl.sketch.agent.api.Circle;
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.CircleFitting;
 import com.ncl.sketch.agent.di.impl.CirclePatternRecognizer;
 import com.ncl.sketch.agent.di.impl.StrokeRecognitionResult;
 
@@ -25,7 +26,7 @@ public final class CirclePatternRecognizerTest {
         final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.95, 0.1, 0.15);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertFalse(recognizer.recognize(stroke, result));
+        assertFalse(recognizer.recognize(new StrokeFeatures(stroke), result));
     }
 
     @Test
@@ -61,7 +62,7 @@ public final class CirclePatternRecognizerTest {
         final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.95, 0.1, 0.15);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertFalse(recognizer.recognize(stroke, result));
+        assertFalse(recognizer.recognize(new StrokeFeatures(stroke), result));
     }
 
     @Test
@@ -97,7 +98,7 @@ public final class CirclePatternRecognizerTest {
         final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.95, 0.1, 0.15);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertFalse(recognizer.recognize(stroke, result));
+        assertFalse(recognizer.recognize(new StrokeFeatures(stroke), result));
     }
 
     @Test
@@ -115,7 +116,7 @@ public final class CirclePatternRecognizerTest {
         final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.9, 0.1, 0.15);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         final List<Circle> circles = result.circles();
         assertEquals(1, circles.size());
         final Circle circle = circles.get(0);
@@ -139,7 +140,7 @@ public final class CirclePatternRecognizerTest {
         final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.9, 0.1, 0.15);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         final List<Circle> circles = result.circles();
         assertEquals(1, circles.size());
         final Circle circle = circles.get(0);
@@ -148,4 +149,28 @@ public final class CirclePatternRecognizerTest {
         assertEquals(0.0, circle.center().y(), DELTA);
     }
 
+    @Test
+    public final void recognizeCircleWithAlgebraicFit() {
+        final int size = 36;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int index = 0; index < size; index++) {
+            final double angle = Math.toRadians(10 * index);
+            x[index] = 120 + 40 * Math.cos(angle);
+            y[index] = -35 + 40 * Math.sin(angle);
+        }
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final CirclePatternRecognizer recognizer = new CirclePatternRecognizer(0.9, 0.1, 0.15);
+        recognizer.circleFitting(CircleFitting.ALGEBRAIC);
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
+        final List<Circle> circles = result.circles();
+        assertEquals(1, circles.size());
+        final Circle circle = circles.get(0);
+        assertEquals(40.0, circle.radius(), DELTA);
+        assertEquals(120.0, circle.center().x(), DELTA);
+        assertEquals(-35.0, circle.center().y(), DELTA);
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public final class CurvatureProfileTest {
+
+    @Test
+    public final void indexOfMaxCurvatureMatchesScan() {
+        final int size = 60;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i + 3 * Math.sin(i / 2.0);
+            y[i] = (i * 7) % 11 + Math.cos(i / 3.0);
+        }
+        final StrokeIndex index = new StrokeIndex(GeometricElements.stroke(x, y));
+        for (int k = 1; k <= 4; k++) {
+            final CurvatureProfile profile = new CurvatureProfile(index.segments(), k);
+            for (int from = 0; from < size; from++) {
+                for (int to = from + 1; to <= size; to++) {
+                    final StrokeIndex sub = index.subIndex(from, to);
+                    assertEquals("k=" + k + " [" + from + ", " + to + ")",
+                                 Strokes.indexOfMaxCurvature(sub.segments(), k), profile.indexOfMaxCurvature(sub));
+                }
+            }
+        }
+    }
+
+    @Test
+    public final void indexOfMaxCurvatureOnTies() {
+        final double[] x = { 0, 1, 2, 2, 2, 3, 4, 4, 4 };
+        final double[] y = { 0, 0, 0, 1, 2, 2, 2, 3, 4 };
+        final StrokeIndex index = new StrokeIndex(GeometricElements.stroke(x, y));
+        final CurvatureProfile profile = new CurvatureProfile(index.segments(), 1);
+        assertEquals(Strokes.indexOfMaxCurvature(index.segments(), 1), profile.indexOfMaxCurvature(index));
+        assertEquals(Strokes.indexOfMaxCurvature(index.subIndex(3, 9).segments(), 1),
+                     profile.indexOfMaxCurvature(index.subIndex(3, 9)));
+    }
+
+}
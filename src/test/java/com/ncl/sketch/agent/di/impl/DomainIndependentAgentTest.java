@@ -1,15 +1,19 @@
 package com.ncl.sketch.agent.di.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
+import com.ncl.sketch.agent.api.Arc;
 import com.ncl.sketch.agent.api.Circle;
 import com.ncl.sketch.agent.api.Line;
 import com.ncl.sketch.agent.api.Point;
 import com.ncl.sketch.agent.api.RecognitionResult;
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.SegmentedRecognitionResult;
 import com.ncl.sketch.agent.di.impl.DomainIndependentAgentImpl;
 
 public final class DomainIndependentAgentTest {
@@ -56,6 +60,30 @@ public final class DomainIndependentAgentTest {
         assertCirclesEquals(result, expected);
     }
 
+    @Test
+    public final void recognizeArc() {
+        final int size = 19;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int index = 0; index < size; index++) {
+            final double angle = Math.toRadians(10 * index);
+            x[index] = Math.cos(angle);
+            y[index] = Math.sin(angle);
+        }
+        final Stroke stroke = GeometricElements.stroke(x, y);
+
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        final RecognitionResult result = agent.recognize(stroke);
+
+        assertLinesEquals(result);
+        assertCirclesEquals(result);
+        assertEquals(1, result.arcs().size());
+        final Arc arc = result.arcs().iterator().next();
+        assertPointsEquals(GeometricElements.point(0, 0), arc.center());
+        assertEquals(1.0, arc.radius(), DELTA);
+        assertEquals(Math.PI, arc.length(), DELTA);
+    }
+
     @Test
     public final void recognizeOneLine() {
         final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
@@ -88,6 +116,115 @@ public final class DomainIndependentAgentTest {
         assertCirclesEquals(result);
     }
 
+    @Test
+    public final void recognizeThreeLinesRanges() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final Stroke stroke = GeometricElements.stroke(x, y);
+
+        final SegmentedRecognitionResult result = new DomainIndependentAgentImpl().recognize(stroke);
+        assertArrayEquals(new int[] { 0, 2 }, result.lineRange(0));
+        assertArrayEquals(new int[] { 2, 9 }, result.lineRange(1));
+        assertArrayEquals(new int[] { 9, 14 }, result.lineRange(2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void recognizeNoCircleRange() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        new DomainIndependentAgentImpl().recognize(GeometricElements.stroke(x, y)).circleRange(0);
+    }
+
+    @Test
+    public final void recognizeInParallel() {
+        final int nbLines = 64;
+        final int pointsPerLine = 40;
+        final double[] x = new double[nbLines * pointsPerLine];
+        final double[] y = new double[nbLines * pointsPerLine];
+        for (int i = 0; i < x.length; i++) {
+            final int line = i / pointsPerLine;
+            final int step = i % pointsPerLine;
+            x[i] = line * 50 + (line % 2 == 0 ? step : pointsPerLine - step) * 0.25;
+            y[i] = line % 2 == 0 ? step * 2 : (pointsPerLine - step) * 2;
+        }
+        final Stroke stroke = GeometricElements.stroke(x, y);
+
+        final RecognitionResult expected = new DomainIndependentAgentImpl().recognize(stroke);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.segmentationParameters().parallelThreshold(100);
+        final RecognitionResult actual = agent.recognize(stroke);
+
+        final Point[] expectedPoints = new Point[2 * expected.lines().size()];
+        int i = 0;
+        for (final Line line : expected.lines()) {
+            expectedPoints[i++] = line.start();
+            expectedPoints[i++] = line.end();
+        }
+        assertTrue(expectedPoints.length > 2 * nbLines);
+        assertLinesEquals(actual, expectedPoints);
+        assertEquals(expected.circles().size(), actual.circles().size());
+    }
+
+    @Test
+    public final void recognizeThreeLinesWithinMaxDepth() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final Point first1 = stroke.get(0);
+        final Point last1 = stroke.get(2);
+
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.segmentationParameters().maxDepth(1);
+        final RecognitionResult result = agent.recognize(stroke);
+        assertLinesEquals(result, first1, last1);
+        assertCirclesEquals(result);
+    }
+
+    @Test
+    public final void recognizeThreeLinesWithinMaxSegments() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final Point first1 = stroke.get(0);
+        final Point last1 = stroke.get(2);
+        final Point first2 = stroke.get(2);
+        final Point last2 = stroke.get(9);
+
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.segmentationParameters().maxSegments(4);
+        final RecognitionResult result = agent.recognize(stroke);
+        assertLinesEquals(result, first1, last1, first2, last2);
+        assertCirclesEquals(result);
+    }
+
+    @Test
+    public final void recognizeThreeLinesWithinMinSegmentPoints() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final Stroke stroke = GeometricElements.stroke(x, y);
+
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.segmentationParameters().minSegmentPoints(4);
+        final RecognitionResult result = agent.recognize(stroke);
+        assertLinesEquals(result);
+        assertCirclesEquals(result);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsZeroMaxDepth() {
+        new DomainIndependentAgentImpl().segmentationParameters().maxDepth(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsZeroMaxSegments() {
+        new DomainIndependentAgentImpl().segmentationParameters().maxSegments(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsSingleMinSegmentPoint() {
+        new DomainIndependentAgentImpl().segmentationParameters().minSegmentPoints(1);
+    }
+
     private void assertCirclesEquals(final RecognitionResult actual, final Circle... expecteds) {
         int i = 0;
         final int index = 0;
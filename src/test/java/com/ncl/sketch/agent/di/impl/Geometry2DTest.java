@@ -120,6 +120,31 @@ public final class Geometry2DTest {
         assertEquals(-4, i.y(), DELTA);
     }
 
+    @Test
+    public final void intersectionOfSegmentAndLine() {
+        final double[] intersection = new double[2];
+        final LineEquation line = LineEquation.line(-2, 12);
+        assertEquals(Geometry2D.INTERSECTION, Geometry2D.intersectionOf(0, 3, 1, 4, line, intersection));
+        assertEquals(3, intersection[0], DELTA);
+        assertEquals(6, intersection[1], DELTA);
+    }
+
+    @Test
+    public final void intersectionOfSegmentAndLineCoincident() {
+        final double[] intersection = { -1, -1 };
+        final LineEquation line = LineEquation.line(1, 3);
+        assertEquals(Geometry2D.COINCIDENT, Geometry2D.intersectionOf(0, 3, 1, 4, line, intersection));
+        assertEquals(-1, intersection[0], 0.0);
+        assertEquals(-1, intersection[1], 0.0);
+    }
+
+    @Test
+    public final void intersectionOfSegmentAndLineParallel() {
+        final double[] intersection = new double[2];
+        final LineEquation line = LineEquation.verticalLine(6);
+        assertEquals(Geometry2D.PARALLEL, Geometry2D.intersectionOf(5, 0, 5, 10, line, intersection));
+    }
+
     @Test
     public final void intersectionOfParallel() throws CoincidentLineException {
         final LineEquation line1 = LineEquation.line(1, 3);
@@ -244,6 +269,14 @@ public final class Geometry2DTest {
         assertEquals(16.0, Geometry2D.areaOf(a, b, c, d), DELTA);
     }
 
+    @Test
+    public final void quadriangleAreaOfCoordinates() {
+        final double[] intersection = new double[2];
+        assertEquals(16.0, Geometry2D.areaOf(1, 1, 1, 5, 5, 5, 5, 1, intersection), DELTA);
+        assertEquals(8.0, Geometry2D.areaOf(1, 1, 1, 5, 5, 1, 5, 5, intersection), DELTA);
+        assertEquals(0.0, Geometry2D.areaOf(1, 1, 2, 2, 3, 3, 4, 4, intersection), DELTA);
+    }
+
     @Test
     public final void selfIntersectingQuadriangleArea() {
         final Point a = GeometricElements.point(1, 1);
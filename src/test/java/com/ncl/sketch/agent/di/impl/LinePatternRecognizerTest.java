@@ -23,7 +23,7 @@ public final class LinePatternRecognizerTest {
         final Stroke stroke = GeometricElements.stroke(x, y);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertFalse(recognizer.recognize(stroke, result));
+        assertFalse(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(0, result.lines().size());
     }
 
@@ -37,7 +37,7 @@ public final class LinePatternRecognizerTest {
         final Point last = stroke.get(14);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(1, result.lines().size());
         final Line line = result.lines().get(0);
         assertEquals(first, line.start());
@@ -55,7 +55,7 @@ public final class LinePatternRecognizerTest {
         final Point last = stroke.get(4);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(1, result.lines().size());
         final Line line = result.lines().get(0);
         assertEquals(first, line.start());
@@ -73,7 +73,7 @@ public final class LinePatternRecognizerTest {
         final Point last = stroke.get(1);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(1, result.lines().size());
         final Line line = result.lines().get(0);
         assertEquals(first, line.start());
@@ -91,7 +91,7 @@ public final class LinePatternRecognizerTest {
         final Point last = stroke.get(4);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(1, result.lines().size());
         final Line line = result.lines().get(0);
         assertEquals(first, line.start());
@@ -109,7 +109,7 @@ public final class LinePatternRecognizerTest {
         final Point last = stroke.get(4);
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
 
-        assertTrue(recognizer.recognize(stroke, result));
+        assertTrue(recognizer.recognize(new StrokeFeatures(stroke), result));
         assertEquals(1, result.lines().size());
         final Line line = result.lines().get(0);
         assertEquals(first, line.start());
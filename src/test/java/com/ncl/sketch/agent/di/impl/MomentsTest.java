@@ -0,0 +1,91 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public final class MomentsTest {
+
+    private static final double DELTA = 0.00001;
+
+    private static final double[] X = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+
+    private static final double[] Y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 154, 159, 164 };
+
+    @Test
+    public final void regressionLine() {
+        final Moments moments = new Moments();
+        for (int i = 0; i < X.length; i++) {
+            moments.add(X[i], Y[i]);
+        }
+        final RegressionLine rl = moments.regressionLine();
+        assertEquals(15, moments.size());
+        assertEquals(-87.516666666, rl.yIntercept(), DELTA);
+        assertEquals(3.45, rl.slope(), DELTA);
+        assertEquals(0.9910098, rl.coefficientOfDetermination(), DELTA);
+    }
+
+    @Test
+    public final void regressionLineFarFromOrigin() {
+        final double offset = 1.0e9;
+        final Moments moments = new Moments();
+        for (int i = 0; i < X.length; i++) {
+            moments.add(X[i] + offset, Y[i] + offset);
+        }
+        final RegressionLine rl = moments.regressionLine();
+        assertEquals(3.45, rl.slope(), DELTA);
+        assertEquals(0.9910098, rl.coefficientOfDetermination(), DELTA);
+    }
+
+    @Test
+    public final void regressionLineOfSlidingWindow() {
+        final int window = 5;
+        final Moments sliding = new Moments();
+        for (int i = 0; i < X.length; i++) {
+            sliding.add(X[i], Y[i]);
+            if (i >= window) {
+                sliding.remove(X[i - window], Y[i - window]);
+            }
+            if (i >= window - 1) {
+                final Moments expected = new Moments();
+                for (int j = i - window + 1; j <= i; j++) {
+                    expected.add(X[j], Y[j]);
+                }
+                assertEquals(window, sliding.size());
+                assertRegressionLineEquals(expected.regressionLine(), sliding.regressionLine());
+            }
+        }
+    }
+
+    @Test
+    public final void removeAll() {
+        final Moments moments = new Moments();
+        moments.add(1, 2).add(3, 5).remove(3, 5).remove(1, 2);
+        assertEquals(0, moments.size());
+        assertEquals(0.0, moments.meanX(), 0.0);
+        assertEquals(0.0, moments.meanY(), 0.0);
+    }
+
+    @Test
+    public final void regressionLineHorizontal() {
+        final RegressionLine rl = new Moments().add(1, 5).add(2, 5).add(3, 5).regressionLine();
+        assertEquals(5.0, rl.yIntercept(), 0.0);
+        assertEquals(0.0, rl.slope(), 0.0);
+        assertEquals(1.0, rl.coefficientOfDetermination(), 0.0);
+    }
+
+    @Test
+    public final void regressionLineVertical() {
+        final RegressionLine rl = new Moments().add(5, 1).add(5, 2).add(5, 3).regressionLine();
+        assertEquals(0.0, rl.yIntercept(), 0.0);
+        assertEquals(1.0, rl.slope(), 0.0);
+        assertEquals(1.0, rl.coefficientOfDetermination(), 0.0);
+    }
+
+    private static void assertRegressionLineEquals(final RegressionLine expected, final RegressionLine actual) {
+        assertEquals(expected.yIntercept(), actual.yIntercept(), DELTA);
+        assertEquals(expected.slope(), actual.slope(), DELTA);
+        assertEquals(expected.coefficientOfDetermination(), actual.coefficientOfDetermination(), DELTA);
+    }
+
+}
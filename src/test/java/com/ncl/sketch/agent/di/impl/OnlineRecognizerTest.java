@@ -0,0 +1,241 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.Arc;
+import com.ncl.sketch.agent.api.Circle;
+import com.ncl.sketch.agent.api.Line;
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.RecognitionSession;
+import com.ncl.sketch.agent.api.SketchRecognitionAgent;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.PreprocessingMode;
+
+public final class OnlineRecognizerTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    public final void recognizeThreeLines() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        assertSameResult(x, y);
+    }
+
+    @Test
+    public final void recognizeCircle() {
+        final int size = 36;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int index = 0; index < size; index++) {
+            final double angle = Math.toRadians(10 * index);
+            x[index] = Math.cos(angle);
+            y[index] = Math.sin(angle);
+        }
+        assertSameResult(x, y);
+    }
+
+    @Test
+    public final void recognizeRandomWalk() {
+        /*
+         * more points than the initial capacity of the session: buffers and segment tree are regrown.
+         */
+        final int size = 500;
+        final Random random = new Random(7);
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int index = 1; index < size; index++) {
+            x[index] = x[index - 1] + random.nextInt(5) - 1;
+            y[index] = y[index - 1] + random.nextInt(3) - 1;
+        }
+        assertSameResult(x, y);
+    }
+
+    @Test
+    public final void speculateThreeLines() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        final RecognitionSession session = agent.openSession(1.0);
+        for (int i = 0; i < x.length; i++) {
+            session.add(x[i], y[i]);
+            if (i == 12) {
+                assertEquals(3, session.speculate().lines().size());
+            }
+        }
+        final RecognitionResult actual = session.finish();
+        assertSameResult(agent.recognize(new Stroke(1.0, new PackedStroke(x, y))), actual);
+    }
+
+    @Test
+    public final void speculateCircle() {
+        final int size = 36;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final RecognitionSession session = new DomainIndependentAgentImpl().openSession(1.0);
+        for (int index = 0; index < size; index++) {
+            final double angle = Math.toRadians(10 * index);
+            x[index] = Math.cos(angle);
+            y[index] = Math.sin(angle);
+            session.add(x[index], y[index]);
+            if (index % 8 == 7) {
+                session.speculate();
+            }
+        }
+        final RecognitionResult actual = session.finish();
+        assertEquals(1, actual.circles().size());
+        assertEquals(0, actual.lines().size());
+    }
+
+    @Test
+    public final void interruptSpeculation() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 164, 169, 174 };
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        final RecognitionSession session = agent.openSession(1.0);
+        for (int i = 0; i < x.length; i++) {
+            session.add(x[i], y[i]);
+        }
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(session.speculate());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        assertSameResult(agent.recognize(new Stroke(1.0, new PackedStroke(x, y))), session.finish());
+    }
+
+    @Test
+    public final void recognizeSimplified() {
+        // a hand drawn Z: three sides of 50 points, the corners at indices 50 and 100
+        final Random random = new Random(1);
+        final double[] x = new double[151];
+        final double[] y = new double[151];
+        for (int i = 0; i < x.length; i++) {
+            final double t = (i % 50) / 50.0;
+            final double px = i == 150 ? 100 : i < 50 ? 100 * t : i < 100 ? 100 - 100 * t : 100 * t;
+            final double py = i == 150 ? 100 : i < 50 ? 0 : i < 100 ? 100 * t : 100;
+            x[i] = px + 0.1 * random.nextGaussian();
+            y[i] = py + 0.1 * random.nextGaussian();
+        }
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.preprocessingParameters().mode(PreprocessingMode.SIMPLIFICATION);
+        final RecognitionSession session = agent.openSession(1.0);
+        for (int i = 0; i < x.length; i++) {
+            session.add(x[i], y[i]);
+            if (i == 120) {
+                assertEquals(3, session.speculate().lines().size());
+            }
+        }
+        final RecognitionResult actual = session.finish();
+        assertSameResult(agent.recognize(new Stroke(1.0, new PackedStroke(x, y))), actual);
+        assertArrayEquals(new int[] { 50, 100 }, ((StrokeRecognitionResult) actual).lineRange(1));
+    }
+
+    @Test
+    public final void recognizeInDefaultSession() {
+        /*
+         * an agent relying on the default session, buffering the points and recognizing the stroke on finish.
+         */
+        final DomainIndependentAgentImpl delegate = new DomainIndependentAgentImpl();
+        final SketchRecognitionAgent agent = new SketchRecognitionAgent() {
+
+            @Override
+            public final RecognitionResult postProcess() {
+                return delegate.postProcess();
+            }
+
+            @Override
+            public final RecognitionResult recognize(final Stroke stroke) {
+                return delegate.recognize(stroke);
+            }
+        };
+        final int size = 100;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        final RecognitionSession session = agent.openSession(1.0);
+        for (int index = 0; index < size; index++) {
+            final double angle = 2 * Math.PI * index / (size - 1);
+            x[index] = Math.cos(angle);
+            y[index] = Math.sin(angle);
+            session.add(x[index], y[index]);
+        }
+        assertEquals(size, session.size());
+        assertEquals(1, session.speculate().circles().size());
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(session.speculate());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        assertSameResult(delegate.recognize(new Stroke(1.0, new PackedStroke(x, y))), session.finish());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void addAfterFinish() {
+        final RecognitionSession session = new DomainIndependentAgentImpl().openSession(1.0);
+        session.add(0, 0).add(1, 1).finish();
+        session.add(2, 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void finishTwice() {
+        final RecognitionSession session = new DomainIndependentAgentImpl().openSession(1.0);
+        session.add(0, 0).add(1, 1).finish();
+        session.finish();
+    }
+
+    private static void assertSameResult(final double[] x, final double[] y) {
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        final RecognitionResult expected = agent.recognize(new Stroke(1.0, new PackedStroke(x, y)));
+        final RecognitionSession session = agent.openSession(1.0);
+        for (int i = 0; i < x.length; i++) {
+            session.add(x[i], y[i]);
+        }
+        assertEquals(x.length, session.size());
+        assertSameResult(expected, session.finish());
+    }
+
+    private static void assertSameResult(final RecognitionResult expected, final RecognitionResult actual) {
+
+        assertEquals(expected.lines().size(), actual.lines().size());
+        int i = 0;
+        for (final Line line : actual.lines()) {
+            final Line other = ((StrokeRecognitionResult) expected).lines().get(i++);
+            assertEquals(other.start(), line.start());
+            assertEquals(other.end(), line.end());
+            if (actual instanceof StrokeRecognitionResult) {
+                assertArrayEquals(((StrokeRecognitionResult) expected).lineRange(i - 1),
+                                  ((StrokeRecognitionResult) actual).lineRange(i - 1));
+            }
+        }
+        assertEquals(expected.circles().size(), actual.circles().size());
+        i = 0;
+        for (final Circle circle : actual.circles()) {
+            final Circle other = ((StrokeRecognitionResult) expected).circles().get(i++);
+            assertEquals(other.center().x(), circle.center().x(), DELTA);
+            assertEquals(other.center().y(), circle.center().y(), DELTA);
+            assertEquals(other.radius(), circle.radius(), DELTA);
+            if (actual instanceof StrokeRecognitionResult) {
+                assertArrayEquals(((StrokeRecognitionResult) expected).circleRange(i - 1),
+                                  ((StrokeRecognitionResult) actual).circleRange(i - 1));
+            }
+        }
+        assertEquals(expected.arcs().size(), actual.arcs().size());
+        i = 0;
+        for (final Arc arc : actual.arcs()) {
+            final Arc other = ((StrokeRecognitionResult) expected).arcs().get(i++);
+            assertEquals(other.radius(), arc.radius(), DELTA);
+            assertEquals(other.length(), arc.length(), DELTA);
+        }
+    }
+
+}
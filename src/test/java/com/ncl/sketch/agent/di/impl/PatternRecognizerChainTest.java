@@ -1,13 +1,24 @@
 package com.ncl.sketch.agent.di.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.RecognizerOrdering;
 import com.ncl.sketch.agent.di.impl.PatternRecognizer;
 import com.ncl.sketch.agent.di.impl.PatternRecognizerChain;
 import com.ncl.sketch.agent.di.impl.StrokeRecognitionResult;
@@ -20,7 +31,7 @@ public final class PatternRecognizerChainTest {
         final PatternRecognizer r2 = mock(PatternRecognizer.class);
         final PatternRecognizerChain chain = new PatternRecognizerChain();
         chain.add(r1).add(r2);
-        final Stroke stroke = new Stroke(0);
+        final StrokeFeatures stroke = new StrokeFeatures(new Stroke(0));
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
         chain.recognize(stroke, result);
         verify(r1).recognize(stroke, result);
@@ -33,7 +44,7 @@ public final class PatternRecognizerChainTest {
         final PatternRecognizer r2 = mock(PatternRecognizer.class);
         final PatternRecognizerChain chain = new PatternRecognizerChain();
         chain.add(r1).add(r2);
-        final Stroke stroke = new Stroke(0);
+        final StrokeFeatures stroke = new StrokeFeatures(new Stroke(0));
         final StrokeRecognitionResult result = new StrokeRecognitionResult();
         when(r1.recognize(stroke, result)).thenReturn(true);
         chain.recognize(stroke, result);
@@ -41,4 +52,162 @@ public final class PatternRecognizerChainTest {
         verifyZeroInteractions(r2);
     }
 
+    @Test
+    public final void skipGatedRecognizer() {
+        final PatternRecognizer r1 = mock(PatternRecognizer.class);
+        final PatternRecognizer r2 = mock(PatternRecognizer.class);
+        final RecognizerGate gate = mock(RecognizerGate.class);
+        final PatternRecognizerChain chain = new PatternRecognizerChain();
+        chain.add(r1, gate).add(r2);
+        final StrokeFeatures stroke = new StrokeFeatures(new Stroke(0));
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        when(gate.accepts(stroke)).thenReturn(false);
+        chain.recognize(stroke, result);
+        verifyZeroInteractions(r1);
+        verify(r2).recognize(stroke, result);
+        assertEquals(1, chain.skipped(r1));
+        assertEquals(0, chain.evaluated(r1));
+        assertEquals(0, chain.skipped(r2));
+        assertEquals(1, chain.evaluated(r2));
+    }
+
+    @Test
+    public final void adaptiveOrdering() {
+        final FakeClock clock = new FakeClock();
+        final PatternRecognizer r1 = slowRecognizer(clock);
+        final PatternRecognizer r2 = mock(PatternRecognizer.class);
+        final PatternRecognizerChain chain = new PatternRecognizerChain(clock);
+        chain.add(r1).add(r2).ordering(RecognizerOrdering.ADAPTIVE).reorderPeriod(4);
+        final StrokeFeatures stroke = new StrokeFeatures(GeometricElements.stroke(new double[5], new double[5]));
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        when(r2.recognize(stroke, result)).thenReturn(true);
+        for (int i = 0; i < 8; i++) {
+            chain.recognize(stroke, result);
+        }
+        /*
+         * r1 is slow and never matches: after the first period r2 is tried first and r1 is no longer reached.
+         */
+        verify(r1, times(4)).recognize(stroke, result);
+        verify(r2, times(8)).recognize(stroke, result);
+        assertEquals(Arrays.asList(r2, r1), chain.order(5));
+        assertEquals(Arrays.asList(r1, r2), chain.order(64));
+    }
+
+    @Test
+    public final void exploreRecognizersBehindAMatch() {
+        final FakeClock clock = new FakeClock();
+        final boolean[] recovered = new boolean[1];
+        final List<Level> levels = new ArrayList<Level>();
+        final PatternRecognizer r1 = mock(PatternRecognizer.class);
+        when(r1.recognize(any(StrokeFeatures.class), any(StrokeRecognitionResult.class))).thenAnswer(
+                new Answer<Boolean>() {
+
+                    @Override
+                    public final Boolean answer(final InvocationOnMock invocation) {
+                        levels.add(((StrokeRecognitionResult) invocation.getArguments()[1]).logLevel());
+                        if (recovered[0]) {
+                            return true;
+                        }
+                        clock.advance(1000000L);
+                        return false;
+                    }
+                });
+        final PatternRecognizer r2 = mock(PatternRecognizer.class);
+        when(r2.recognize(any(StrokeFeatures.class), any(StrokeRecognitionResult.class))).thenAnswer(
+                new Answer<Boolean>() {
+
+                    @Override
+                    public final Boolean answer(final InvocationOnMock invocation) {
+                        clock.advance(1000000L);
+                        return true;
+                    }
+                });
+        final PatternRecognizerChain chain = new PatternRecognizerChain(clock);
+        chain.add(r1).add(r2).ordering(RecognizerOrdering.ADAPTIVE).reorderPeriod(4);
+        final StrokeFeatures stroke = new StrokeFeatures(GeometricElements.stroke(new double[5], new double[5]));
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        for (int i = 0; i < PatternRecognizerChain.EXPLORATION_PERIOD; i++) {
+            chain.recognize(stroke, result);
+        }
+        /*
+         * r1 is reached during the first period, then only by the exploration of the last stroke, on a discarded
+         * result.
+         */
+        verify(r1, times(4)).recognize(stroke, result);
+        verify(r1, times(5)).recognize(any(StrokeFeatures.class), any(StrokeRecognitionResult.class));
+        assertEquals(Level.FINE, levels.get(4));
+        assertEquals(Arrays.asList(r2, r1), chain.order(5));
+        /*
+         * the exploration is not counted as an evaluation.
+         */
+        assertEquals(4L, chain.evaluated(r1));
+        assertEquals(PatternRecognizerChain.EXPLORATION_PERIOD, chain.evaluated(r2));
+        /*
+         * r1 becomes free and always matches: the explorations move it first again.
+         */
+        recovered[0] = true;
+        for (int i = 0; i < 10 * PatternRecognizerChain.EXPLORATION_PERIOD; i++) {
+            chain.recognize(stroke, result);
+        }
+        assertEquals(Arrays.asList(r1, r2), chain.order(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsZeroReorderPeriod() {
+        new PatternRecognizerChain().reorderPeriod(0);
+    }
+
+    @Test
+    public final void fixedOrdering() {
+        final FakeClock clock = new FakeClock();
+        final PatternRecognizer r1 = slowRecognizer(clock);
+        final PatternRecognizer r2 = mock(PatternRecognizer.class);
+        final PatternRecognizerChain chain = new PatternRecognizerChain(clock);
+        chain.add(r1).add(r2).ordering(RecognizerOrdering.ADAPTIVE).reorderPeriod(1);
+        final StrokeFeatures stroke = new StrokeFeatures(GeometricElements.stroke(new double[5], new double[5]));
+        final StrokeRecognitionResult result = new StrokeRecognitionResult();
+        when(r2.recognize(stroke, result)).thenReturn(true);
+        chain.recognize(stroke, result);
+        assertEquals(Arrays.asList(r2, r1), chain.order(5));
+        chain.ordering(RecognizerOrdering.FIXED);
+        assertEquals(Arrays.asList(r1, r2), chain.order(5));
+        chain.recognize(stroke, result);
+        verify(r1, times(2)).recognize(stroke, result);
+    }
+
+    /*
+     * a recognizer that never matches and takes a millisecond of the specified clock.
+     */
+    private static PatternRecognizer slowRecognizer(final FakeClock clock) {
+        final PatternRecognizer recognizer = mock(PatternRecognizer.class);
+        when(recognizer.recognize(any(StrokeFeatures.class), any(StrokeRecognitionResult.class))).thenAnswer(
+                new Answer<Boolean>() {
+
+                    @Override
+                    public final Boolean answer(final InvocationOnMock invocation) {
+                        clock.advance(1000000L);
+                        return false;
+                    }
+                });
+        return recognizer;
+    }
+
+    /*
+     * a clock only advanced by the recognizers.
+     */
+    private static final class FakeClock implements PatternRecognizerChain.Clock {
+
+        private long now;
+
+        @Override
+        public final long nanoTime() {
+            return now;
+        }
+
+        final void advance(final long nanos) {
+            now += nanos;
+        }
+
+    }
+
 }
@@ -0,0 +1,60 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.di.api.PreFilterParameters;
+
+public final class PreFilterTest {
+
+    private static final StrokeFeatures LINE = new StrokeFeatures(GeometricElements.stroke(new double[] { 0, 1, 2,
+        3 }, new double[] { 0, 1, 2, 3 }));
+
+    private static final StrokeFeatures SQUARE = new StrokeFeatures(GeometricElements.stroke(new double[] { 0, 2, 2,
+        0, 0 }, new double[] { 0, 0, 2, 2, 0 }));
+
+    @Test
+    public final void lineGate() {
+        final PreFilter preFilter = preFilter(new PatternRecognizerChain());
+        assertTrue(preFilter.lineGate().accepts(LINE));
+        assertFalse(preFilter.lineGate().accepts(SQUARE));
+        assertTrue(preFilter.lineGate().accepts(new StrokeFeatures(GeometricElements.stroke(new double[] { 1 },
+                                                                                            new double[] { 1 }))));
+    }
+
+    @Test
+    public final void circleGate() {
+        final PreFilter preFilter = preFilter(new PatternRecognizerChain());
+        assertFalse(preFilter.circleGate().accepts(LINE));
+        assertTrue(preFilter.circleGate().accepts(SQUARE));
+        preFilter.circleMaxClosureRatio(Double.POSITIVE_INFINITY);
+        assertTrue(preFilter.circleGate().accepts(LINE));
+    }
+
+    @Test
+    public final void skips() {
+        final PatternRecognizer line = mock(PatternRecognizer.class);
+        final PatternRecognizer circle = mock(PatternRecognizer.class);
+        final PatternRecognizerChain chain = new PatternRecognizerChain();
+        final PreFilter preFilter =
+                new PreFilter(chain, line, circle, PreFilterParameters.DEFAULT_LINE_MAX_PATH_RATIO,
+                              PreFilterParameters.DEFAULT_CIRCLE_MAX_CLOSURE_RATIO);
+        chain.add(line, preFilter.lineGate()).add(circle, preFilter.circleGate());
+        chain.recognize(LINE, new StrokeRecognitionResult());
+        chain.recognize(SQUARE, new StrokeRecognitionResult());
+        chain.recognize(SQUARE, new StrokeRecognitionResult());
+        assertEquals(2, preFilter.lineSkips());
+        assertEquals(1, preFilter.circleSkips());
+    }
+
+    private static PreFilter preFilter(final PatternRecognizerChain chain) {
+        return new PreFilter(chain, mock(PatternRecognizer.class), mock(PatternRecognizer.class),
+                             PreFilterParameters.DEFAULT_LINE_MAX_PATH_RATIO,
+                             PreFilterParameters.DEFAULT_CIRCLE_MAX_CLOSURE_RATIO);
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.ncl.sketch.agent.di.impl;
+
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.PreprocessingMode;
+
+/**
+ * Compares the latency and the accuracy of the recognition of noisy dense strokes - a Z made of three lines and a
+ * circle - depending on the {@link PreprocessingMode preprocessing mode}. The accuracy is measured by the fraction
+ * of strokes recognized as the expected number of primitives - lines, circles and arcs alike - and, for the Z, the
+ * mean distance in points between each corner and the closest end of a recognized segment, mapped back to the
+ * original stroke.
+ * <p>
+ * This is not a unit test: run it with <code>java com.ncl.sketch.agent.di.impl.PreprocessingBenchmark</code>.
+ */
+public final class PreprocessingBenchmark {
+
+    private static final int STROKES = 20;
+
+    private static final int SIDE_POINTS = 1000;
+
+    private static final double SIZE = 200.0;
+
+    private static final double NOISE = 0.1;
+
+    private static final int ROUNDS = 5;
+
+    private PreprocessingBenchmark() {
+
+    }
+
+    public static void main(final String[] args) {
+        Logger.getLogger("DI-Agent").setLevel(Level.OFF);
+        final Stroke[] zs = zs(new Random(42));
+        final Stroke[] circles = circles(new Random(42));
+        System.out.println("shape\tmode\t\tns/stroke\tpoints\texact\tcorner error");
+        for (final PreprocessingMode mode : PreprocessingMode.values()) {
+            run("Z", mode, zs, 3, true);
+        }
+        for (final PreprocessingMode mode : PreprocessingMode.values()) {
+            run("circle", mode, circles, 1, false);
+        }
+    }
+
+    private static void run(final String shape, final PreprocessingMode mode, final Stroke[] strokes,
+            final int primitives, final boolean corners) {
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.preprocessingParameters().mode(mode);
+        final Preprocessor preprocessor = (Preprocessor) agent.preprocessingParameters();
+        final RecognitionScratch scratch = new RecognitionScratch();
+        int exact = 0;
+        double cornerError = 0.0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            exact = 0;
+            cornerError = 0.0;
+            final long start = System.nanoTime();
+            for (final Stroke stroke : strokes) {
+                final StrokeRecognitionResult result = agent.recognize(stroke, scratch);
+                if (result.lines().size() + result.circles().size() + result.arcs().size() == primitives) {
+                    exact++;
+                }
+                if (corners) {
+                    cornerError += cornerError(result, SIDE_POINTS) + cornerError(result, 2 * SIDE_POINTS);
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        long points = 0;
+        for (final Stroke stroke : strokes) {
+            points += preprocessor.preprocess(stroke, scratch.stack()).stroke().size();
+        }
+        System.out.println(shape
+            + "\t"
+            + mode
+            + (mode.name().length() < 8 ? "\t\t" : "\t")
+            + best / strokes.length
+            + "\t"
+            + points / strokes.length
+            + "\t"
+            + (double) exact / strokes.length
+            + "\t"
+            + (corners ? String.valueOf(cornerError / strokes.length / 2) : "-"));
+    }
+
+    /*
+     * the distance in points between the specified corner and the closest segment end.
+     */
+    private static int cornerError(final StrokeRecognitionResult result, final int corner) {
+        int error = Integer.MAX_VALUE;
+        for (int i = 0; i < result.segments(); i++) {
+            error = Math.min(error, Math.abs(result.segmentEnd(i) - corner));
+        }
+        return error == Integer.MAX_VALUE ? corner : error;
+    }
+
+    /*
+     * Z strokes with a gaussian noise, the corners at SIDE_POINTS and 2 * SIDE_POINTS.
+     */
+    private static Stroke[] zs(final Random random) {
+        final Stroke[] strokes = new Stroke[STROKES];
+        final int size = 3 * SIDE_POINTS + 1;
+        for (int s = 0; s < STROKES; s++) {
+            final double[] x = new double[size];
+            final double[] y = new double[size];
+            for (int i = 0; i < size; i++) {
+                final int side = Math.min(i / SIDE_POINTS, 2);
+                final double t = (double) (i - side * SIDE_POINTS) / SIDE_POINTS;
+                x[i] = (side == 1 ? SIZE * (1 - t) : SIZE * t) + NOISE * random.nextGaussian();
+                y[i] = (side == 0 ? 0.0 : side == 1 ? SIZE * t : SIZE) + NOISE * random.nextGaussian();
+            }
+            strokes[s] = new Stroke(1.0, new PackedStroke(x, y));
+        }
+        return strokes;
+    }
+
+    /*
+     * closed circle strokes with a radial gaussian noise, starting at a random angle.
+     */
+    private static Stroke[] circles(final Random random) {
+        final Stroke[] strokes = new Stroke[STROKES];
+        final int size = 3 * SIDE_POINTS + 1;
+        for (int s = 0; s < STROKES; s++) {
+            final double[] x = new double[size];
+            final double[] y = new double[size];
+            final double start = random.nextDouble() * 2 * Math.PI;
+            for (int i = 0; i < size; i++) {
+                final double angle = start + 2 * Math.PI * i / (size - 1);
+                final double radius = SIZE / 2 + NOISE * random.nextGaussian();
+                x[i] = radius * Math.cos(angle);
+                y[i] = radius * Math.sin(angle);
+            }
+            strokes[s] = new Stroke(1.0, new PackedStroke(x, y));
+        }
+        return strokes;
+    }
+
+}
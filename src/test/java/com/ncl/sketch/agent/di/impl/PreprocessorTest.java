@@ -0,0 +1,135 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.Stroke;
+import com.ncl.sketch.agent.di.api.PreprocessingMode;
+import com.ncl.sketch.agent.di.api.PreprocessingParameters;
+
+public final class PreprocessorTest {
+
+    private static final double DELTA = 1e-9;
+
+    /* a Z made of three lines, the corners at indices 4 and 8. */
+    private static final Stroke Z = GeometricElements.stroke(new double[] { 0, 1, 2, 3, 4, 3, 2, 1, 0, 1, 2, 3, 4 },
+                                                             new double[] { 0, 0, 0, 0, 0, 1, 2, 3, 4, 4, 4, 4, 4 });
+
+    @Test
+    public final void none() {
+        final PreprocessedStroke preprocessed = preprocessor(PreprocessingMode.NONE).preprocess(Z, new RangeStack());
+        assertSame(Z, preprocessed.stroke());
+        assertEquals(7, preprocessed.originalIndex(7));
+    }
+
+    @Test
+    public final void resample() {
+        final Stroke line = GeometricElements.stroke(new double[] { 0, 2, 5, 10 }, new double[] { 0, 0, 0, 0 });
+        final PreprocessedStroke preprocessed = Preprocessor.resample(line, 3.0);
+        final Stroke stroke = preprocessed.stroke();
+        assertEquals(5, stroke.size());
+        final double[] xs = { 0, 3, 6, 9, 10 };
+        final int[] indices = { 0, 1, 2, 3, 3 };
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(xs[i], stroke.x(i), DELTA);
+            assertEquals(0.0, stroke.y(i), DELTA);
+            assertEquals(indices[i], preprocessed.originalIndex(i));
+        }
+    }
+
+    @Test
+    public final void resampleCoincidentPoints() {
+        final Stroke click = GeometricElements.stroke(new double[] { 5, 5, 5, 5 }, new double[] { 5, 5, 5, 5 });
+        assertSame(click, Preprocessor.resample(click, 3.0).stroke());
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        final RecognitionResult expected = agent.recognize(click);
+        agent.preprocessingParameters().mode(PreprocessingMode.RESAMPLING);
+        final RecognitionResult actual = agent.recognize(click);
+        assertEquals(expected.lines().size(), actual.lines().size());
+        assertEquals(expected.circles().size(), actual.circles().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsSingleMaxPoint() {
+        preprocessor(PreprocessingMode.POINT_CAP).maxPoints(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsZeroSpacing() {
+        preprocessor(PreprocessingMode.RESAMPLING).resamplingSpacing(0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void rejectsNaNSpacing() {
+        preprocessor(PreprocessingMode.RESAMPLING).resamplingSpacing(Double.NaN);
+    }
+
+    @Test
+    public final void simplify() {
+        final PreprocessedStroke preprocessed = Preprocessor.simplify(Z, 0.5, new RangeStack());
+        final Stroke stroke = preprocessed.stroke();
+        assertEquals(4, stroke.size());
+        final int[] indices = { 0, 4, 8, 12 };
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(indices[i], preprocessed.originalIndex(i));
+            assertEquals(Z.x(indices[i]), stroke.x(i), DELTA);
+            assertEquals(Z.y(indices[i]), stroke.y(i), DELTA);
+        }
+    }
+
+    @Test
+    public final void simplifyKeepsDetails() {
+        final Stroke zigzag = GeometricElements.stroke(new double[] { 0, 1, 2, 3, 4 }, new double[] { 0, 1, 0, 1, 0 });
+        assertSame(zigzag, Preprocessor.simplify(zigzag, 0.5, new RangeStack()).stroke());
+    }
+
+    @Test
+    public final void cap() {
+        final PreprocessedStroke preprocessed = Preprocessor.cap(Z, 5);
+        assertEquals(5, preprocessed.stroke().size());
+        assertEquals(0, preprocessed.originalIndex(0));
+        assertEquals(6, preprocessed.originalIndex(2));
+        assertEquals(12, preprocessed.originalIndex(4));
+        assertSame(Z, Preprocessor.cap(Z, 13).stroke());
+    }
+
+    @Test
+    public final void recognizeSimplified() {
+        // a hand drawn Z: three sides of 50 points, the corners at indices 50 and 100
+        final Random random = new Random(1);
+        final double[] x = new double[151];
+        final double[] y = new double[151];
+        for (int i = 0; i < x.length; i++) {
+            final double t = (i % 50) / 50.0;
+            final double px = i == 150 ? 100 : i < 50 ? 100 * t : i < 100 ? 100 - 100 * t : 100 * t;
+            final double py = i == 150 ? 100 : i < 50 ? 0 : i < 100 ? 100 * t : 100;
+            x[i] = px + 0.1 * random.nextGaussian();
+            y[i] = py + 0.1 * random.nextGaussian();
+        }
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final DomainIndependentAgentImpl agent = new DomainIndependentAgentImpl();
+        agent.preprocessingParameters().mode(PreprocessingMode.SIMPLIFICATION);
+        final StrokeRecognitionResult result = agent.recognize(stroke, new RecognitionScratch());
+        assertEquals(3, result.segments());
+        assertEquals(50, result.segmentEnd(0));
+        assertEquals(100, result.segmentEnd(1));
+        assertEquals(150, result.segmentEnd(2));
+        assertEquals(3, result.lines().size());
+        assertArrayEquals(new int[] { 0, 50 }, result.lineRange(0));
+        assertArrayEquals(new int[] { 50, 100 }, result.lineRange(1));
+        assertArrayEquals(new int[] { 100, 150 }, result.lineRange(2));
+    }
+
+    private static Preprocessor preprocessor(final PreprocessingMode mode) {
+        return new Preprocessor(mode, PreprocessingParameters.DEFAULT_RESAMPLING_SPACING,
+                                PreprocessingParameters.DEFAULT_SIMPLIFICATION_TOLERANCE,
+                                PreprocessingParameters.DEFAULT_MAX_POINTS);
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.Circle;
+
+public final class StrokeFeaturesTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    public final void boundingBox() {
+        final double[] x = { -3, -1, -7, -2 };
+        final double[] y = { -5, -9, -4, -6 };
+        final StrokeFeatures features = new StrokeFeatures(GeometricElements.stroke(x, y));
+        assertEquals(-7.0, features.minX(), 0.0);
+        assertEquals(-1.0, features.maxX(), 0.0);
+        assertEquals(-9.0, features.minY(), 0.0);
+        assertEquals(-4.0, features.maxY(), 0.0);
+    }
+
+    @Test
+    public final void closureDistance() {
+        final double[] x = { 0, 3, 3, 0 };
+        final double[] y = { 0, 4, 0, 4 };
+        final StrokeFeatures features = new StrokeFeatures(GeometricElements.stroke(x, y));
+        assertEquals(4.0, features.closureDistance(), DELTA);
+        assertEquals(14.0, features.pathLength(), DELTA);
+    }
+
+    @Test
+    public final void featuresAreComputedOnce() {
+        final double[] x = { 0, 1, 2, 3, 4 };
+        final double[] y = { 0, 1, 0, 1, 0 };
+        final StrokeFeatures features = new StrokeFeatures(GeometricElements.stroke(x, y));
+        assertSame(features.regressionLine(), features.regressionLine());
+        assertSame(features.directionGraphRegressionLine(), features.directionGraphRegressionLine());
+        assertSame(features.circleFit(), features.circleFit());
+    }
+
+    @Test
+    public final void featuresOfSubStroke() {
+        final double[] x = { 9, 1, 2, 3, 4, 9 };
+        final double[] y = { 9, 1, 3, 5, 7, 9 };
+        final StrokeIndex index = new StrokeIndex(GeometricElements.stroke(x, y));
+        final StrokeFeatures features = new StrokeFeatures(index.subIndex(1, 5));
+        assertEquals(1.0, features.minX(), 0.0);
+        assertEquals(4.0, features.maxX(), 0.0);
+        assertEquals(2.0, features.regressionLine().slope(), DELTA);
+        assertEquals(Math.sqrt(45), features.closureDistance(), DELTA);
+    }
+
+    @Test
+    public final void boundingBoxCircle() {
+        final double[] x = { -101, -102, -103, -103, -102, -101, -100, -100 };
+        final double[] y = { -100, -100, -101, -102, -103, -103, -102, -101 };
+        final Circle circle = Strokes.circle(new StrokeFeatures(GeometricElements.stroke(x, y)));
+        assertEquals(-101.5, circle.center().x(), DELTA);
+        assertEquals(-101.5, circle.center().y(), DELTA);
+        assertEquals(1.581138, circle.radius(), DELTA);
+    }
+
+}
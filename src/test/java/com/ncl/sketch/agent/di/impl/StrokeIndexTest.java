@@ -0,0 +1,121 @@
+package com.ncl.sketch.agent.di.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.Stroke;
+
+public final class StrokeIndexTest {
+
+    private static final double DELTA = 0.00001;
+
+    @Test
+    public final void pathLength() {
+        final double[] x = { 0, 3, 3, 0 };
+        final double[] y = { 0, 4, 0, 0 };
+        final StrokeIndex index = new StrokeIndex(GeometricElements.stroke(x, y));
+        assertEquals(12.0, index.pathLength(), DELTA);
+        assertEquals(4.0, index.subIndex(1, 3).pathLength(), DELTA);
+        assertEquals(7.0, index.subIndex(1, 4).pathLength(), DELTA);
+        assertEquals(0.0, index.subIndex(2, 3).pathLength(), DELTA);
+    }
+
+    @Test
+    public final void subIndexOfSubIndex() {
+        final int size = 64;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i;
+            y[i] = i * i % 17;
+        }
+        final StrokeIndex root = new StrokeIndex(GeometricElements.stroke(x, y));
+        StrokeIndex nested = root;
+        int from = 0;
+        int to = size;
+        while (to - from > 3) {
+            nested = nested.subIndex(1, to - from - 1);
+            from++;
+            to--;
+            final StrokeIndex direct = root.subIndex(from, to);
+            assertEquals(from, nested.offset());
+            assertEquals(to - from, nested.stroke().size());
+            assertEquals(x[from], nested.stroke().x(0), 0.0);
+            assertEquals(y[to - 1], nested.stroke().y(to - from - 1), 0.0);
+            assertEquals(direct.pathLength(), nested.pathLength(), 0.0);
+            assertEquals(direct.regressionLine().slope(), nested.regressionLine().slope(), 0.0);
+            assertEquals(direct.segments().direction(0), nested.segments().direction(0), 0.0);
+        }
+    }
+
+    @Test
+    public final void regressionLine() {
+        final double[] x = { 58, 59, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 };
+        final double[] y = { 115, 117, 120, 123, 126, 129, 132, 135, 139, 142, 146, 150, 154, 159, 164 };
+        final RegressionLine rl = new StrokeIndex(GeometricElements.stroke(x, y)).regressionLine();
+        assertEquals(-87.516666666, rl.yIntercept(), DELTA);
+        assertEquals(3.45, rl.slope(), DELTA);
+        assertEquals(0.9910098, rl.coefficientOfDetermination(), DELTA);
+    }
+
+    @Test
+    public final void regressionLineHorizontal() {
+        final double[] x = { 1, 2, 3, 4, 5, 6 };
+        final double[] y = { 1, 5, 5, 5, 5, 5 };
+        final RegressionLine rl = new StrokeIndex(GeometricElements.stroke(x, y)).subIndex(1, 6).regressionLine();
+        assertEquals(5.0, rl.yIntercept(), DELTA);
+        assertEquals(0.0, rl.slope(), DELTA);
+        assertEquals(1.0, rl.coefficientOfDetermination(), DELTA);
+    }
+
+    @Test
+    public final void regressionLineOfShortRangeFarAlong() {
+        final int size = 10003;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 1; i < size; i++) {
+            x[i] = i;
+            y[i] = i < size - 3 ? 100000 : 100000 + i - (size - 3);
+        }
+        final RegressionLine rl =
+                new StrokeIndex(GeometricElements.stroke(x, y)).subIndex(size - 3, size).regressionLine();
+        assertEquals(1.0, rl.slope(), DELTA);
+        assertEquals(100000.0 - (size - 3), rl.yIntercept(), DELTA);
+        assertEquals(1.0, rl.coefficientOfDetermination(), DELTA);
+    }
+
+    @Test
+    public final void regressionLineOfSubStrokes() {
+        final int size = 200;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = 250 + 100 * Math.cos(i / 20.0) + (i % 3);
+            y[i] = 250 + 80 * Math.sin(i / 15.0) - (i % 5);
+        }
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final StrokeIndex index = new StrokeIndex(stroke);
+        final LeastSquares ls = new LeastSquares();
+        for (int from = 0; from < size - 2; from += 7) {
+            for (int to = from + 2; to <= size; to += 11) {
+                final RegressionLine expected = ls.regressionLine(stroke.subStroke(from, to));
+                final RegressionLine actual = index.subIndex(from, to).regressionLine();
+                assertEquals(expected.slope(), actual.slope(), DELTA);
+                assertEquals(expected.yIntercept(), actual.yIntercept(), DELTA * 100);
+                assertEquals(expected.coefficientOfDetermination(), actual.coefficientOfDetermination(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public final void regressionLineVertical() {
+        final double[] x = { 5, 5, 5, 5, 5 };
+        final double[] y = { 1, 2, 3, 4, 5 };
+        final RegressionLine rl = new StrokeIndex(GeometricElements.stroke(x, y)).regressionLine();
+        assertEquals(0.0, rl.yIntercept(), DELTA);
+        assertEquals(1.0, rl.slope(), DELTA);
+        assertEquals(1.0, rl.coefficientOfDetermination(), DELTA);
+    }
+
+}
@@ -27,6 +27,24 @@ public final class StrokesTest {
 
     }
 
+    @Test
+    public final void arcAcrossZeroAngle() {
+        final int size = 19;
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            final double angle = Math.toRadians(-45 + 5 * i);
+            x[i] = Math.cos(angle);
+            y[i] = Math.sin(angle);
+        }
+        final Arc arc = Strokes.arc(GeometricElements.stroke(x, y));
+        assertEquals(0.0, arc.center().x(), DELTA);
+        assertEquals(0.0, arc.center().y(), DELTA);
+        assertEquals(1.0, arc.radius(), DELTA);
+        assertEquals(7 * Math.PI / 4, arc.startAngle(), DELTA);
+        assertEquals(Math.PI / 2, arc.length(), DELTA);
+    }
+
     @Test
     public final void circle() {
         final double[] x = { 101, 102, 103, 103, 102, 101, 100, 100 };
@@ -65,6 +83,23 @@ public final class StrokesTest {
         assertEquals(-3.141592653589793, directionGraph[6], DELTA);
     }
 
+    @Test
+    public final void directionGraphRegressionLine() {
+        final double[] x = { 100, 100, 101, 102, 103, 103, 102, 101, 100, 99, 99 };
+        final double[] y = { 101, 102, 103, 103, 102, 101, 100, 100, 100.5, 101, 102 };
+        final Stroke stroke = GeometricElements.stroke(x, y);
+        final double[] directionGraph = Strokes.directionGraph(stroke);
+        final double[] indexes = new double[directionGraph.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        final RegressionLine expected = new LeastSquares().regressionLine(indexes, directionGraph);
+        final RegressionLine actual = Strokes.directionGraphRegressionLine(new StrokeSegments(stroke));
+        assertEquals(expected.yIntercept(), actual.yIntercept(), DELTA);
+        assertEquals(expected.slope(), actual.slope(), DELTA);
+        assertEquals(expected.coefficientOfDetermination(), actual.coefficientOfDetermination(), DELTA);
+    }
+
     @Test
     public final void directionGraphCounterClockwiseCircle() {
         final double[] x = { 101, 102, 103, 103, 102, 101, 100, 100 };
@@ -230,6 +265,15 @@ public final class StrokesTest {
         assertEquals(1, Strokes.indexOfMaxCurvature(stroke, 2));
     }
 
+    @Test
+    public final void indexOfMaxCurvatureOfSubSegments() {
+        final double[] x = { 9, 9, 0, 0, 2.5, 5, 5 };
+        final double[] y = { 9, 8, 0, 5, 7.5, 5, 0 };
+        final StrokeSegments segments = new StrokeSegments(GeometricElements.stroke(x, y)).subSegments(2, 7);
+        assertEquals(4, segments.size());
+        assertEquals(Strokes.indexOfMaxCurvature(stroke(), 2), Strokes.indexOfMaxCurvature(segments, 2));
+    }
+
     private static Stroke stroke() {
         final double[] x = { 0, 0, 2.5, 5, 5 };
         final double[] y = { 0, 5, 7.5, 5, 0 };
@@ -0,0 +1,76 @@
+package com.ncl.sketch.hmi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+
+public final class CaptureBufferTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public final void viewsFromAnIndex() {
+        final CaptureBuffer buffer = new CaptureBuffer();
+        buffer.add(0, 10);
+        buffer.add(1, 11);
+        buffer.add(2, 12);
+        final PackedStroke view = buffer.points(1);
+        assertEquals(3, buffer.size());
+        assertEquals(2, view.size());
+        assertEquals(1, view.x(0), DELTA);
+        assertEquals(12, view.y(1), DELTA);
+    }
+
+    @Test
+    public final void viewSurvivesGrowth() {
+        final CaptureBuffer buffer = new CaptureBuffer();
+        final int size = CaptureBuffer.INITIAL_CAPACITY;
+        for (int i = 0; i < size; i++) {
+            buffer.add(i, -i);
+        }
+        final PackedStroke view = buffer.points(0);
+        // the arrays grow twice: the view keeps reading the arrays it was taken on
+        for (int i = size; i < 4 * size; i++) {
+            buffer.add(-1, -1);
+        }
+        assertEquals(4 * size, buffer.size());
+        assertEquals(size, view.size());
+        for (int i = 0; i < size; i++) {
+            assertEquals(i, view.x(i), DELTA);
+            assertEquals(-i, view.y(i), DELTA);
+        }
+        assertEquals(size - 1, buffer.points(size - 1).x(0), DELTA);
+        assertEquals(-1, buffer.points(size).x(0), DELTA);
+    }
+
+    @Test
+    public final void replaceLastLeavesHandedOutPoints() {
+        final CaptureBuffer buffer = new CaptureBuffer();
+        buffer.add(0, 0);
+        buffer.add(1, 1);
+        final PackedStroke handedOut = buffer.points(0);
+        buffer.add(2, 2);
+        buffer.replaceLast(3, 4);
+        assertEquals(2, handedOut.size());
+        assertEquals(1, handedOut.x(1), DELTA);
+        assertEquals(1, handedOut.y(1), DELTA);
+        final PackedStroke last = buffer.points(2);
+        assertEquals(1, last.size());
+        assertEquals(3, last.x(0), DELTA);
+        assertEquals(4, last.y(0), DELTA);
+    }
+
+    @Test
+    public final void coordinates() {
+        final CaptureBuffer buffer = new CaptureBuffer();
+        buffer.add(0, 10);
+        buffer.add(1, 11);
+        buffer.add(2, 12);
+        assertArrayEquals(new Double[] { 1.0, 11.0, 2.0, 12.0 }, buffer.coordinates(1));
+        assertEquals(0, buffer.coordinates(3).length);
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.ncl.sketch.hmi;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public final class PointFilterTest {
+
+    private static final long MILLI = 1000000L;
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public final void keepsFirstPoint() {
+        final PointFilter filter = new PointFilter();
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(0, 0, 0, false));
+        filter.reset();
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(0, 0, 0, false));
+    }
+
+    @Test
+    public final void dropsExactDuplicates() {
+        final PointFilter filter = new PointFilter().minDistance(0.0);
+        filter.accept(0, 0, 0, false);
+        assertEquals(PointFilter.Decision.DROP, filter.accept(0, 0, MILLI, false));
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(0.1, 0, 2 * MILLI, false));
+        assertEquals(PointFilter.Decision.DROP, filter.accept(0.1, 0, 3 * MILLI, true));
+    }
+
+    @Test
+    public final void minDistance() {
+        final PointFilter filter = new PointFilter().minDistance(2.0);
+        filter.accept(0, 0, 0, false);
+        assertEquals(PointFilter.Decision.DROP, filter.accept(1, 1, MILLI, false));
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(2, 0, 2 * MILLI, false));
+        // distances are measured from the previous kept point
+        assertEquals(PointFilter.Decision.DROP, filter.accept(3, 0, 3 * MILLI, false));
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(4, 0, 4 * MILLI, false));
+    }
+
+    @Test
+    public final void minInterval() {
+        final PointFilter filter = new PointFilter().minDistance(0.0).minInterval(10.0);
+        filter.accept(0, 0, 0, false);
+        assertEquals(PointFilter.Decision.DROP, filter.accept(5, 0, 5 * MILLI, false));
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(10, 0, 10 * MILLI, false));
+        assertEquals(PointFilter.Decision.DROP, filter.accept(15, 0, 19 * MILLI, false));
+    }
+
+    @Test
+    public final void keepsLastPoint() {
+        final PointFilter filter = new PointFilter().minDistance(2.0).minInterval(10.0);
+        filter.accept(0, 0, 0, false);
+        assertEquals(PointFilter.Decision.KEEP, filter.accept(5, 0, MILLI, true));
+    }
+
+    @Test
+    public final void lastPointReplacesCloseKeptPoint() {
+        final PointFilter filter = new PointFilter().minDistance(2.0);
+        filter.accept(0, 0, 0, false);
+        filter.accept(4, 0, MILLI, false);
+        assertEquals(PointFilter.Decision.REPLACE, filter.accept(5, 0, 2 * MILLI, true));
+        assertEquals(2, filter.kept());
+    }
+
+    @Test
+    public final void lastPointCloseToFirstPointIsDropped() {
+        final PointFilter filter = new PointFilter().minDistance(2.0);
+        filter.accept(0, 0, 0, false);
+        assertEquals(PointFilter.Decision.DROP, filter.accept(1, 0, MILLI, true));
+    }
+
+    @Test
+    public final void counters() {
+        final PointFilter filter = new PointFilter().minDistance(2.0);
+        assertEquals(0.0, filter.reductionRatio(), DELTA);
+        filter.accept(0, 0, 0, false);
+        filter.accept(1, 0, MILLI, false);
+        filter.accept(2, 0, 2 * MILLI, false);
+        filter.accept(3, 0, 3 * MILLI, false);
+        assertEquals(4, filter.received());
+        assertEquals(2, filter.kept());
+        assertEquals(0.5, filter.reductionRatio(), DELTA);
+        filter.reset();
+        filter.accept(0, 0, 4 * MILLI, false);
+        assertEquals(5, filter.received());
+        assertEquals(3, filter.kept());
+        assertEquals(0.4, filter.reductionRatio(), DELTA);
+    }
+
+}
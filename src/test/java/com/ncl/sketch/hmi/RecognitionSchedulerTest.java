@@ -0,0 +1,139 @@
+package com.ncl.sketch.hmi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javafx.event.EventHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.ncl.sketch.agent.api.PackedStroke;
+import com.ncl.sketch.agent.api.RecognitionResult;
+import com.ncl.sketch.agent.api.RecognitionSession;
+import com.ncl.sketch.agent.api.SketchRecognitionAgent;
+
+public final class RecognitionSchedulerTest {
+
+    private static final PackedStroke POINTS = new PackedStroke(new double[] { 0, 1, 2 }, new double[] { 0, 1, 2 });
+
+    /* the updates posted to the JavaFX application thread, run by the test thread. */
+    private BlockingQueue<Runnable> updates;
+
+    private CountDownLatch release;
+
+    private RecognitionResult result;
+
+    private List<RecognitionEvent<Object>> events;
+
+    private RecognitionScheduler<Object> scheduler;
+
+    @Before
+    public final void setUp() {
+        updates = new LinkedBlockingQueue<>();
+        release = new CountDownLatch(1);
+        result = mock(RecognitionResult.class);
+        events = new ArrayList<>();
+        final SketchRecognitionAgent agent = mock(SketchRecognitionAgent.class);
+        when(agent.openSession(anyDouble())).thenAnswer(new Answer<RecognitionSession>() {
+            @Override
+            public RecognitionSession answer(final InvocationOnMock invocation) {
+                return session();
+            }
+        });
+        // a single worker, at most one queued task before speculations are skipped
+        scheduler = new RecognitionScheduler<>(agent, new Executor() {
+            @Override
+            public void execute(final Runnable update) {
+                updates.add(update);
+            }
+        }, 1, 1);
+        scheduler.onRecognitionDone(new EventHandler<RecognitionEvent<Object>>() {
+            @Override
+            public void handle(final RecognitionEvent<Object> event) {
+                events.add(event);
+            }
+        });
+    }
+
+    @After
+    public final void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public final void finishesEverySketchOfASaturatedWorker() throws InterruptedException {
+        // opaque drawings: the scheduler never reads them, no JavaFX node is needed
+        final Object[] drawings = new Object[4];
+        for (int i = 0; i < drawings.length; i++) {
+            drawings[i] = new Object();
+            final RecognitionScheduler.ScheduledSketch<Object> sketch = scheduler.open(drawings[i], 1.0);
+            scheduler.add(sketch, POINTS);
+            // the first recognition blocks the worker: the speculations of the next sketches are skipped
+            scheduler.speculate(sketch);
+            scheduler.finish(sketch);
+        }
+        release.countDown();
+        deliver(drawings.length);
+        assertEquals(drawings.length, scheduler.delivered());
+        assertEquals(0, scheduler.dropped());
+        for (int i = 0; i < drawings.length; i++) {
+            assertSame(drawings[i], events.get(i).getSketchDrawing());
+            assertSame(result, events.get(i).getRecognitionResult());
+        }
+    }
+
+    @Test
+    public final void dropsSketchesFinishedAfterShutdown() throws InterruptedException {
+        final Object drawing = new Object();
+        final RecognitionScheduler.ScheduledSketch<Object> sketch = scheduler.open(drawing, 1.0);
+        scheduler.shutdown();
+        scheduler.finish(sketch);
+        deliver(1);
+        assertEquals(0, scheduler.delivered());
+        assertEquals(1, scheduler.dropped());
+        assertSame(drawing, events.get(0).getSketchDrawing());
+    }
+
+    /*
+     * runs the posted updates until the specified number of sketches has been delivered.
+     */
+    private void deliver(final int sketches) throws InterruptedException {
+        while (events.size() < sketches) {
+            final Runnable update = updates.poll(10, TimeUnit.SECONDS);
+            assertTrue("recognition not delivered", update != null);
+            update.run();
+        }
+    }
+
+    private RecognitionSession session() {
+        final RecognitionSession session = mock(RecognitionSession.class);
+        when(session.add(anyDouble(), anyDouble())).thenReturn(session);
+        when(session.speculate()).thenReturn(result);
+        when(session.finish()).thenAnswer(new Answer<RecognitionResult>() {
+            @Override
+            public RecognitionResult answer(final InvocationOnMock invocation) throws InterruptedException {
+                release.await();
+                return result;
+            }
+        });
+        return session;
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.ncl.sketch.hmi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public final class SpatialIndexTest {
+
+    @Test
+    public final void empty() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        assertEquals(Collections.emptyList(), index.query(-100, -100, 100, 100, new ArrayList<String>()));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public final void intersecting() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        index.add("a", 0, 0, 5, 5);
+        index.add("b", 20, 20, 25, 25);
+        index.add("c", -15, -15, -12, -12);
+        assertEquals(Arrays.asList("a"), query(index, 4, 4, 6, 6));
+        assertEquals(Arrays.asList("b"), query(index, 25, 25, 30, 30));
+        assertEquals(Arrays.asList("c"), query(index, -20, -20, -14, -14));
+        // same cells, disjoint bounding boxes
+        assertEquals(Collections.emptyList(), query(index, 6, 6, 9, 9));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public final void itemsOverManyCellsAreFoundOnce() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        index.add("a", 0, 0, 35, 35);
+        assertEquals(Arrays.asList("a"), query(index, 0, 0, 40, 40));
+    }
+
+    @Test
+    public final void oversizedItems() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        index.add("a", 0, 0, 1000, 1000);
+        index.add("b", 2000, 2000, 2005, 2005);
+        assertEquals(Arrays.asList("a"), query(index, 500, 500, 501, 501));
+        assertEquals(Collections.emptyList(), query(index, 1500, 1500, 1600, 1600));
+        assertEquals(Arrays.asList("a", "b"), query(index, -10000, -10000, 10000, 10000));
+    }
+
+    @Test
+    public final void insertionOrder() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        index.add("a", 30, 30, 35, 35);
+        index.add("b", 0, 0, 1000, 1000);
+        index.add("c", 0, 0, 5, 5);
+        index.add("d", 0, 0, 0.5, 0.5);
+        // a query covering more cells than the index holds visits the occupied cells
+        assertEquals(Arrays.asList("a", "b", "c", "d"), query(index, -1000, -1000, 1000, 1000));
+        assertEquals(Arrays.asList("b", "c", "d"), query(index, 0, 0, 1, 1));
+    }
+
+    @Test
+    public final void minExtent() {
+        final SpatialIndex<String> index = new SpatialIndex<>(10.0);
+        index.add("point", 1, 1, 1, 1);
+        index.add("small", 0, 0, 0.5, 0.25);
+        index.add("medium", 0, 0, 3, 1);
+        index.add("large", 0, 0, 1000, 1000);
+        final List<String> result = new ArrayList<>();
+        assertEquals(Arrays.asList("point", "small", "medium", "large"), index.query(0, 0, 2, 2, 0.0, result));
+        result.clear();
+        assertEquals(Arrays.asList("small", "medium", "large"), index.query(0, 0, 2, 2, 0.5, result));
+        result.clear();
+        assertEquals(Arrays.asList("medium", "large"), index.query(0, 0, 2, 2, 2.0, result));
+        result.clear();
+        assertEquals(Arrays.asList("large"), index.query(0, 0, 2, 2, 3.5, result));
+    }
+
+    private static List<String> query(final SpatialIndex<String> index, final double minX, final double minY,
+            final double maxX, final double maxY) {
+        return index.query(minX, minY, maxX, maxY, new ArrayList<String>());
+    }
+
+}